@@ -0,0 +1,392 @@
+package backend.core;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Represents a sampler of the part of an affine attractor inside the view of its description,
+ * for rendering zoomed in views without wasting steps on points outside the canvas.
+ * The attractor is the union of its images under every transform, and every image is again the
+ * union of its own images, so each sequence of transforms, an address, has a piece of the
+ * attractor. Starting from the bounding box of the attractor, addresses are refined while their
+ * image of the box crosses the edge of the view and is still large, and dropped once the image
+ * misses the view. The remaining addresses cover every point of the attractor in view.
+ * A plain chaos game walker then supplies points distributed over the whole attractor, and every
+ * step maps the point of the walker through an address picked with the probability of its piece.
+ * Almost all steps land in view. Each stands for only the visible weight of a plain step, and
+ * is plotted with that weight, so the density in view per step is the same as in the plain
+ * chaos game, and zooming in gets more samples instead of a brighter canvas.
+ * The bounding box of the attractor is sampled once for every set of transforms and
+ * probabilities, and reused for every view and canvas of them.
+ *
+ * @version 1.2
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class AddressTreeSampler {
+  // Pieces at most this share of the view in both directions are not refined further
+  private static final double LEAF_EXTENT = 0.125;
+  private static final int MAX_DEPTH = 48;
+  private static final int MAX_ADDRESSES = 1 << 14;
+  // Pruning is only worth it when plain runs would lose at least this share of their steps
+  private static final double MAX_VISIBLE_WEIGHT = 0.5;
+  // Added to every side of the bounding box, it is sampled and may miss the outermost points
+  private static final double BOX_MARGIN = 0.05;
+  private static final int SKIPPED_STEPS = 20;
+  private static final int MAX_CACHED_BOXES = 64;
+
+  // The bounding boxes of attractors by the fingerprint of their transforms and weights
+  private static final Map<String, double[]> BOUNDING_BOXES = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+          return size() > MAX_CACHED_BOXES;
+        }
+      }
+  );
+
+  // The coefficients a, b, c, d, e and f of x' = ax + by + e, y' = cx + dy + f
+  private final double[][] transforms;
+  private final double[] cumulativeWeights;
+  private final double[][] addresses;
+  private final double[] cumulativeAddressWeights;
+  private final double visibleWeight;
+
+  /**
+   * Constructs a new sampler of the given affine description, with the bounding box of its
+   * attractor, for a canvas of the given size. The addresses in view of the description are
+   * enumerated once.
+   *
+   * @param description the description to sample, with 2-dimensional affine transforms only
+   * @param minBox the minimum coordinates of the bounding box of the attractor
+   * @param maxBox the maximum coordinates of the bounding box of the attractor
+   * @param width the width of the canvas
+   * @param height the height of the canvas
+   * @throws IllegalArgumentException if a transform is not 2-dimensional affine
+   * @since 1.0
+   */
+  public AddressTreeSampler(
+      ChaosGameDescription description, Vector minBox, Vector maxBox, int width, int height
+  ) throws IllegalArgumentException {
+    List<Transform> descriptionTransforms = description.getTransforms();
+    this.transforms = new double[descriptionTransforms.size()][];
+    for (int t = 0; t < transforms.length; t++) {
+      if (!(descriptionTransforms.get(t) instanceof AffineTransform affine)
+          || affine.getMatrix().getSize() != 2) {
+        throw new IllegalArgumentException("Only 2-dimensional affine transforms can be pruned");
+      }
+      MatrixNxN matrix = affine.getMatrix();
+      Vector vector = affine.getVector();
+      transforms[t] = new double[] {
+          matrix.getElement(0, 0), matrix.getElement(0, 1),
+          matrix.getElement(1, 0), matrix.getElement(1, 1),
+          vector.getElement(0), vector.getElement(1)
+      };
+    }
+
+    double[] weights = description.getWeights();
+    this.cumulativeWeights = new double[transforms.length];
+    double sum = 0;
+    for (int t = 0; t < transforms.length; t++) {
+      sum += t < weights.length ? weights[t] : 0;
+      cumulativeWeights[t] = sum;
+    }
+
+    double marginX = (maxBox.getElement(0) - minBox.getElement(0)) * BOX_MARGIN;
+    double marginY = (maxBox.getElement(1) - minBox.getElement(1)) * BOX_MARGIN;
+    double[] box = {
+        minBox.getElement(0) - marginX, minBox.getElement(1) - marginY,
+        maxBox.getElement(0) + marginX, maxBox.getElement(1) + marginY
+    };
+    double[] view = canvasView(description, width, height);
+
+    List<Address> leaves = enumerate(weights, box, view);
+    this.addresses = new double[leaves.size()][];
+    this.cumulativeAddressWeights = new double[leaves.size()];
+    double visible = 0;
+    for (int i = 0; i < leaves.size(); i++) {
+      addresses[i] = leaves.get(i).map();
+      visible += leaves.get(i).weight();
+      cumulativeAddressWeights[i] = visible;
+    }
+    this.visibleWeight = visible;
+  }
+
+  /**
+   * Returns a sampler of the given description, if its view shows only a small part of the
+   * attractor, or null if a plain chaos game does as well, like when the whole attractor is in
+   * view.
+   * Only descriptions of contractive 2-dimensional affine transforms are sampled.
+   *
+   * @param description the description to sample
+   * @param width the width of the canvas
+   * @param height the height of the canvas
+   * @return a sampler of the view of the description, or null
+   * @since 1.0
+   */
+  public static AddressTreeSampler create(
+      ChaosGameDescription description, int width, int height
+  ) {
+    if (description.getTransforms().isEmpty()) {
+      return null;
+    }
+    for (Transform transform : description.getTransforms()) {
+      if (!(transform instanceof AffineTransform affine)
+          || affine.getMatrix().getSize() != 2
+          || AttractorAnalyzer.getLipschitzConstant(affine) >= 1) {
+        return null;
+      }
+    }
+    Vector[] boundingBox = getBoundingBox(description);
+    double[] view = canvasView(description, width, height);
+    if (view[0] <= boundingBox[0].getElement(0)
+        && view[1] <= boundingBox[0].getElement(1)
+        && view[2] >= boundingBox[1].getElement(0)
+        && view[3] >= boundingBox[1].getElement(1)) {
+      // The whole attractor is in view, nothing to prune
+      return null;
+    }
+    AddressTreeSampler sampler = new AddressTreeSampler(
+        description, boundingBox[0], boundingBox[1], width, height
+    );
+    return sampler.visibleWeight <= MAX_VISIBLE_WEIGHT ? sampler : null;
+  }
+
+  /**
+   * Returns the bounding box of the attractor of the given description, sampled the first
+   * time its transforms and probabilities are seen, and cached after.
+   *
+   * @param description the description of contractive 2-dimensional affine transforms
+   * @return the minimum and maximum coordinates of the attractor, in that order
+   * @since 1.1
+   */
+  static Vector[] getBoundingBox(ChaosGameDescription description) {
+    double[] box = BOUNDING_BOXES.computeIfAbsent(getBoxKey(description), unused -> {
+      Vector[] sampled = AttractorAnalyzer.getBoundingBox(description);
+      return new double[] {
+          sampled[0].getElement(0), sampled[0].getElement(1),
+          sampled[1].getElement(0), sampled[1].getElement(1)
+      };
+    });
+    // New vectors every time, the cached box must not be edited
+    return new Vector[] {new Vector(box[0], box[1]), new Vector(box[2], box[3])};
+  }
+
+  /**
+   * Returns the key of the bounding box of the given description, the fingerprint of
+   * everything the box depends on. The view of the description does not matter.
+   *
+   * @param description the description of the attractor
+   * @return the key of the bounding box
+   * @since 1.1
+   */
+  static String getBoxKey(ChaosGameDescription description) {
+    StringBuilder key = new StringBuilder();
+    for (Transform transform : description.getTransforms()) {
+      key.append(transform.getDetailsAsString()).append(';');
+    }
+    return key.append(Arrays.toString(description.getWeights())).toString();
+  }
+
+  /**
+   * Returns the number of addresses the sampler picks from.
+   *
+   * @return the number of addresses in view
+   * @since 1.0
+   */
+  public int getAddressCount() {
+    return addresses.length;
+  }
+
+  /**
+   * Returns the total probability of the addresses in view, about the share of the steps of a
+   * plain chaos game that land in view.
+   *
+   * @return the weight of the addresses in view, between 0 and 1
+   * @since 1.0
+   */
+  public double getVisibleWeight() {
+    return visibleWeight;
+  }
+
+  /**
+   * Plots the given number of points of the attractor in view on the given canvas, with the
+   * given random generator. Stops early once the given condition is true, checked every few
+   * thousand steps.
+   * Every point is hit with the visible weight, so the canvas gets the same density per step as
+   * a plain run of the view.
+   *
+   * @param steps the number of points to plot
+   * @param random the random generator of the walk
+   * @param canvas the canvas to plot on
+   * @param cancelled the condition to stop early
+   * @since 1.0
+   */
+  public void run(int steps, Random random, ChaosCanvas canvas, BooleanSupplier cancelled) {
+    if (addresses.length == 0) {
+      return;
+    }
+    double totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+    double totalAddressWeight = cumulativeAddressWeights[cumulativeAddressWeights.length - 1];
+    // A step picks a piece in view, which a plain step only does with the visible weight
+    double hitWeight = visibleWeight;
+    double x = 0;
+    double y = 0;
+
+    for (int i = 0; i < steps + SKIPPED_STEPS; i++) {
+      if ((i & 0xfff) == 0 && cancelled.getAsBoolean()) {
+        return;
+      }
+      // The walker moves over the whole attractor like in the plain chaos game
+      double[] step = transforms[pick(cumulativeWeights, random.nextDouble() * totalWeight)];
+      double nextX = step[0] * x + step[1] * y + step[4];
+      y = step[2] * x + step[3] * y + step[5];
+      x = nextX;
+      if (i < SKIPPED_STEPS) {
+        continue;
+      }
+
+      // Moved into a piece of the attractor in view
+      double[] map = addresses[pick(cumulativeAddressWeights,
+          random.nextDouble() * totalAddressWeight)];
+      canvas.putPixel(
+          map[0] * x + map[1] * y + map[4], map[2] * x + map[3] * y + map[5], hitWeight
+      );
+    }
+  }
+
+  /**
+   * Enumerates the addresses whose image of the box reaches into the view, refining those that
+   * cross its edge until they are small, deep, or there are too many.
+   *
+   * @since 1.0
+   */
+  private List<Address> enumerate(double[] weights, double[] box, double[] view) {
+    double leafWidth = (view[2] - view[0]) * LEAF_EXTENT;
+    double leafHeight = (view[3] - view[1]) * LEAF_EXTENT;
+    List<Address> leaves = new ArrayList<>();
+    Deque<Address> open = new ArrayDeque<>();
+    open.add(new Address(new double[] {1, 0, 0, 1, 0, 0}, 1, 0));
+
+    while (!open.isEmpty()) {
+      Address address = open.poll();
+      double[] image = imageBounds(address.map(), box);
+      if (image[2] < view[0] || image[0] > view[2] || image[3] < view[1] || image[1] > view[3]) {
+        continue;
+      }
+      boolean inside = image[0] >= view[0] && image[2] <= view[2]
+          && image[1] >= view[1] && image[3] <= view[3];
+      boolean small = image[2] - image[0] <= leafWidth && image[3] - image[1] <= leafHeight;
+      if (inside || small || address.depth() >= MAX_DEPTH
+          || leaves.size() + open.size() + transforms.length > MAX_ADDRESSES) {
+        leaves.add(address);
+        continue;
+      }
+
+      for (int t = 0; t < transforms.length; t++) {
+        double weight = t < weights.length ? weights[t] : 0;
+        if (weight > 0) {
+          open.add(new Address(
+              compose(address.map(), transforms[t]), address.weight() * weight, address.depth() + 1
+          ));
+        }
+      }
+    }
+    return leaves;
+  }
+
+  /**
+   * Returns the area plotted by a canvas of the given size showing the view of the given
+   * description, as the minimum x, minimum y, maximum x and maximum y. Indices are truncated, so
+   * the canvas also plots points up to a pixel outside the view, and so must the sampler.
+   *
+   * @since 1.0
+   */
+  private static double[] canvasView(ChaosGameDescription description, int width, int height) {
+    Vector minCoords = description.getMinCoords();
+    Vector maxCoords = description.getMaxCoords();
+    double pixels = Math.max(Math.min(width, height) - 1, 1);
+    double pixelWidth = (maxCoords.getElement(0) - minCoords.getElement(0)) / pixels;
+    double pixelHeight = (maxCoords.getElement(1) - minCoords.getElement(1)) / pixels;
+    return new double[] {
+        minCoords.getElement(0) - pixelWidth, minCoords.getElement(1) - pixelHeight,
+        maxCoords.getElement(0) + pixelWidth, maxCoords.getElement(1) + pixelHeight
+    };
+  }
+
+  /**
+   * Returns the map applying the second map first and then the first.
+   *
+   * @since 1.0
+   */
+  private static double[] compose(double[] first, double[] second) {
+    return new double[] {
+        first[0] * second[0] + first[1] * second[2],
+        first[0] * second[1] + first[1] * second[3],
+        first[2] * second[0] + first[3] * second[2],
+        first[2] * second[1] + first[3] * second[3],
+        first[0] * second[4] + first[1] * second[5] + first[4],
+        first[2] * second[4] + first[3] * second[5] + first[5]
+    };
+  }
+
+  /**
+   * Returns the bounds of the image of the given box under the given map, from the images of
+   * its corners, as the minimum x, minimum y, maximum x and maximum y.
+   *
+   * @since 1.0
+   */
+  private static double[] imageBounds(double[] map, double[] box) {
+    double[] bounds = {
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    for (int corner = 0; corner < 4; corner++) {
+      double x = box[(corner & 1) == 0 ? 0 : 2];
+      double y = box[(corner & 2) == 0 ? 1 : 3];
+      double imageX = map[0] * x + map[1] * y + map[4];
+      double imageY = map[2] * x + map[3] * y + map[5];
+      bounds[0] = Math.min(bounds[0], imageX);
+      bounds[1] = Math.min(bounds[1], imageY);
+      bounds[2] = Math.max(bounds[2], imageX);
+      bounds[3] = Math.max(bounds[3], imageY);
+    }
+    return bounds;
+  }
+
+  /**
+   * Returns the index of the first cumulative weight above the given value.
+   *
+   * @since 1.0
+   */
+  private static int pick(double[] cumulative, double value) {
+    int index = Arrays.binarySearch(cumulative, value);
+    if (index < 0) {
+      index = -index - 1;
+    } else {
+      index++;
+    }
+    return Math.min(index, cumulative.length - 1);
+  }
+
+  /**
+   * Represents an address, the composed map of its sequence of transforms, the probability of
+   * its piece of the attractor, and the length of the sequence.
+   *
+   * @since 1.0
+   */
+  private record Address(double[] map, double weight, int depth) {
+  }
+}
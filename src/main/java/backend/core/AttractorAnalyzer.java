@@ -0,0 +1,295 @@
+package backend.core;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Analyzes the attractor of an affine chaos game description.
+ * Supports computing the Lipschitz constant of each transform, checking whether the system is
+ * contractive, and finding a tight bounding box of the attractor.
+ * The bounding box is first bounded analytically by a ball that every transform maps into
+ * itself, then refined by a short sampling pass of the chaos game.
+ *
+ * @version 1.1
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class AttractorAnalyzer {
+  private static final int SAMPLE_STEPS = 100000;
+  private static final int SKIPPED_STEPS = 20;
+  private static final double MARGIN = 0.01;
+  private static final double MIN_EXTENT = 1e-3;
+
+  /**
+   * Prevent instantiation.
+   *
+   * @since 1.0
+   */
+  private AttractorAnalyzer() {
+    // Prevent instantiation
+  }
+
+  /**
+   * Returns the Lipschitz constant of the given 2-dimensional affine transform.
+   * The constant is the largest singular value of the matrix, which is the most the transform
+   * can stretch the distance between two points.
+   *
+   * @param transform the affine transform to analyze
+   * @return the Lipschitz constant of the transform
+   * @throws IllegalArgumentException if the transform is not 2-dimensional
+   * @since 1.0
+   */
+  public static double getLipschitzConstant(AffineTransform transform)
+      throws IllegalArgumentException {
+    MatrixNxN matrix = transform.getMatrix();
+    if (matrix.getSize() != 2) {
+      throw new IllegalArgumentException("Only 2-dimensional transforms can be analyzed");
+    }
+    double a = matrix.getElement(0, 0);
+    double b = matrix.getElement(0, 1);
+    double c = matrix.getElement(1, 0);
+    double d = matrix.getElement(1, 1);
+
+    // The singular values are the square roots of the eigenvalues of the matrix times its
+    // transpose, which has trace s and determinant det^2
+    double s = a * a + b * b + c * c + d * d;
+    double det = a * d - b * c;
+    double root = Math.sqrt(Math.max(s * s - 4 * det * det, 0.0));
+    return Math.sqrt((s + root) / 2);
+  }
+
+  /**
+   * Returns whether every transform of the given description is a contraction.
+   * Logs a warning for every transform that is not.
+   *
+   * @param description the description to analyze
+   * @return true if all transforms are contractive, false otherwise
+   * @throws IllegalArgumentException if the description is not 2-dimensional affine
+   * @since 1.0
+   */
+  public static boolean isContractive(ChaosGameDescription description)
+      throws IllegalArgumentException {
+    boolean contractive = true;
+    List<AffineTransform> transforms = getAffineTransforms(description);
+
+    for (int i = 0; i < transforms.size(); i++) {
+      double lipschitz = getLipschitzConstant(transforms.get(i));
+      if (lipschitz >= 1.0) {
+        Logger.getLogger(AttractorAnalyzer.class.getName())
+            .warning("Transform " + i + " is not contractive, Lipschitz constant " + lipschitz);
+        contractive = false;
+      }
+    }
+    return contractive;
+  }
+
+  /**
+   * Returns the bounding box of the attractor of the given description, as the minimum and
+   * maximum coordinates.
+   * The analytical bound is a ball around the mean of the fixed points, with a radius large
+   * enough for every transform to map the ball into itself. The ball is then tightened to the
+   * points visited by a short run of the chaos game, with a small margin.
+   *
+   * @param description the description to analyze
+   * @return the minimum and maximum coordinates of the attractor, in that order
+   * @throws IllegalArgumentException if the description is not 2-dimensional affine, or if any
+   *     transform is not contractive
+   * @since 1.0
+   */
+  public static Vector[] getBoundingBox(ChaosGameDescription description)
+      throws IllegalArgumentException {
+    if (!isContractive(description)) {
+      throw new IllegalArgumentException("The attractor is only bounded for contractive systems");
+    }
+    List<AffineTransform> transforms = getAffineTransforms(description);
+
+    // Center of the ball, the mean of the fixed points
+    double centerX = 0;
+    double centerY = 0;
+    for (AffineTransform transform : transforms) {
+      double[] fixedPoint = getFixedPoint(transform);
+      centerX += fixedPoint[0] / transforms.size();
+      centerY += fixedPoint[1] / transforms.size();
+    }
+
+    // |f(x) - c| <= s * |x - c| + |f(c) - c|, which is at most r for every r below
+    double radius = 0;
+    for (AffineTransform transform : transforms) {
+      double[] image = {centerX, centerY};
+      applyAffine(transform, image);
+      double distance = Math.hypot(image[0] - centerX, image[1] - centerY);
+      radius = Math.max(radius, distance / (1 - getLipschitzConstant(transform)));
+    }
+
+    double[] bounds = sampleBounds(transforms, description.getWeights(), centerX, centerY);
+
+    // The sampled box can never be larger than the analytical one
+    double minX = Math.max(bounds[0], centerX - radius);
+    double minY = Math.max(bounds[1], centerY - radius);
+    double maxX = Math.min(bounds[2], centerX + radius);
+    double maxY = Math.min(bounds[3], centerY + radius);
+
+    // Avoid an empty canvas area for attractors that are a single line or point
+    double extentX = Math.max(maxX - minX, MIN_EXTENT);
+    double extentY = Math.max(maxY - minY, MIN_EXTENT);
+    double midX = (minX + maxX) / 2;
+    double midY = (minY + maxY) / 2;
+
+    return new Vector[] {
+        new Vector(midX - extentX / 2, midY - extentY / 2),
+        new Vector(midX + extentX / 2, midY + extentY / 2)
+    };
+  }
+
+  /**
+   * Fits the minimum and maximum coordinates of the given description to the bounding box of
+   * its attractor. The coordinates are updated in place.
+   * Canvases are square, so the shorter side of the box is widened around its center to the
+   * longer one, and the attractor is not stretched.
+   * If the description is not 2-dimensional affine, or any transform is not contractive,
+   * logs a warning and leaves the description unchanged.
+   *
+   * @param description the description to fit
+   * @return true if the description was fitted, false otherwise
+   * @since 1.0
+   */
+  public static boolean fitToAttractor(ChaosGameDescription description) {
+    Vector[] boundingBox;
+    try {
+      boundingBox = getBoundingBox(description);
+    } catch (IllegalArgumentException e) {
+      Logger.getLogger(AttractorAnalyzer.class.getName())
+          .warning("Could not fit the description to its attractor. " + e.getMessage());
+      return false;
+    }
+
+    double extent = Math.max(
+        boundingBox[1].getElement(0) - boundingBox[0].getElement(0),
+        boundingBox[1].getElement(1) - boundingBox[0].getElement(1)
+    );
+    for (int i = 0; i < 2; i++) {
+      double center = (boundingBox[0].getElement(i) + boundingBox[1].getElement(i)) / 2;
+      description.getMinCoords().setElement(i, center - extent / 2);
+      description.getMaxCoords().setElement(i, center + extent / 2);
+    }
+    return true;
+  }
+
+  /**
+   * Runs a short chaos game from the given point and returns the bounds of the visited points.
+   * Transforms are picked with the probabilities of the description, so the bounds cover the
+   * parts of the attractor that rendering the description actually visits.
+   *
+   * @return the minimum x, minimum y, maximum x and maximum y, with a small margin
+   * @since 1.0
+   */
+  private static double[] sampleBounds(
+      List<AffineTransform> transforms, double[] weights, double startX, double startY
+  ) {
+    double[] cumulativeWeights = new double[transforms.size()];
+    double sum = 0;
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      sum += i < weights.length ? weights[i] : 0;
+      cumulativeWeights[i] = sum;
+    }
+
+    Random random = new Random(0);
+    double[] point = {startX, startY};
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+
+    for (int i = 0; i < SAMPLE_STEPS; i++) {
+      double randomNum = random.nextDouble() * sum;
+      int index = 0;
+      while (index < cumulativeWeights.length - 1 && cumulativeWeights[index] <= randomNum) {
+        index++;
+      }
+      applyAffine(transforms.get(index), point);
+
+      // Skip the first points, the walk needs a few steps to reach the attractor
+      if (i >= SKIPPED_STEPS) {
+        minX = Math.min(minX, point[0]);
+        minY = Math.min(minY, point[1]);
+        maxX = Math.max(maxX, point[0]);
+        maxY = Math.max(maxY, point[1]);
+      }
+    }
+
+    double marginX = (maxX - minX) * MARGIN;
+    double marginY = (maxY - minY) * MARGIN;
+    return new double[] {minX - marginX, minY - marginY, maxX + marginX, maxY + marginY};
+  }
+
+  /**
+   * Returns the fixed point of the given contractive affine transform,
+   * the solution of x = Ax + b.
+   *
+   * @param transform the transform to find the fixed point of
+   * @return the x and y coordinates of the fixed point
+   * @since 1.0
+   */
+  private static double[] getFixedPoint(AffineTransform transform) {
+    MatrixNxN matrix = transform.getMatrix();
+    Vector vector = transform.getVector();
+
+    // Solving (I - A)x = b with Cramer's rule, I - A is invertible for contractions
+    double a = 1 - matrix.getElement(0, 0);
+    double b = -matrix.getElement(0, 1);
+    double c = -matrix.getElement(1, 0);
+    double d = 1 - matrix.getElement(1, 1);
+    double det = a * d - b * c;
+
+    return new double[] {
+        (vector.getElement(0) * d - b * vector.getElement(1)) / det,
+        (a * vector.getElement(1) - c * vector.getElement(0)) / det
+    };
+  }
+
+  /**
+   * Applies the given affine transform to the point in place.
+   *
+   * @param transform the transform to apply
+   * @param point the x and y coordinates of the point
+   * @since 1.0
+   */
+  private static void applyAffine(AffineTransform transform, double[] point) {
+    MatrixNxN matrix = transform.getMatrix();
+    Vector vector = transform.getVector();
+    double x = point[0];
+    double y = point[1];
+    point[0] = matrix.getElement(0, 0) * x + matrix.getElement(0, 1) * y + vector.getElement(0);
+    point[1] = matrix.getElement(1, 0) * x + matrix.getElement(1, 1) * y + vector.getElement(1);
+  }
+
+  /**
+   * Returns the transforms of the given description as 2-dimensional affine transforms.
+   *
+   * @param description the description to get the transforms of
+   * @return the affine transforms of the description
+   * @throws IllegalArgumentException if any transform is not 2-dimensional affine
+   * @since 1.0
+   */
+  private static List<AffineTransform> getAffineTransforms(ChaosGameDescription description)
+      throws IllegalArgumentException {
+    if (description.getTransforms().isEmpty()) {
+      throw new IllegalArgumentException("The description has no transforms");
+    }
+    for (Transform transform : description.getTransforms()) {
+      if (!(transform instanceof AffineTransform affine)
+          || affine.getMatrix().getSize() != 2
+          || affine.getVector().getSize() != 2) {
+        throw new IllegalArgumentException("Only 2-dimensional affine transforms can be analyzed");
+      }
+    }
+    return description.getTransforms().stream()
+        .map(AffineTransform.class::cast)
+        .toList();
+  }
+}
@@ -2,6 +2,9 @@ package backend.core;
 
 import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
 
+import backend.core.canvas.CanvasStorage;
+import backend.core.canvas.ColorBuffer;
+import backend.core.canvas.HeapCanvasStorage;
 import backend.geometry.MatrixNxN;
 import backend.geometry.Vector;
 import backend.transforms.AffineTransform;
@@ -9,18 +12,26 @@ import backend.transforms.AffineTransform;
 /**
  * Represents a canvas for drawing chaos game fractals.
  * Supports getting and putting pixels.
+ * The pixels are kept in a {@link CanvasStorage}, on the heap unless another storage is given.
  *
- * @version 1.1
+ * @version 1.6
  * @author proggang
  * @since 20.02.2024
  */
 public class ChaosCanvas {
-  private double[][] canvas;
+  private final CanvasStorage storage;
   private final int width;
   private final int height;
-  private final Vector minCoords;
-  private final Vector maxCoords;
+  private Vector minCoords;
+  private Vector maxCoords;
+  private SplatMode splatMode;
   private AffineTransform transformCoordsToIndices;
+  private double toRowX;
+  private double toRowY;
+  private double toRowOffset;
+  private double toColumnX;
+  private double toColumnY;
+  private double toColumnOffset;
 
   /**
    * Constructs a new canvas with the given width, height, minimum coordinates,
@@ -33,13 +44,65 @@ public class ChaosCanvas {
    * @since 1.0
    */
   public ChaosCanvas(int width, int height, Vector minCoords, Vector maxCoords) {
-    this.height = height;
-    this.width = width;
+    this(new HeapCanvasStorage(width, height), minCoords, maxCoords);
+  }
+
+  /**
+   * Constructs a new canvas on the given storage, with the minimum and maximum coordinates.
+   * The width and height of the canvas are those of the storage.
+   *
+   * @param storage the storage of the pixels
+   * @param minCoords the minimum coordinates of the canvas
+   * @param maxCoords the maximum coordinates of the canvas
+   * @since 1.3
+   */
+  public ChaosCanvas(CanvasStorage storage, Vector minCoords, Vector maxCoords) {
+    this.storage = storage;
+    this.height = storage.getHeight();
+    this.width = storage.getWidth();
     this.minCoords = minCoords;
     this.maxCoords = maxCoords;
+    this.splatMode = SplatMode.NEAREST;
+
+    updateCoordsToIndices();
+  }
 
-    canvas = new double[height][width];
+  /**
+   * Returns the way points are put on the pixels by {@link #putPixel(double, double, double)}.
+   *
+   * @return the splat mode of this canvas
+   * @since 1.5
+   */
+  public SplatMode getSplatMode() {
+    return splatMode;
+  }
+
+  /**
+   * Sets the way points are put on the pixels by {@link #putPixel(double, double, double)}.
+   * If the given mode is null, does nothing.
+   *
+   * @param splatMode the splat mode to use
+   * @see SplatMode
+   * @since 1.5
+   */
+  public void setSplatMode(SplatMode splatMode) {
+    if (splatMode != null) {
+      this.splatMode = splatMode;
+    }
+  }
 
+  /**
+   * Sets the minimum and maximum coordinates of the canvas, and updates the transformation
+   * from coordinates to indices. The pixels are kept, so the canvas can be reused for a new
+   * view without allocating.
+   *
+   * @param minCoords the minimum coordinates of the canvas
+   * @param maxCoords the maximum coordinates of the canvas
+   * @since 1.4
+   */
+  public void setCoords(Vector minCoords, Vector maxCoords) {
+    this.minCoords = minCoords;
+    this.maxCoords = maxCoords;
     updateCoordsToIndices();
   }
 
@@ -65,6 +128,14 @@ public class ChaosCanvas {
         ((n - 1) * minCoords.getElement(0)) / (minCoords.getElement(0) - maxCoords.getElement(0))
     );
     transformCoordsToIndices = new AffineTransform(matrix, vector);
+
+    // Same transformation as primitives, for putting pixels without vectors
+    toRowX = matrix.getElement(0, 0);
+    toRowY = matrix.getElement(0, 1);
+    toRowOffset = vector.getElement(0);
+    toColumnX = matrix.getElement(1, 0);
+    toColumnY = matrix.getElement(1, 1);
+    toColumnOffset = vector.getElement(1);
   }
 
   /**
@@ -85,7 +156,7 @@ public class ChaosCanvas {
     if (i < 0 || i >= height || j < 0 || j >= width) {
       throw new IllegalArgumentException("point is out of bounds");
     }
-    return canvas[i][j];
+    return storage.get(i, j);
   }
 
   /**
@@ -96,6 +167,19 @@ public class ChaosCanvas {
    * @since 1.0
    */
   public void putPixel(Vector point) {
+    putPixel(point, 1.0);
+  }
+
+  /**
+   * Puts a weighted pixel at the given point.
+   * The pixel value is incremented by the weight times the pixel hit incrementer, so a weight
+   * of 1 is the same as a regular hit.
+   *
+   * @param point the point at which to put the pixel
+   * @param weight the weight of the hit
+   * @since 1.2
+   */
+  public void putPixel(Vector point, double weight) {
     if (point == null) {
       throw new IllegalArgumentException("point cannot be null");
     }
@@ -116,20 +200,117 @@ public class ChaosCanvas {
     }
 
     if (point.getSize() == 2) {
-      canvas[i][j] += PIXEL_HIT_INCREMENTER;
+      storage.add(i, j, PIXEL_HIT_INCREMENTER * weight);
     } else if (point.getSize() == 3) {
-      canvas[i][j] = point.getElement(2);
+      storage.set(i, j, point.getElement(2));
+    }
+  }
+
+  /**
+   * Puts a weighted pixel at the given coordinates.
+   * Works like {@link #putPixel(Vector, double)}, without creating any vectors, and splits the
+   * hit between the nearest pixels in the {@link SplatMode#BILINEAR bilinear} splat mode.
+   *
+   * @param x the x-coordinate of the point
+   * @param y the y-coordinate of the point
+   * @param weight the weight of the hit
+   * @since 1.2
+   */
+  public void putPixel(double x, double y, double weight) {
+    double row = toRowX * x + toRowY * y + toRowOffset;
+    double column = toColumnX * x + toColumnY * y + toColumnOffset;
+    if (splatMode == SplatMode.BILINEAR) {
+      splatBilinear(row, column, PIXEL_HIT_INCREMENTER * weight);
+      return;
+    }
+
+    // (y, x) = (i, j)
+    int i = (int) row;
+    int j = (int) column;
+
+    // Checking for out of bounds when zooming
+    if (i < 0 || i >= height || j < 0 || j >= width) {
+      return;
+    }
+    storage.add(i, j, PIXEL_HIT_INCREMENTER * weight);
+  }
+
+  /**
+   * Puts a hit with the given color index at the given coordinates into the given batch of a
+   * {@link ColorBuffer} of the same size as this canvas. The hit goes to the nearest pixel,
+   * like {@link #putPixel(double, double, double)} in the nearest splat mode, and is left out
+   * if outside the canvas.
+   * Only reads the canvas, so walkers on several threads can put colors at once.
+   *
+   * @param batch the batch of the walker
+   * @param x the x-coordinate of the point
+   * @param y the y-coordinate of the point
+   * @param color the color index of the hit
+   * @since 1.6
+   */
+  public void putColor(ColorBuffer.Batch batch, double x, double y, double color) {
+    int i = (int) (toRowX * x + toRowY * y + toRowOffset);
+    int j = (int) (toColumnX * x + toColumnY * y + toColumnOffset);
+    if (i < 0 || i >= height || j < 0 || j >= width) {
+      return;
+    }
+    batch.add(i, j, color);
+  }
+
+  /**
+   * Splits a hit between the four pixels around the given position, by the distance of the
+   * position to the pixel centers. Parts outside the canvas are left out.
+   *
+   * @param row the row position, with pixel i covering the positions from i to i + 1
+   * @param column the column position
+   * @param amount the value of the whole hit
+   * @since 1.5
+   */
+  private void splatBilinear(double row, double column, double amount) {
+    // Relative to the pixel centers, also false for NaN
+    double rowPosition = row - 0.5;
+    double columnPosition = column - 0.5;
+    if (!(rowPosition >= -1 && rowPosition < height && columnPosition >= -1
+        && columnPosition < width)) {
+      return;
+    }
+    int i = (int) Math.floor(rowPosition);
+    int j = (int) Math.floor(columnPosition);
+    double rowFraction = rowPosition - i;
+    double columnFraction = columnPosition - j;
+
+    addInside(i, j, amount * (1 - rowFraction) * (1 - columnFraction));
+    addInside(i, j + 1, amount * (1 - rowFraction) * columnFraction);
+    addInside(i + 1, j, amount * rowFraction * (1 - columnFraction));
+    addInside(i + 1, j + 1, amount * rowFraction * columnFraction);
+  }
+
+  private void addInside(int i, int j, double amount) {
+    if (i >= 0 && i < height && j >= 0 && j < width) {
+      storage.add(i, j, amount);
     }
   }
 
   /**
    * Returns the canvas array.
+   * Storages outside the heap return a copy of their pixels.
    *
    * @return the canvas array
+   * @see CanvasStorage#toArray()
    * @since 1.0
    */
   public double[][] getCanvasArray() {
-    return canvas;
+    return storage.toArray();
+  }
+
+  /**
+   * Returns the storage of the pixels of this canvas.
+   *
+   * @return the storage of this canvas
+   * @since 1.3
+   */
+  public CanvasStorage getStorage() {
+    return storage;
   }
 
   /**
@@ -138,6 +319,16 @@ public class ChaosCanvas {
    * @since 1.0
    */
   public void clear() {
-    canvas = new double[height][width];
+    storage.clear();
+  }
+
+  /**
+   * Releases the storage of this canvas. The canvas can not be used after closing.
+   *
+   * @see CanvasStorage#close()
+   * @since 1.3
+   */
+  public void close() {
+    storage.close();
   }
 }
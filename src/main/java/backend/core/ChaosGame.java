@@ -1,31 +1,75 @@
 package backend.core;
 
+import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
+
+import backend.core.canvas.CanvasPool;
+import backend.core.canvas.CanvasSnapshot;
+import backend.core.canvas.CanvasStatistics;
+import backend.core.canvas.CanvasStorage;
+import backend.core.canvas.CanvasStorageType;
+import backend.core.canvas.ColorBuffer;
+import backend.core.canvas.EscapeTimeBuffer;
 import backend.geometry.Vector;
 import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
 import backend.transforms.JuliaTransform;
 import backend.transforms.Transform;
+import backend.transforms.VariationKernel;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * Represents a chaos game.
  * Supports drawing the chaos game, and updating the current point.
+ * The canvas is taken from the {@link CanvasPool} when it is first used, so a chaos game that is
+ * never run, like one only holding the description and settings of the renders, takes none.
  *
- * @version 1.4
+ * @version 1.24
  * @author proggang
  * @since 20.02.2024
  */
 public class ChaosGame implements ChaosGameObserver {
+  // Walkers transformed together by the batched flame kernel
+  private static final int FLAME_WALKERS = 256;
+  private static final int FLAME_SKIPPED_ITERATIONS = 20;
+  private static final int MAX_SUPERSAMPLING = 8;
+  // Fewer steps are not worth another walker when coloring by transforms
+  private static final int MIN_STEPS_PER_WALKER = 50_000;
+  // Runs check whether they are cancelled once every this many steps
+  private static final int CANCEL_CHECK_MASK = (1 << 12) - 1;
+
+  // Null until first used
   private ChaosCanvas canvas;
   private final ChaosGameDescription description;
   private Vector currentPoint;
   private final Random random;
   private int width;
   private int height;
-  private final List<Vector> pointStack;
+  private SamplingMode samplingMode;
+  private SplatMode splatMode;
+  // The canvas has this many pixels per snapshot pixel in each direction
+  private int supersampling;
+  private CanvasStorageType storageType;
+  // The type the current canvas was created as, for returning it to the pool
+  private CanvasStorageType canvasType;
+  private boolean transformColors;
+  // Kept between runs of the same size, and only published when the last run filled it
+  private ColorBuffer colorBuffer;
+  private ColorBuffer colors;
+  // The escape times of the last inverse run, reused by the next one where the views overlap
+  private EscapeTimeBuffer escapeTimes;
+
+  // The latest published copy of the canvas, read by the display
+  private final AtomicReference<CanvasSnapshot> snapshot;
+  private long generation;
+  // Set from another thread to stop the runs of this chaos game early
+  private volatile boolean cancelled;
 
   private final List<ChaosGameObserver> observers;
 
@@ -43,24 +87,35 @@ public class ChaosGame implements ChaosGameObserver {
     this.width = width;
     this.height = height;
 
-    this.canvas = new ChaosCanvas(
-        width, height, description.getMinCoords(), description.getMaxCoords()
-    );
+    this.storageType = CanvasStorageType.HEAP;
+    this.canvasType = storageType;
+    this.splatMode = SplatMode.NEAREST;
+    this.supersampling = 1;
 
     this.currentPoint = new Vector(0.0, 0.0);
     this.random = new Random();
-    this.pointStack = new ArrayList<>();
+    this.samplingMode = SamplingMode.SAMPLED;
+    this.snapshot = new AtomicReference<>();
 
     this.observers = new ArrayList<>();
   }
 
   /**
-   * Returns the canvas of this chaos game.
+   * Returns the canvas of this chaos game, taken from the {@link CanvasPool} on the first call.
    *
    * @return the canvas of this chaos game
    * @since 1.0
    */
   public ChaosCanvas getCanvas() {
+    if (canvas == null) {
+      canvasType = storageType;
+      canvas = new ChaosCanvas(
+          CanvasPool.getInstance().acquire(storageType, width * supersampling,
+              height * supersampling),
+          description.getMinCoords(), description.getMaxCoords()
+      );
+      canvas.setSplatMode(splatMode);
+    }
     return canvas;
   }
 
@@ -74,8 +129,164 @@ public class ChaosGame implements ChaosGameObserver {
     return description;
   }
 
+  /**
+   * Returns the width of the chaos game, the number of columns of its snapshots.
+   *
+   * @return the width of the chaos game
+   * @since 1.17
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the chaos game, the number of rows of its snapshots.
+   *
+   * @return the height of the chaos game
+   * @since 1.17
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the sampling mode used when running the game.
+   *
+   * @return the sampling mode of this chaos game
+   * @since 1.5
+   */
+  public SamplingMode getSamplingMode() {
+    return samplingMode;
+  }
+
+  /**
+   * Sets the sampling mode used when running the game.
+   * If the given mode is null, does nothing.
+   *
+   * @param samplingMode the sampling mode to use
+   * @see SamplingMode
+   * @since 1.5
+   */
+  public void setSamplingMode(SamplingMode samplingMode) {
+    if (samplingMode != null) {
+      this.samplingMode = samplingMode;
+    }
+  }
+
+  /**
+   * Returns the way points are put on the pixels of the canvas.
+   *
+   * @return the splat mode of this chaos game
+   * @since 1.15
+   */
+  public SplatMode getSplatMode() {
+    return splatMode;
+  }
+
+  /**
+   * Sets the way points are put on the pixels of the canvas.
+   * If the given mode is null, does nothing.
+   *
+   * @param splatMode the splat mode to use
+   * @see SplatMode
+   * @since 1.15
+   */
+  public void setSplatMode(SplatMode splatMode) {
+    if (splatMode != null) {
+      this.splatMode = splatMode;
+      if (canvas != null) {
+        canvas.setSplatMode(splatMode);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of canvas pixels per snapshot pixel in each direction.
+   *
+   * @return the supersampling factor, 1 for none
+   * @since 1.15
+   */
+  public int getSupersampling() {
+    return supersampling;
+  }
+
+  /**
+   * Sets the number of canvas pixels per snapshot pixel in each direction, and replaces the
+   * canvas. The chaos game accumulates at the higher resolution, and every published snapshot
+   * sums each block of pixels into one, which smooths edges like antialiasing.
+   * The canvas takes the square of the factor in memory.
+   *
+   * @param supersampling the supersampling factor, 1 for none
+   * @throws IllegalArgumentException if the factor is not between 1 and 8
+   * @since 1.15
+   */
+  public void setSupersampling(int supersampling) throws IllegalArgumentException {
+    if (supersampling < 1 || supersampling > MAX_SUPERSAMPLING) {
+      throw new IllegalArgumentException(
+          "The supersampling must be between 1 and " + MAX_SUPERSAMPLING);
+    }
+    this.supersampling = supersampling;
+    updateCanvas();
+  }
+
+  /**
+   * Returns whether the pixels are colored by the transforms that hit them.
+   *
+   * @return true if the chaos game is colored by transforms, false otherwise
+   * @since 1.16
+   */
+  public boolean isTransformColors() {
+    return transformColors;
+  }
+
+  /**
+   * Sets whether the pixels are colored by the transforms that hit them.
+   * Every step blends the color of the sampled transform into the color of the walker, and
+   * the published snapshots carry the average color of every pixel, as well as the density.
+   * Only the sampled transforms are followed in this mode, by walkers on several threads.
+   *
+   * @param transformColors true to color by transforms, false to color by density only
+   * @see ChaosGameDescription#getColors()
+   * @since 1.16
+   */
+  public void setTransformColors(boolean transformColors) {
+    this.transformColors = transformColors;
+  }
+
+  /**
+   * Returns the type of storage the canvas keeps its pixels in.
+   *
+   * @return the storage type of the canvas
+   * @since 1.10
+   */
+  public CanvasStorageType getStorageType() {
+    return storageType;
+  }
+
+  /**
+   * Sets the type of storage the canvas keeps its pixels in, and replaces the canvas.
+   * Storages outside the heap suit very large canvases.
+   * If the given type is null, does nothing.
+   *
+   * @param storageType the storage type to use
+   * @see CanvasStorageType
+   * @since 1.10
+   */
+  public void setStorageType(CanvasStorageType storageType) {
+    if (storageType != null) {
+      this.storageType = storageType;
+      updateCanvas();
+    }
+  }
+
   /**
    * Runs the game for the given number of steps.
+   * Only the sampled transform is evaluated each step, unless the sampling mode is
+   * {@link SamplingMode#ALL_BRANCHES}.
+   * Flame descriptions are sampled by many walkers at once through the batched kernel.
+   * When coloring by transforms, the steps are split between walkers on several threads.
+   * Affine descriptions zoomed in on a small part of their attractor are sampled through the
+   * {@link AddressTreeSampler}, so almost every step lands in view.
    *
    * @param steps the number of steps to run
    * @since 1.0
@@ -84,24 +295,177 @@ public class ChaosGame implements ChaosGameObserver {
     /* * * * * * * * * * * * * *
      * Initializing variables. *
      * * * * * * * * * * * * * */
-    // Reset the point stack and canvas
-    pointStack.clear();
-    canvas.clear();
+    // Reset the canvas
+    getCanvas().clear();
+    colors = null;
     currentPoint = new Vector(0.0, 0.0);
 
-    pointStack.add(currentPoint);  // Add the initial point to the point stack
-
     // Generating the transforms and cumulative probabilities
     List<Transform> transforms = new ArrayList<>();
     List<Integer> cumulativeProbabilities = new ArrayList<>();
-    if (isAffine()) {
-      // Directly move the transforms from the description, if affine
-      transforms = description.getTransforms();
+    collectBranches(description, transforms, cumulativeProbabilities);
+
+    if (transformColors && samplingMode == SamplingMode.SAMPLED) {
+      runColorSteps(steps, transforms, cumulativeProbabilities);
+      publishSnapshot();
+      return;
+    }
+    if (isFlame() && samplingMode == SamplingMode.SAMPLED) {
+      runFlameSteps(steps, transforms, cumulativeProbabilities);
+      publishSnapshot();
+      return;
+    }
+    if (isAffine() && samplingMode == SamplingMode.SAMPLED) {
+      AddressTreeSampler sampler = AddressTreeSampler.create(description, width, height);
+      if (sampler != null) {
+        sampler.run(steps, random, canvas, this::isCancelled);
+        publishSnapshot();
+        return;
+      }
+    }
+
+    int transformSize = transforms.size();
+    int transformIndex;
+    double[] branchWeights = getBranchWeights(cumulativeProbabilities);
+    int[] cumulative = cumulativeProbabilities.stream().mapToInt(Integer::intValue).toArray();
+
+    // Compiled once per description, the same preset reuses the cached kernel
+    TransformKernel kernel = TransformPipelineCompiler.compile(transforms);
+    double[] point = {currentPoint.getElement(0), currentPoint.getElement(1)};
+    double[] image = new double[2];
+
+    /* * * * * * * * * * * * * * * * * * * * * * * * * * *
+     * Run the chaos game for the given number of steps. *
+     * * * * * * * * * * * * * * * * * * * * * * * * * * */
+    for (int i = 0; i < steps; i++) {
+      if ((i & CANCEL_CHECK_MASK) == 0 && cancelled) {
+        break;
+      }
+      transformIndex = nextTransformIndex(cumulative);
+
+      if (samplingMode == SamplingMode.ALL_BRANCHES) {
+        // Splat every image weighted by its probability, but only follow the sampled one
+        double nextX = point[0];
+        double nextY = point[1];
+        for (int t = 0; t < transformSize; t++) {
+          image[0] = point[0];
+          image[1] = point[1];
+          kernel.apply(t, image);
+          canvas.putPixel(image[0], image[1], branchWeights[t]);
+
+          if (t == transformIndex) {
+            nextX = image[0];
+            nextY = image[1];
+          }
+        }
+        point[0] = nextX;
+        point[1] = nextY;
+      } else {
+        // Only the sampled transform is evaluated
+        kernel.apply(transformIndex, point);
+        canvas.putPixel(point[0], point[1], 1.0);
+      }
+    }
+    currentPoint = new Vector(point[0], point[1]);
+    publishSnapshot();
+  }
+
+  /**
+   * Publishes a snapshot of the current canvas, replacing the previous one.
+   * The canvas is copied into a storage from the {@link CanvasPool}, so the chaos game can keep
+   * writing to its canvas while the snapshot is read. The statistics of the snapshot are
+   * gathered in the same pass as the copy, so readers can normalize colors without scanning
+   * the pixels again. A supersampled canvas is reduced to the size of the chaos game.
+   * The color channels are copied along, if the last run colored by transforms.
+   * Called at the end of every run.
+   *
+   * @since 1.12
+   */
+  public void publishSnapshot() {
+    CanvasStorage storage = getCanvas().getStorage();
+    // Storages from the pool are empty, so only the hit pixels are copied
+    CanvasStorage copy = CanvasPool.getInstance().acquire(canvasType, width, height);
+    CanvasStatistics statistics = new CanvasStatistics();
+    if (supersampling == 1) {
+      storage.forEachNonZero((row, column, value) -> {
+        copy.set(row, column, value);
+        statistics.record(0, value);
+      });
+    } else {
+      // Box filter, each block of canvas pixels is summed into one snapshot pixel
+      int factor = supersampling;
+      storage.forEachNonZero((row, column, value) ->
+          copy.add(row / factor, column / factor, value));
+      copy.forEachNonZero((row, column, value) -> statistics.record(0, value));
+    }
+
+    ColorBuffer snapshotColors = null;
+    if (colors != null) {
+      snapshotColors = supersampling == 1 ? colors.copy() : colors.reduce(supersampling);
+    }
+    publish(copy, statistics, snapshotColors,
+        description.getMinCoords(), description.getMaxCoords());
+  }
+
+  /**
+   * Publishes the given storage as the next snapshot, and releases the previous one.
+   *
+   * @since 1.14
+   */
+  private void publish(
+      CanvasStorage storage, CanvasStatistics statistics, ColorBuffer snapshotColors,
+      Vector minCoords, Vector maxCoords
+  ) {
+    CanvasSnapshot published = new CanvasSnapshot(
+        canvasType, storage, minCoords, maxCoords, ++generation, statistics, snapshotColors
+    );
+    CanvasSnapshot previous = snapshot.getAndSet(published);
+    if (previous != null) {
+      previous.release();
+    }
+  }
+
+  /**
+   * Returns the latest published snapshot of the canvas, retained for the caller, or null if
+   * nothing is published yet. Never blocks, also while the chaos game runs.
+   * The caller must close the snapshot when done reading, preferably in try-with-resources.
+   *
+   * @return the latest snapshot, or null if there is none
+   * @since 1.12
+   */
+  public CanvasSnapshot acquireSnapshot() {
+    while (true) {
+      CanvasSnapshot current = snapshot.get();
+      if (current == null || current.tryRetain()) {
+        return current;
+      }
+      // Released by a publish in the meantime, the newer snapshot is read instead
+    }
+  }
+
+  /**
+   * Collects the transforms sampled by the chaos game of the given description, with their
+   * cumulative probabilities.
+   * Affine and flame transforms are sampled directly. Every Julia transform is split into a
+   * positive and a negative branch with equal probabilities.
+   *
+   * @param description the description to collect the transforms of
+   * @param transforms the list to add the sampled transforms to
+   * @param cumulativeProbabilities the list to add the cumulative probabilities to
+   * @since 1.10
+   */
+  static void collectBranches(
+      ChaosGameDescription description,
+      List<Transform> transforms,
+      List<Integer> cumulativeProbabilities
+  ) {
+    if (!(description.getTransforms().get(0) instanceof JuliaTransform)) {
+      // Directly move the transforms from the description, if affine or flame
+      transforms.addAll(description.getTransforms());
 
       for (int i = 0; i < description.getTransforms().size(); i++) {
-        cumulativeProbabilities.add((int) description.getProbability().getElement(i));
-        System.out.println(description.getProbability().getElement(i));
         // Adding each transform into the cumulative probabilities
+        cumulativeProbabilities.add((int) description.getProbability().getElement(i));
       }
     } else {
       // Add the transforms twice for complex transforms, positive and negative
@@ -115,39 +479,275 @@ public class ChaosGame implements ChaosGameObserver {
         cumulativeProbabilities.add(100);
       }
     }
+  }
 
+  /**
+   * Runs the chaos game for the given number of steps with many independent walkers, all
+   * transformed through the batched flame kernel.
+   * Every walker picks its own transform each iteration. The walkers are then grouped by their
+   * transform with a counting sort, so each flame transform runs once per iteration on a
+   * contiguous batch. Walkers are interchangeable, so they are left in the sorted order.
+   *
+   * @param steps the number of points to plot
+   * @param transforms the flame transforms of the description
+   * @param cumulativeProbabilities the ascending cumulative probabilities of the transforms
+   * @since 1.9
+   */
+  private void runFlameSteps(
+      int steps, List<Transform> transforms, List<Integer> cumulativeProbabilities
+  ) {
     int transformSize = transforms.size();
-    int randomNum;
-    int transformIndex;
+    FlameTransform[] flames = new FlameTransform[transformSize];
+    for (int t = 0; t < transformSize; t++) {
+      flames[t] = (FlameTransform) transforms.get(t);
+    }
 
-    /* * * * * * * * * * * * * * * * * * * * * * * * * * *
-     * Run the chaos game for the given number of steps. *
-     * * * * * * * * * * * * * * * * * * * * * * * * * * */
-    for (int i = 0; i < steps; i++) {
-      // Branch every point to the next point
-      for (Transform transform : transforms) {
-        Vector newPoint = transform.transform(currentPoint);
-        pointStack.add(newPoint);
+    VariationKernel kernel = new VariationKernel(FLAME_WALKERS);
+    double[] xs = new double[FLAME_WALKERS];
+    double[] ys = new double[FLAME_WALKERS];
+    double[] sortedXs = new double[FLAME_WALKERS];
+    double[] sortedYs = new double[FLAME_WALKERS];
+    int[] chosen = new int[FLAME_WALKERS];
+    int[] starts = new int[transformSize + 1];
+    int[] positions = new int[transformSize];
+    int[] cumulative = cumulativeProbabilities.stream().mapToInt(Integer::intValue).toArray();
+
+    for (int w = 0; w < FLAME_WALKERS; w++) {
+      resetWalker(xs, ys, w);
+    }
+
+    // Bounded, in case the walkers keep blowing up and are never plotted
+    int plotted = 0;
+    for (int iteration = 0; plotted < steps && iteration < steps + FLAME_SKIPPED_ITERATIONS;
+        iteration++) {
+      if ((iteration & CANCEL_CHECK_MASK) == 0 && cancelled) {
+        break;
+      }
+      // Pick a transform for every walker, and count the walkers of each transform
+      Arrays.fill(starts, 0);
+      for (int w = 0; w < FLAME_WALKERS; w++) {
+        chosen[w] = nextTransformIndex(cumulative);
+        starts[chosen[w] + 1]++;
+      }
+      for (int t = 0; t < transformSize; t++) {
+        starts[t + 1] += starts[t];
+        positions[t] = starts[t];
+      }
+
+      // Group the walkers by transform
+      for (int w = 0; w < FLAME_WALKERS; w++) {
+        int position = positions[chosen[w]]++;
+        sortedXs[position] = xs[w];
+        sortedYs[position] = ys[w];
       }
 
-      // Fast as fuck binary search probability finder
-      randomNum = random.nextInt(100);
-      transformIndex = Collections.binarySearch(cumulativeProbabilities, randomNum);
+      for (int t = 0; t < transformSize; t++) {
+        int count = starts[t + 1] - starts[t];
+        if (count > 0) {
+          flames[t].transformBatch(sortedXs, sortedYs, starts[t], count, kernel);
+        }
+      }
 
-      // Binary search return negative when searching < (left), need to invert and adjust with -1
-      if (transformIndex < 0) {
-        transformIndex = -transformIndex - 1;
+      double[] swap = xs;
+      xs = sortedXs;
+      sortedXs = swap;
+      swap = ys;
+      ys = sortedYs;
+      sortedYs = swap;
+
+      for (int w = 0; w < FLAME_WALKERS; w++) {
+        if (!Double.isFinite(xs[w]) || !Double.isFinite(ys[w])) {
+          // Some variations can blow up, restart the walker instead of plotting it
+          resetWalker(xs, ys, w);
+        } else if (iteration >= FLAME_SKIPPED_ITERATIONS && plotted < steps) {
+          canvas.putPixel(xs[w], ys[w], 1.0);
+          plotted++;
+        }
       }
+    }
+  }
 
-      currentPoint = pointStack.get(pointStack.size() - transformSize + transformIndex);
+  /**
+   * Runs the chaos game for the given number of steps, coloring the pixels by the transforms
+   * that hit them.
+   * The steps are split between independent walkers, one per core for large runs, and every
+   * walker merges its hits into the shared {@link ColorBuffer} in batches. The hits of the
+   * buffer are then added to the canvas as the density.
+   *
+   * @param steps the number of points to plot
+   * @param transforms the sampled transforms
+   * @param cumulativeProbabilities the ascending cumulative probabilities of the transforms
+   * @since 1.16
+   */
+  private void runColorSteps(
+      int steps, List<Transform> transforms, List<Integer> cumulativeProbabilities
+  ) {
+    CanvasStorage storage = canvas.getStorage();
+    if (colorBuffer == null
+        || colorBuffer.getWidth() != storage.getWidth()
+        || colorBuffer.getHeight() != storage.getHeight()) {
+      colorBuffer = new ColorBuffer(storage.getWidth(), storage.getHeight());
+    } else {
+      colorBuffer.clear();
     }
-    pointStack.parallelStream().forEach(canvas::putPixel);
+
+    int[] cumulative = cumulativeProbabilities.stream().mapToInt(Integer::intValue).toArray();
+    double[] branchColors = getBranchColors(transforms.size());
+    TransformKernel kernel = TransformPipelineCompiler.compile(transforms);
+
+    int walkers = Math.max(1, Math.min(
+        Runtime.getRuntime().availableProcessors(), steps / MIN_STEPS_PER_WALKER
+    ));
+    long[] seeds = new long[walkers];
+    for (int w = 0; w < walkers; w++) {
+      seeds[w] = random.nextLong();
+    }
+
+    ColorBuffer buffer = colorBuffer;
+    IntStream.range(0, walkers).parallel().forEach(w -> {
+      int share = steps / walkers + (w < steps % walkers ? 1 : 0);
+      walkColors(share, new SplittableRandom(seeds[w]), kernel, cumulative, branchColors,
+          buffer.createBatch());
+    });
+
+    buffer.forEachNonZero((row, column, hits) ->
+        storage.add(row, column, PIXEL_HIT_INCREMENTER * hits));
+    colors = buffer;
+  }
+
+  /**
+   * Runs a single walker of {@link #runColorSteps(int, List, List)}.
+   * The color of the walker moves halfway to the color of the sampled transform every step,
+   * so it mostly reflects the last few transforms.
+   *
+   * @since 1.16
+   */
+  private void walkColors(
+      int steps, SplittableRandom walkerRandom, TransformKernel kernel, int[] cumulative,
+      double[] branchColors, ColorBuffer.Batch batch
+  ) {
+    int total = Math.max(cumulative[cumulative.length - 1], 1);
+    double[] point = {walkerRandom.nextDouble() * 2 - 1, walkerRandom.nextDouble() * 2 - 1};
+    double color = walkerRandom.nextDouble();
+
+    // Bounded, in case the walker keeps blowing up and is never plotted
+    int plotted = 0;
+    for (int iteration = 0; plotted < steps && iteration < steps + FLAME_SKIPPED_ITERATIONS;
+        iteration++) {
+      if ((iteration & CANCEL_CHECK_MASK) == 0 && cancelled) {
+        break;
+      }
+      int index = firstAtLeast(cumulative, walkerRandom.nextInt(total) + 1);
+
+      kernel.apply(index, point);
+      color = (color + branchColors[index]) * 0.5;
+
+      if (!Double.isFinite(point[0]) || !Double.isFinite(point[1])) {
+        // Some transforms can blow up, restart the walker instead of plotting it
+        point[0] = walkerRandom.nextDouble() * 2 - 1;
+        point[1] = walkerRandom.nextDouble() * 2 - 1;
+      } else if (iteration >= FLAME_SKIPPED_ITERATIONS) {
+        canvas.putColor(batch, point[0], point[1], color);
+        plotted++;
+      }
+    }
+    batch.flush();
+  }
+
+  /**
+   * Returns the color index of every sampled transform, from the colors of the description.
+   * The branches of a Julia transform share its color.
+   *
+   * @param branchCount the number of sampled transforms
+   * @return the color index of each sampled transform
+   * @since 1.16
+   */
+  private double[] getBranchColors(int branchCount) {
+    Vector descriptionColors = description.getColors();
+    int branchesPerTransform = Math.max(branchCount / descriptionColors.getSize(), 1);
+    double[] branchColors = new double[branchCount];
+    for (int t = 0; t < branchCount; t++) {
+      branchColors[t] = descriptionColors.getElement(
+          Math.min(t / branchesPerTransform, descriptionColors.getSize() - 1)
+      );
+    }
+    return branchColors;
+  }
+
+  /**
+   * Moves the given walker to a random point in the bi-unit square.
+   *
+   * @param xs the x coordinates of the walkers
+   * @param ys the y coordinates of the walkers
+   * @param walker the index of the walker to reset
+   * @since 1.9
+   */
+  private void resetWalker(double[] xs, double[] ys, int walker) {
+    xs[walker] = random.nextDouble() * 2 - 1;
+    ys[walker] = random.nextDouble() * 2 - 1;
+  }
+
+  /**
+   * Picks the index of the next transform from the cumulative probabilities.
+   * Every transform is picked with a chance proportional to the gap between its cumulative
+   * probability and the one before it.
+   *
+   * @param cumulative the ascending cumulative probabilities of the transforms
+   * @return the index of the picked transform
+   * @since 1.5
+   */
+  private int nextTransformIndex(int[] cumulative) {
+    int total = Math.max(cumulative[cumulative.length - 1], 1);
+    return firstAtLeast(cumulative, random.nextInt(total) + 1);
+  }
+
+  /**
+   * Returns the index of the first of the given ascending cumulative probabilities that is at
+   * least the given value, or the last index if none is. Transforms of probability 0 repeat the
+   * value before them, so they are never returned for a value above 0.
+   *
+   * @param cumulative the ascending cumulative probabilities of the transforms
+   * @param value the value to search for
+   * @return the index of the picked transform
+   * @since 1.21
+   */
+  static int firstAtLeast(int[] cumulative, int value) {
+    int low = 0;
+    int high = cumulative.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (cumulative[middle] < value) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the probability of each transform as a weight between 0 and 1.
+   * The weights are derived from the cumulative probabilities and sum to 1.
+   *
+   * @param cumulativeProbabilities the ascending cumulative probabilities of the transforms
+   * @return the weight of each transform
+   * @since 1.5
+   */
+  private double[] getBranchWeights(List<Integer> cumulativeProbabilities) {
+    return ChaosGameDescription.toWeights(
+        cumulativeProbabilities.stream().mapToDouble(Integer::doubleValue).toArray()
+    );
   }
 
   /**
    * Runs the inverse julia transform,
    * checking if the point is convergent within the given number of iterations.
+   * Every pixel of the canvas samples the point at its corner in the view of the description,
+   * and pixels inside the Julia set are hit once. The escape times of the previous run are
+   * reprojected onto the new view first, so after a pan only the newly exposed pixels are
+   * iterated, and after a zoom by a factor of 2 only the pixels between the old ones.
    *
+   * @see EscapeTimeBuffer
    * @since 1.3
    */
   public void runInverse() throws IllegalAccessException {
@@ -159,32 +759,65 @@ public class ChaosGame implements ChaosGameObserver {
         throw new IllegalAccessException("Julia set can only be run with JuliaTransform");
       }
     }
-    pointStack.clear();
-    canvas.clear();
+    getCanvas().clear();
+    colors = null;
 
     // Get the julia transform
     JuliaTransform transform = (JuliaTransform) description.getTransforms().get(0);
 
-    Vector point;
-    double widthOverTwo = width >> 1;
-    double heightOverTwo = height >> 1;
-
-    // LEAVE BE FOR NOW 🤓
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        double zx = 1.5 * (x - widthOverTwo) / (widthOverTwo);
-        double zy = (y - heightOverTwo) / (heightOverTwo);
+    CanvasStorage storage = canvas.getStorage();
+    EscapeTimeBuffer times = new EscapeTimeBuffer(
+        storage.getWidth(), storage.getHeight(),
+        description.getMinCoords(), description.getMaxCoords(),
+        transform.getPoint(), transform.getPower()
+    );
+    times.reproject(escapeTimes);
 
-        point = new Vector(zx, zy);
-        int iteration = transform.inverseTransform(point);
+    // Only the pixels not reused are iterated, the rows are independent
+    IntStream.range(0, times.getHeight()).parallel().forEach(row -> {
+      if (cancelled) {
+        return;
+      }
+      double y = times.getY(row);
+      for (int column = 0; column < times.getWidth(); column++) {
+        if (times.get(row, column) == EscapeTimeBuffer.UNKNOWN) {
+          times.set(row, column, transform.inverseTransform(new Vector(times.getX(column), y)));
+        }
+      }
+    });
 
-        if (iteration == 0) {
-          pointStack.add(point);
+    for (int row = 0; row < times.getHeight(); row++) {
+      for (int column = 0; column < times.getWidth(); column++) {
+        if (times.get(row, column) == 0) {
+          storage.set(row, column, PIXEL_HIT_INCREMENTER);
         }
       }
     }
+    // Kept also when cancelled, the pixels not computed are computed by the next run
+    escapeTimes = times;
+    publishSnapshot();
+  }
 
-    pointStack.parallelStream().forEach(canvas::putPixel);
+  /**
+   * Returns the escape times of the last inverse run, or null if there is none.
+   *
+   * @return the escape times of the last inverse run
+   * @since 1.19
+   */
+  public EscapeTimeBuffer getEscapeTimes() {
+    return escapeTimes;
+  }
+
+  /**
+   * Sets the escape times the next inverse run reprojects onto its view, like those of a chaos
+   * game of the same Julia transform rendered before. Pixels sampling the same points are not
+   * iterated again. If the escape times are null, every pixel is iterated.
+   *
+   * @param escapeTimes the escape times to reuse, may be null
+   * @since 1.19
+   */
+  public void setEscapeTimes(EscapeTimeBuffer escapeTimes) {
+    this.escapeTimes = escapeTimes;
   }
 
   /**
@@ -220,15 +853,97 @@ public class ChaosGame implements ChaosGameObserver {
 
   /**
    * Updates the chaos canvas with new parameters.
-   * Used when updating the description.
+   * Used when updating the description. If the size and storage type are unchanged, the canvas
+   * is kept and only its coordinates are updated, its pixels are cleared by the next run.
+   * Otherwise, the old storage is returned to the {@link CanvasPool}, and the new one is taken
+   * from it when the canvas is next used.
    *
    * @since 1.2
    */
   public void updateCanvas() {
-    canvas = new ChaosCanvas(width, height, description.getMinCoords(), description.getMaxCoords());
+    if (canvas != null) {
+      CanvasStorage storage = canvas.getStorage();
+      if (canvasType == storageType
+          && storage.getWidth() == width * supersampling
+          && storage.getHeight() == height * supersampling) {
+        canvas.setCoords(description.getMinCoords(), description.getMaxCoords());
+      } else {
+        CanvasPool.getInstance().release(canvasType, storage);
+        canvas = null;
+      }
+    }
     update();
   }
 
+  /**
+   * Cancels the chaos game from any thread. A running run stops within a few thousand steps,
+   * and later runs stop at once, publishing the points plotted so far.
+   * Meant for chaos games rendering a single frame, that is no longer needed.
+   *
+   * @since 1.18
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Returns whether the chaos game is cancelled, so its snapshot may be incomplete.
+   *
+   * @return true if the chaos game is cancelled, false otherwise
+   * @since 1.18
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Returns the canvas of this chaos game to the {@link CanvasPool}, for the next chaos game,
+   * and releases the published snapshot. Readers may keep reading snapshots they retained.
+   * The chaos game can not be run after closing.
+   *
+   * @since 1.11
+   */
+  public void close() {
+    if (canvas != null) {
+      CanvasPool.getInstance().release(canvasType, canvas.getStorage());
+      canvas = null;
+    }
+    colorBuffer = null;
+    colors = null;
+    escapeTimes = null;
+    CanvasSnapshot published = snapshot.getAndSet(null);
+    if (published != null) {
+      published.release();
+    }
+  }
+
+  /**
+   * Fits the coordinates of the description to the bounding box of its attractor, so no
+   * points land outside the canvas. Only affine descriptions with contractive transforms are
+   * fitted, others are left unchanged.
+   *
+   * @see AttractorAnalyzer#fitToAttractor(ChaosGameDescription)
+   * @since 1.7
+   */
+  public void fitToAttractor() {
+    if (!description.getTransforms().isEmpty() && isAffine()) {
+      AttractorAnalyzer.fitToAttractor(description);
+    }
+  }
+
+  /**
+   * Solves probabilities that fill the attractor evenly, and writes them into the description.
+   * Only affine descriptions are solved, others are left unchanged.
+   *
+   * @see ProbabilitySolver#solve(ChaosGameDescription)
+   * @since 1.8
+   */
+  public void optimizeProbabilities() {
+    if (!description.getTransforms().isEmpty() && isAffine()) {
+      ProbabilitySolver.solve(description);
+    }
+  }
+
   /**
    * Sets the size of the chaos game.
    * The size is the same for both width and height.
@@ -254,7 +969,19 @@ public class ChaosGame implements ChaosGameObserver {
   }
 
   /**
-   * Removes the given transform from the chaos game.
+   * Returns whether the chaos game is a flame, meaning it has only flame transforms.
+   *
+   * @return true if the chaos game is a flame, false otherwise
+   * @since 1.9
+   */
+  public boolean isFlame() {
+    return !description.getTransforms().isEmpty()
+        && description.getTransforms().stream().allMatch(FlameTransform.class::isInstance);
+  }
+
+  /**
+   * Removes the given transform from the chaos game, fits the view to the new attractor and
+   * solves new probabilities for the remaining transforms.
    * If the given transform is not found, does nothing.
    *
    * @param transform the transform to remove
@@ -281,6 +1008,8 @@ public class ChaosGame implements ChaosGameObserver {
             .warning("Index out VBox containing values for transform of bounds");
       }
     }
+    fitToAttractor();
+    optimizeProbabilities();
     updateCanvas();
   }
 }
@@ -1,5 +1,7 @@
 package backend.core;
 
+import static config.DisplayConfig.ZOOM_FACTOR;
+
 import backend.geometry.Vector;
 import backend.transforms.Transform;
 import java.util.ArrayList;
@@ -12,7 +14,7 @@ import javafx.util.Builder;
  * coordinates, and transforms.
  *
  * @author proggang
- * @version 1.2
+ * @version 1.8
  * @since 20.02.2024
  */
 public final class ChaosGameDescription {
@@ -20,6 +22,9 @@ public final class ChaosGameDescription {
   private final Vector maxCoords;
   private final List<Transform> transforms;
   private Vector probability;
+  // Whether the probabilities were solved, instead of given by the user or a file
+  private boolean probabilitySolved;
+  private Vector colors;
 
   /**
    * Constructs a new chaos game description with the given minimum coordinates,
@@ -97,6 +102,185 @@ public final class ChaosGameDescription {
     return probability;
   }
 
+  /**
+   * Sets the probabilities of this chaos game description. Probability is a vector of
+   * ascending cumulative values, where the i-th element is the upper bound of the i-th
+   * transformation. If the given vector is null, equal probabilities are used.
+   *
+   * @param probability the probabilities to set
+   * @since 1.3
+   */
+  public void setProbability(Vector probability) {
+    this.probability = probability;
+    this.probabilitySolved = false;
+  }
+
+  /**
+   * Sets probabilities solved for the current transforms, like
+   * {@link #setProbability(Vector)}, but remembers that they were solved, so they can be solved
+   * again when the transforms are edited.
+   *
+   * @param probability the solved probabilities to set
+   * @since 1.8
+   */
+  public void setSolvedProbability(Vector probability) {
+    this.probability = probability;
+    this.probabilitySolved = probability != null;
+  }
+
+  /**
+   * Returns whether the probabilities were solved for the transforms, instead of given by the
+   * user or read from a file.
+   *
+   * @return true if the probabilities were solved, false otherwise
+   * @since 1.8
+   */
+  public boolean isProbabilitySolved() {
+    return probabilitySolved;
+  }
+
+  /**
+   * Returns whether the probabilities are set, or generated as equal probabilities.
+   *
+   * @return true if the probabilities are set, false otherwise
+   * @since 1.3
+   */
+  public boolean isProbabilitySet() {
+    return probability != null;
+  }
+
+  /**
+   * Returns the color index of each transformation, between 0 and 1.
+   * Points take on a blend of the colors of the transformations that moved them, when the
+   * chaos game is colored by transforms. The colors are spread evenly between 0 and 1 if
+   * not set, or set for another number of transformations.
+   *
+   * @return the color index of each transformation
+   * @since 1.4
+   */
+  public Vector getColors() {
+    if (colors == null || colors.getSize() != transforms.size()) {
+      int size = transforms.size();
+      double[] newColors = new double[size];
+      for (int i = 0; i < size; i++) {
+        newColors[i] = size > 1 ? (double) i / (size - 1) : 0.5;
+      }
+      return new Vector(newColors);
+    }
+
+    return colors;
+  }
+
+  /**
+   * Sets the color index of each transformation, between 0 and 1. If the given vector is
+   * null, the colors are spread evenly.
+   *
+   * @param colors the color indices to set
+   * @since 1.4
+   */
+  public void setColors(Vector colors) {
+    this.colors = colors;
+  }
+
+  /**
+   * Zooms the view of this description by the given value around its center.
+   * Every step of 1 zooms in by a factor of {@value config.DisplayConfig#ZOOM_FACTOR}, and
+   * negative values zoom out.
+   *
+   * @param value the value to zoom by
+   * @since 1.6
+   */
+  public void zoomView(double value) {
+    double scale = Math.pow(ZOOM_FACTOR, -value);
+    for (int i = 0; i < 2; i++) {
+      double center = (minCoords.getElement(i) + maxCoords.getElement(i)) / 2;
+      double halfExtent = (maxCoords.getElement(i) - minCoords.getElement(i)) / 2 * scale;
+      minCoords.setElement(i, center - halfExtent);
+      maxCoords.setElement(i, center + halfExtent);
+    }
+  }
+
+  /**
+   * Moves the view of this description by the given number of pixels of a canvas of the given
+   * size, to the right and down.
+   *
+   * @param columns the number of pixels to move the view right, negative to move it left
+   * @param rows the number of pixels to move the view down, negative to move it up
+   * @param width the width of the canvas
+   * @param height the height of the canvas
+   * @since 1.6
+   */
+  public void panView(int columns, int rows, int width, int height) {
+    double shiftX = columns * (maxCoords.getElement(0) - minCoords.getElement(0)) / width;
+    // Rows go down the screen, while y goes up
+    double shiftY = -rows * (maxCoords.getElement(1) - minCoords.getElement(1)) / height;
+
+    minCoords.setElement(0, minCoords.getElement(0) + shiftX);
+    maxCoords.setElement(0, maxCoords.getElement(0) + shiftX);
+    minCoords.setElement(1, minCoords.getElement(1) + shiftY);
+    maxCoords.setElement(1, maxCoords.getElement(1) + shiftY);
+  }
+
+  /**
+   * Returns a deep copy of this description, with copies of the coordinates, transformations,
+   * probabilities and colors. The copy is not changed when this description is edited, so it
+   * can be rendered by another thread.
+   *
+   * @return a copy of this description
+   * @since 1.5
+   */
+  public ChaosGameDescription copy() {
+    List<Transform> transformCopies = new ArrayList<>();
+    for (Transform transform : transforms) {
+      transformCopies.add(transform.copy());
+    }
+    ChaosGameDescription copy = new ChaosGameDescription(
+        copyVector(minCoords), copyVector(maxCoords), transformCopies,
+        probability == null ? null : copyVector(probability)
+    );
+    copy.colors = colors == null ? null : copyVector(colors);
+    copy.probabilitySolved = probabilitySolved;
+    return copy;
+  }
+
+  private static Vector copyVector(Vector vector) {
+    return new Vector(vector.getAllElements().mapToDouble(Double::doubleValue).toArray());
+  }
+
+  /**
+   * Returns the probability of each transformation as a weight between 0 and 1.
+   * The weights are the gaps between the cumulative probabilities, divided by the last one,
+   * so they sum to 1.
+   *
+   * @return the weight of each transformation
+   * @since 1.3
+   */
+  public double[] getWeights() {
+    return toWeights(getProbability().getAllElements().mapToDouble(Double::doubleValue).toArray());
+  }
+
+  /**
+   * Returns the weights between 0 and 1 of the given ascending cumulative probabilities.
+   * The weights are the gaps between the cumulative probabilities, divided by the last one,
+   * so they sum to 1.
+   *
+   * @param cumulative the ascending cumulative probabilities
+   * @return the weight of each probability
+   * @since 1.7
+   */
+  static double[] toWeights(double[] cumulative) {
+    int size = cumulative.length;
+    double total = Math.max(cumulative[size - 1], 1);
+    double[] weights = new double[size];
+
+    double previous = 0;
+    for (int i = 0; i < size; i++) {
+      weights[i] = Math.max(cumulative[i] - previous, 0) / total;
+      previous = cumulative[i];
+    }
+    return weights;
+  }
+
   /**
    * Constructor for chaos game descriptions. Needs a builder to create a chaos game description.
    *
@@ -118,18 +302,19 @@ public final class ChaosGameDescription {
     return Objects.equals(this.minCoords, that.minCoords)
         && Objects.equals(this.maxCoords, that.maxCoords)
         && Objects.equals(this.transforms, that.transforms)
-        && Objects.equals(this.probability, that.probability);
+        && Objects.equals(this.probability, that.probability)
+        && Objects.equals(this.colors, that.colors);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(minCoords, maxCoords, transforms, probability);
+    return Objects.hash(minCoords, maxCoords, transforms, probability, colors);
   }
 
   /**
    * Removes the transformation at the given index.
    * The index must be within the bounds of the list.
-   * The probability of the removed transformation is also removed.
+   * The probability and color of the removed transformation are also removed.
    *
    * @param i the index of the transformation to remove
    * @since 1.2
@@ -137,6 +322,8 @@ public final class ChaosGameDescription {
   public void removeTransform(int i) {
     transforms.remove(i);
     probability = null;  // Reset probabilities
+    probabilitySolved = false;
+    colors = null;
   }
 
   /**
@@ -147,6 +334,7 @@ public final class ChaosGameDescription {
    */
   public void clearProbabilities() {
     probability = null;
+    probabilitySolved = false;
   }
 
 
@@ -4,13 +4,17 @@ import backend.geometry.Complex;
 import backend.geometry.MatrixNxN;
 import backend.geometry.Vector;
 import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
 import backend.transforms.JuliaTransform;
 import backend.transforms.Transform;
+import backend.transforms.Variation;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.logging.Logger;
@@ -20,7 +24,7 @@ import java.util.logging.Logger;
  * Represents a chaos game file handler.
  * Supports reading and writing chaos game descriptions from and to files.
  *
- * @version 1.1
+ * @version 1.2
  * @author proggang
  * @since 04.04.2024
  */
@@ -60,7 +64,7 @@ public class ChaosGameFileHandler {
       builder.minCoords(getVectorFromString(minCoordsLine));
       builder.maxCoords(getVectorFromString(maxCoordsLine));
 
-      if (type.equals("Affine2D")) {
+      if (type.equals("Affine2D") || type.equals("Flame")) {
         boolean end = false;
         while (!end) {
           String line = scanner.nextLine().replaceAll("\\s*#.*", "").trim();
@@ -74,6 +78,8 @@ public class ChaosGameFileHandler {
             String probabilityLine = scanner.nextLine().replaceAll("\\s*#.*", "").trim();
             builder.probability(getVectorFromString(probabilityLine));
             end = true;
+          } else if (type.equals("Flame")) {
+            builder.addTransform(getFlameTransformFromString(line));
           } else {
             builder.addTransform(getTransformFromString(line));
           }
@@ -143,6 +149,8 @@ public class ChaosGameFileHandler {
       // to determine the type of the chaos game description.
       if (description.getTransforms().get(0) instanceof AffineTransform) {
         writer.write("Affine2D");
+      } else if (description.getTransforms().get(0) instanceof FlameTransform) {
+        writer.write("Flame");
       } else if (description.getTransforms().get(0) instanceof JuliaTransform) {
         writer.write("Julia");
       }
@@ -223,6 +231,39 @@ public class ChaosGameFileHandler {
     return new AffineTransform(m, v);
   }
 
+  /**
+   * Generates a flame transform based on the given string.
+   * The string should contain the 6 values of the affine pre-transform, a '|', and the comma
+   * separated name and weight of each variation.
+   * Example: "0.5, 0.0, 0.0, 0.5, 0.0, 0.0 | swirl 0.5, spherical 0.5".
+   *
+   * @param line the string containing the affine values and the variations
+   * @return the flame transform generated from the given string
+   * @throws IllegalArgumentException if the affine values or the variations are not valid
+   * @since 1.2
+   */
+  private static Transform getFlameTransformFromString(String line)
+      throws IllegalArgumentException {
+    String[] parts = line.split("\\|");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Flame transforms need affine values and variations");
+    }
+
+    Map<Variation, Double> weights = new EnumMap<>(Variation.class);
+    for (String variation : parts[1].trim().split(", ")) {
+      String[] nameAndWeight = variation.trim().split("\\s+");
+      if (nameAndWeight.length != 2) {
+        throw new IllegalArgumentException("Invalid variation: " + variation);
+      }
+      weights.put(
+          Variation.valueOf(nameAndWeight[0].toUpperCase()),
+          Double.parseDouble(nameAndWeight[1])
+      );
+    }
+
+    return new FlameTransform((AffineTransform) getTransformFromString(parts[0].trim()), weights);
+  }
+
   /**
    * Generates a vector based on the given comma separated string.
    * The string should contain the values of the vector with two double values.
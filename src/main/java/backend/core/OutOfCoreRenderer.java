@@ -0,0 +1,437 @@
+package backend.core;
+
+import static config.DisplayConfig.END_COLOR;
+import static config.DisplayConfig.START_COLOR;
+
+import backend.core.canvas.PpmWriter;
+import backend.transforms.Transform;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+import javafx.scene.paint.Color;
+
+/**
+ * Represents a renderer of chaos game images larger than the available memory.
+ * The image is split into horizontal strips that each fit in the memory budget. In the first
+ * pass, the chaos game writes the index of every hit pixel into the bucket file of its strip.
+ * In the second pass, the strips are accumulated and colored one at a time, and streamed to
+ * a PPM image from top to bottom.
+ * Only the memory budget, and the write buffers of the strips, is held in memory. The write
+ * buffers share a fixed budget, and only a limited number of bucket files are open at a time.
+ * Can be run from the command line, see {@link #main(String[])}.
+ *
+ * @version 1.2
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class OutOfCoreRenderer {
+  private static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+  private static final int BUCKET_BUFFER_BYTES = 1 << 16;
+  private static final int MIN_BUCKET_BUFFER_BYTES = 1 << 10;
+  private static final long BUCKET_BUFFERS_BUDGET = 16L << 20;
+  private static final int MAX_OPEN_BUCKETS = 64;
+  private static final int SKIPPED_STEPS = 20;
+  private static final int PALETTE_SIZE = 256;
+  private static final int BACKGROUND = 0xFFFFFF;
+  private static final String USAGE =
+      "Usage: OutOfCoreRenderer <description file or preset> <width> <height> <steps> <output>";
+
+  private final ChaosGameDescription description;
+  private final int width;
+  private final int height;
+  private long memoryBudget;
+  private Path workDirectory;
+  private Random random;
+
+  /**
+   * Constructs a new renderer of the given description, with the size of the image.
+   * Bucket files are written to the temporary directory unless another one is set.
+   *
+   * @param description the description to render
+   * @param width the width of the image
+   * @param height the height of the image
+   * @throws IllegalArgumentException if the description has no transforms, or if the width or
+   *     height is not positive
+   * @since 1.0
+   */
+  public OutOfCoreRenderer(ChaosGameDescription description, int width, int height)
+      throws IllegalArgumentException {
+    if (description == null || description.getTransforms().isEmpty()) {
+      throw new IllegalArgumentException("The description has no transforms");
+    }
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    this.description = description;
+    this.width = width;
+    this.height = height;
+    this.memoryBudget = DEFAULT_MEMORY_BUDGET;
+    this.workDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+    this.random = new Random();
+  }
+
+  /**
+   * Renders a description to a PPM image from the command line.
+   * The arguments are the description file, or the name of a predefined chaos game, followed
+   * by the width and height of the image, the number of steps and the path of the image.
+   *
+   * @param args the command line arguments
+   * @since 1.2
+   */
+  public static void main(String[] args) {
+    Logger logger = Logger.getLogger(OutOfCoreRenderer.class.getName());
+    try {
+      long hits = run(args);
+      logger.info(() -> "Rendered " + hits + " hits to " + args[4]);
+    } catch (IllegalArgumentException e) {
+      logger.severe(e.getMessage());
+    } catch (IOException e) {
+      logger.severe(() -> "Failed to render the image: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Parses the command line arguments, and renders the image they describe.
+   *
+   * @param args the command line arguments
+   * @return the number of hits inside the image
+   * @throws IllegalArgumentException if the arguments are missing or malformed
+   * @throws IOException if the bucket files or the image can not be written
+   * @since 1.2
+   */
+  static long run(String[] args) throws IllegalArgumentException, IOException {
+    if (args == null || args.length != 5) {
+      throw new IllegalArgumentException(USAGE);
+    }
+    ChaosGameDescription description = Files.isRegularFile(Path.of(args[0]))
+        ? ChaosGameFileHandler.readFromFile(args[0])
+        : new ChaosGameDescriptionFactory().getPredefinedChaosGame(args[0]);
+
+    int width;
+    int height;
+    long steps;
+    try {
+      width = Integer.parseInt(args[1]);
+      height = Integer.parseInt(args[2]);
+      steps = Long.parseLong(args[3]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(USAGE);
+    }
+    if (steps < 0) {
+      throw new IllegalArgumentException("The number of steps can not be negative");
+    }
+    return new OutOfCoreRenderer(description, width, height).render(steps, Path.of(args[4]));
+  }
+
+  /**
+   * Sets the number of bytes a single strip may use while it is accumulated.
+   * Strips are at least one row high, regardless of the budget.
+   *
+   * @param memoryBudget the memory budget in bytes
+   * @throws IllegalArgumentException if the budget is not positive
+   * @since 1.0
+   */
+  public void setMemoryBudget(long memoryBudget) throws IllegalArgumentException {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException("The memory budget must be positive");
+    }
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Sets the directory the bucket files are written to.
+   * If the given directory is null, does nothing.
+   *
+   * @param workDirectory the directory for the bucket files
+   * @since 1.0
+   */
+  public void setWorkDirectory(Path workDirectory) {
+    if (workDirectory != null) {
+      this.workDirectory = workDirectory;
+    }
+  }
+
+  /**
+   * Sets the seed of the random transform choices, so renders can be repeated exactly.
+   *
+   * @param seed the seed to use
+   * @since 1.0
+   */
+  public void setSeed(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Returns the number of rows of each strip, the last strip may have fewer.
+   *
+   * @return the number of rows per strip
+   * @since 1.0
+   */
+  public int getStripRows() {
+    long rows = memoryBudget / ((long) width * Integer.BYTES);
+    return (int) Math.max(1, Math.min(height, rows));
+  }
+
+  /**
+   * Runs the chaos game for the given number of steps and writes the image to the given file.
+   * The bucket files are deleted when done, also if rendering fails.
+   *
+   * @param steps the number of steps to run
+   * @param output the path of the PPM image to write
+   * @return the number of hits inside the image
+   * @throws IOException if the bucket files or the image can not be written
+   * @since 1.0
+   */
+  public long render(long steps, Path output) throws IOException {
+    int stripRows = getStripRows();
+    int stripCount = (height + stripRows - 1) / stripRows;
+    Path bucketDirectory = Files.createTempDirectory(workDirectory, "buckets");
+    List<Path> bucketFiles = new ArrayList<>();
+
+    try {
+      for (int s = 0; s < stripCount; s++) {
+        bucketFiles.add(Files.createFile(bucketDirectory.resolve("strip-" + s + ".bin")));
+      }
+      long hits = writeBuckets(steps, stripRows, bucketFiles);
+      writeImage(stripRows, bucketFiles, output);
+      return hits;
+    } finally {
+      for (Path bucketFile : bucketFiles) {
+        Files.deleteIfExists(bucketFile);
+      }
+      Files.deleteIfExists(bucketDirectory);
+    }
+  }
+
+  /**
+   * First pass, runs the chaos game and writes the index of every hit pixel within its strip
+   * to the bucket file of the strip.
+   * The write buffer of a strip is allocated at its first hit, and sized so the buffers of all
+   * strips fit in a fixed budget. Bucket files are opened when their buffer is drained, and the
+   * least recently drained file is closed when too many are open.
+   *
+   * @return the number of hits inside the image
+   * @since 1.0
+   */
+  private long writeBuckets(long steps, int stripRows, List<Path> bucketFiles)
+      throws IOException {
+    List<Transform> transforms = new ArrayList<>();
+    List<Integer> cumulativeProbabilities = new ArrayList<>();
+    ChaosGame.collectBranches(description, transforms, cumulativeProbabilities);
+    TransformKernel kernel = TransformPipelineCompiler.compile(transforms);
+    int[] cumulative = cumulativeProbabilities.stream().mapToInt(Integer::intValue).toArray();
+    int total = Math.max(cumulative[cumulative.length - 1], 1);
+
+    double minX = description.getMinCoords().getElement(0);
+    double minY = description.getMinCoords().getElement(1);
+    double maxX = description.getMaxCoords().getElement(0);
+    double maxY = description.getMaxCoords().getElement(1);
+    double toColumn = (width - 1) / (maxX - minX);
+    double toRow = (height - 1) / (maxY - minY);
+
+    int bufferBytes = getBucketBufferBytes(bucketFiles.size());
+    ByteBuffer[] buffers = new ByteBuffer[bucketFiles.size()];
+    Map<Integer, FileChannel> channels = createChannelCache();
+    long hits = 0;
+    try {
+      double[] point = {0.0, 0.0};
+      for (long step = 0; step < steps; step++) {
+        int randomNum = random.nextInt(total) + 1;
+        int index = ChaosGame.firstAtLeast(cumulative, randomNum);
+        kernel.apply(Math.min(index, cumulative.length - 1), point);
+
+        // Same mapping as the canvas, with the y-axis pointing up
+        int row = (int) ((maxY - point[1]) * toRow);
+        int column = (int) ((point[0] - minX) * toColumn);
+        if (step < SKIPPED_STEPS || row < 0 || row >= height || column < 0 || column >= width) {
+          continue;
+        }
+
+        int strip = row / stripRows;
+        ByteBuffer buffer = buffers[strip];
+        if (buffer == null) {
+          buffer = ByteBuffer.allocate(bufferBytes).order(ByteOrder.nativeOrder());
+          buffers[strip] = buffer;
+        } else if (!buffer.hasRemaining()) {
+          drain(buffer, getChannel(channels, bucketFiles, strip));
+        }
+        buffer.putInt((row - strip * stripRows) * width + column);
+        hits++;
+      }
+
+      for (int s = 0; s < buffers.length; s++) {
+        if (buffers[s] != null && buffers[s].position() > 0) {
+          drain(buffers[s], getChannel(channels, bucketFiles, s));
+        }
+      }
+    } finally {
+      for (FileChannel channel : channels.values()) {
+        channel.close();
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Returns the size of the write buffer of each strip, so the buffers of the given number of
+   * strips fit in the budget of the buffers. The size is a whole number of pixel indices.
+   *
+   * @since 1.1
+   */
+  static int getBucketBufferBytes(int stripCount) {
+    long bytes = BUCKET_BUFFERS_BUDGET / Math.max(stripCount, 1);
+    bytes = Math.max(MIN_BUCKET_BUFFER_BYTES, Math.min(BUCKET_BUFFER_BYTES, bytes));
+    return (int) (bytes - bytes % Integer.BYTES);
+  }
+
+  /**
+   * Creates a map of open bucket files by strip, in access order, that closes the least
+   * recently used file when more than the allowed number are open.
+   *
+   * @since 1.1
+   */
+  private static Map<Integer, FileChannel> createChannelCache() {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, FileChannel> eldest) {
+        if (size() <= MAX_OPEN_BUCKETS) {
+          return false;
+        }
+        try {
+          eldest.getValue().close();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the open bucket file of the given strip, and opens it for appending if needed.
+   *
+   * @since 1.1
+   */
+  private static FileChannel getChannel(Map<Integer, FileChannel> channels,
+      List<Path> bucketFiles, int strip) throws IOException {
+    FileChannel channel = channels.get(strip);
+    if (channel == null) {
+      channel = FileChannel.open(bucketFiles.get(strip), StandardOpenOption.APPEND);
+      try {
+        channels.put(strip, channel);
+      } catch (UncheckedIOException e) {
+        channel.close();
+        throw e.getCause();
+      }
+    }
+    return channel;
+  }
+
+  /**
+   * Second pass, accumulates the strips one at a time and streams the colored rows to the
+   * image. The strips are read twice, first to find the highest hit count for the color scale.
+   *
+   * @since 1.0
+   */
+  private void writeImage(int stripRows, List<Path> bucketFiles, Path output)
+      throws IOException {
+    int[] counts = new int[stripRows * width];
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUCKET_BUFFER_BYTES)
+        .order(ByteOrder.nativeOrder());
+
+    int maxCount = 0;
+    for (Path bucketFile : bucketFiles) {
+      accumulate(bucketFile, counts, buffer);
+      for (int count : counts) {
+        maxCount = Math.max(maxCount, count);
+      }
+    }
+
+    int[] palette = createPalette();
+    double scale = (PALETTE_SIZE - 1) / Math.log1p(Math.max(maxCount, 1));
+    int[] colors = new int[width];
+
+    try (PpmWriter writer = new PpmWriter(output, width, height)) {
+      for (int s = 0; s < bucketFiles.size(); s++) {
+        accumulate(bucketFiles.get(s), counts, buffer);
+        int rows = Math.min(stripRows, height - s * stripRows);
+
+        for (int row = 0; row < rows; row++) {
+          for (int column = 0; column < width; column++) {
+            int count = counts[row * width + column];
+            colors[column] = count == 0
+                ? BACKGROUND
+                : palette[(int) (Math.log1p(count) * scale)];
+          }
+          writer.writeRow(colors, 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the hit pixels of a bucket file into the given counts, replacing their values.
+   *
+   * @since 1.0
+   */
+  private static void accumulate(Path bucketFile, int[] counts, ByteBuffer buffer)
+      throws IOException {
+    Arrays.fill(counts, 0);
+    try (FileChannel channel = FileChannel.open(bucketFile, StandardOpenOption.READ)) {
+      buffer.clear();
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        while (buffer.remaining() >= Integer.BYTES) {
+          counts[buffer.getInt()]++;
+        }
+        // Keep a partly read index for the next read
+        buffer.compact();
+      }
+    }
+  }
+
+  private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Creates the colors from the start to the end color, interpolated in the HSB color space
+   * like the colors of the canvas.
+   *
+   * @return the colors, as 0xRRGGBB integers
+   * @since 1.0
+   */
+  private static int[] createPalette() {
+    int[] palette = new int[PALETTE_SIZE];
+    for (int i = 0; i < PALETTE_SIZE; i++) {
+      double t = i / (PALETTE_SIZE - 1.0);
+      Color color = Color.hsb(
+          START_COLOR.getHue() + (END_COLOR.getHue() - START_COLOR.getHue()) * t,
+          START_COLOR.getSaturation()
+              + (END_COLOR.getSaturation() - START_COLOR.getSaturation()) * t,
+          START_COLOR.getBrightness()
+              + (END_COLOR.getBrightness() - START_COLOR.getBrightness()) * t
+      );
+      palette[i] = (int) Math.round(color.getRed() * 255) << 16
+          | (int) Math.round(color.getGreen() * 255) << 8
+          | (int) Math.round(color.getBlue() * 255);
+    }
+    return palette;
+  }
+}
@@ -0,0 +1,253 @@
+package backend.core;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Finds probabilities for an affine chaos game description that fill the attractor evenly.
+ * With equal probabilities, transforms with a small determinant map the attractor onto a small
+ * area and oversample it, while large transforms stay sparse.
+ * The solver starts from probabilities proportional to the determinants, and refines them from
+ * short pilot runs, lowering the probability of transforms whose points land on crowded pixels.
+ *
+ * @version 1.1
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class ProbabilitySolver {
+  private static final int PILOT_ROUNDS = 4;
+  private static final int PILOT_STEPS = 50000;
+  private static final int SKIPPED_STEPS = 20;
+  private static final int PILOT_SIZE = 64;
+  private static final double MIN_WEIGHT = 0.01;
+  private static final double DAMPING = 0.5;
+
+  /**
+   * Prevent instantiation.
+   *
+   * @since 1.0
+   */
+  private ProbabilitySolver() {
+    // Prevent instantiation
+  }
+
+  /**
+   * Solves the probabilities of the given description and writes them back into the
+   * description, as cumulative percentages like those read from preset files. The description
+   * remembers that they were solved.
+   *
+   * @param description the description to solve the probabilities of
+   * @return the cumulative probabilities written to the description
+   * @throws IllegalArgumentException if the description is not 2-dimensional affine
+   * @since 1.0
+   */
+  public static Vector solve(ChaosGameDescription description) throws IllegalArgumentException {
+    double[] weights = getInitialWeights(description);
+
+    Random random = new Random(0);
+    for (int round = 0; round < PILOT_ROUNDS; round++) {
+      weights = refineWeights(description, weights, random);
+    }
+
+    Vector probability = toCumulativePercentages(weights);
+    description.setSolvedProbability(probability);
+    return probability;
+  }
+
+  /**
+   * Returns weights proportional to the absolute determinant of each transform, which is the
+   * share of the area each transform maps the attractor onto.
+   * Every weight is at least the minimum weight, so flat transforms like the fern stem are
+   * still visited.
+   *
+   * @param description the description to get the weights of
+   * @return the normalized initial weights
+   * @throws IllegalArgumentException if the description is not 2-dimensional affine
+   * @since 1.0
+   */
+  static double[] getInitialWeights(ChaosGameDescription description)
+      throws IllegalArgumentException {
+    List<Transform> transforms = description.getTransforms();
+    if (transforms.isEmpty()) {
+      throw new IllegalArgumentException("The description has no transforms");
+    }
+
+    double[] weights = new double[transforms.size()];
+    for (int i = 0; i < weights.length; i++) {
+      if (!(transforms.get(i) instanceof AffineTransform affine)
+          || affine.getMatrix().getSize() != 2) {
+        throw new IllegalArgumentException("Only 2-dimensional affine transforms can be solved");
+      }
+      MatrixNxN matrix = affine.getMatrix();
+      weights[i] = Math.abs(matrix.getElement(0, 0) * matrix.getElement(1, 1)
+          - matrix.getElement(0, 1) * matrix.getElement(1, 0));
+    }
+    return normalize(weights);
+  }
+
+  /**
+   * Runs a pilot chaos game with the given weights on a small histogram, and returns weights
+   * that move every transform towards the mean density.
+   * The density seen by a transform is the mean hit count of the pixels its points land on.
+   *
+   * @return the refined, normalized weights
+   * @since 1.0
+   */
+  private static double[] refineWeights(
+      ChaosGameDescription description, double[] weights, Random random
+  ) {
+    int transformCount = weights.length;
+    TransformKernel kernel = TransformPipelineCompiler.compile(description.getTransforms());
+
+    double minX = description.getMinCoords().getElement(0);
+    double minY = description.getMinCoords().getElement(1);
+    double scaleX = PILOT_SIZE / (description.getMaxCoords().getElement(0) - minX);
+    double scaleY = PILOT_SIZE / (description.getMaxCoords().getElement(1) - minY);
+
+    double[] cumulativeWeights = new double[transformCount];
+    double sum = 0;
+    for (int i = 0; i < transformCount; i++) {
+      sum += weights[i];
+      cumulativeWeights[i] = sum;
+    }
+
+    int[] histogram = new int[PILOT_SIZE * PILOT_SIZE];
+    int[] pixels = new int[PILOT_STEPS];
+    int[] chosen = new int[PILOT_STEPS];
+    double[] point = {0.0, 0.0};
+
+    // First pass, fill the histogram and remember where each transform landed
+    for (int step = 0; step < PILOT_STEPS; step++) {
+      double randomNum = random.nextDouble() * sum;
+      int index = 0;
+      while (index < transformCount - 1 && cumulativeWeights[index] <= randomNum) {
+        index++;
+      }
+      kernel.apply(index, point);
+
+      int column = (int) ((point[0] - minX) * scaleX);
+      int row = (int) ((point[1] - minY) * scaleY);
+      boolean inside = column >= 0 && column < PILOT_SIZE && row >= 0 && row < PILOT_SIZE;
+
+      chosen[step] = index;
+      pixels[step] = inside && step >= SKIPPED_STEPS ? row * PILOT_SIZE + column : -1;
+      if (pixels[step] >= 0) {
+        histogram[pixels[step]]++;
+      }
+    }
+
+    // Second pass, the mean density seen by each transform
+    double[] densitySum = new double[transformCount];
+    int[] densityCount = new int[transformCount];
+    double totalDensity = 0;
+    int totalCount = 0;
+    for (int step = 0; step < PILOT_STEPS; step++) {
+      if (pixels[step] >= 0) {
+        densitySum[chosen[step]] += histogram[pixels[step]];
+        densityCount[chosen[step]]++;
+        totalDensity += histogram[pixels[step]];
+        totalCount++;
+      }
+    }
+    if (totalCount == 0) {
+      return weights;
+    }
+
+    double meanDensity = totalDensity / totalCount;
+    double[] refined = new double[transformCount];
+    for (int i = 0; i < transformCount; i++) {
+      if (densityCount[i] == 0) {
+        refined[i] = weights[i];
+      } else {
+        // Damped, so a single noisy pilot run cannot swing the weights too far
+        double density = densitySum[i] / densityCount[i];
+        refined[i] = weights[i] * Math.pow(meanDensity / density, DAMPING);
+      }
+    }
+    return normalize(refined);
+  }
+
+  /**
+   * Normalizes the weights to sum to 1, raising every weight to at least the minimum weight.
+   *
+   * @param weights the weights to normalize
+   * @return the normalized weights
+   * @since 1.0
+   */
+  private static double[] normalize(double[] weights) {
+    double[] result = weights.clone();
+    for (int round = 0; round < 2; round++) {
+      double sum = 0;
+      for (double weight : result) {
+        sum += weight;
+      }
+      for (int i = 0; i < result.length; i++) {
+        result[i] = sum > 0 ? result[i] / sum : 1.0 / result.length;
+        result[i] = Math.max(result[i], MIN_WEIGHT);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Converts the weights to ascending cumulative whole percentages, ending at 100.
+   * Every transform keeps at least one percent, and the rounding error is given to the
+   * transforms with the largest remainders.
+   *
+   * @param weights the normalized weights
+   * @return the cumulative percentages
+   * @since 1.0
+   */
+  private static Vector toCumulativePercentages(double[] weights) {
+    int size = weights.length;
+    int[] percentages = new int[size];
+    double[] remainders = new double[size];
+    double sum = 0;
+    for (double weight : weights) {
+      sum += weight;
+    }
+
+    int total = 0;
+    for (int i = 0; i < size; i++) {
+      double exact = weights[i] / sum * 100;
+      percentages[i] = Math.max((int) exact, 1);
+      remainders[i] = exact - (int) exact;
+      total += percentages[i];
+    }
+
+    // Hand out the missing percentages, or take back the surplus from the largest ones
+    while (total != 100) {
+      int best = 0;
+      for (int i = 1; i < size; i++) {
+        boolean better = total < 100
+            ? remainders[i] > remainders[best]
+            : percentages[i] > percentages[best];
+        if (better) {
+          best = i;
+        }
+      }
+      if (total < 100) {
+        percentages[best]++;
+        remainders[best] = -1;
+        total++;
+      } else if (percentages[best] > 1) {
+        percentages[best]--;
+        total--;
+      } else {
+        break;
+      }
+    }
+
+    double[] cumulative = new double[size];
+    int running = 0;
+    for (int i = 0; i < size; i++) {
+      running += percentages[i];
+      cumulative[i] = running;
+    }
+    return new Vector(cumulative);
+  }
+}
@@ -0,0 +1,27 @@
+package backend.core;
+
+/**
+ * Represents the way the chaos game turns the walk into pixel hits.
+ * Both modes deposit the same expected density per step, so heatmaps rendered with the same
+ * number of steps are directly comparable.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public enum SamplingMode {
+  /**
+   * Only the transform picked by the probability vector is evaluated each step.
+   * The walker moves to the new point, and the point is hit once with a weight of 1.
+   * The canvas holds {@code steps * PIXEL_HIT_INCREMENTER} in total after a run.
+   */
+  SAMPLED,
+
+  /**
+   * Every transform is evaluated each step, and every image is hit with the probability of its
+   * transform as weight. The walker still follows only the sampled transform.
+   * The weights of one step sum to 1, so the total held by the canvas is the same as for
+   * {@link #SAMPLED}, but with less noise for the cost of one evaluation per transform.
+   */
+  ALL_BRANCHES
+}
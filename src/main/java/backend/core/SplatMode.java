@@ -0,0 +1,23 @@
+package backend.core;
+
+/**
+ * Represents the way a point is put on the pixels of the canvas.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public enum SplatMode {
+  /**
+   * The whole hit goes to the pixel the point lands in, the fastest mode.
+   * Edges alias until many points are drawn.
+   */
+  NEAREST,
+
+  /**
+   * The hit is split between the four pixels around the point, weighted by how close the
+   * point is to their centers. Edges are smooth from fewer points, for about twice the cost of
+   * a hit.
+   */
+  BILINEAR
+}
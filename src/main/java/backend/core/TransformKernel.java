@@ -0,0 +1,23 @@
+package backend.core;
+
+/**
+ * Interface for a compiled set of transforms working on primitive points.
+ * Each transform of the chaos game is addressed by its index, and the point is transformed
+ * in place, so no vectors are allocated while running the game.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public interface TransformKernel {
+
+  /**
+   * Transforms the given point in place with the transform at the given index.
+   * The point is an array of the x and y coordinates.
+   *
+   * @param index the index of the transform to apply
+   * @param point the point to transform, overwritten with the result
+   * @since 1.0
+   */
+  void apply(int index, double[] point);
+}
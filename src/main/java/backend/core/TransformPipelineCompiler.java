@@ -0,0 +1,631 @@
+package backend.core;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
+import backend.transforms.JuliaTransform;
+import backend.transforms.Transform;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Compiles the transforms of a chaos game into a {@link TransformKernel}.
+ * The kernel is a generated hidden class with a switch over the transform indices, where the
+ * coefficients of every 2-dimensional affine and Julia transform are inlined as constants.
+ * Other transforms are called through the {@link Transform} interface from the same switch.
+ * Kernels are cached by the fingerprint of the transforms, so rendering the same transforms
+ * again, also after panning, zooming or changing the probabilities, does not generate a new
+ * class. Kernels keep copies of the transforms they call through the interface, so a cached
+ * kernel is not changed by later edits of the transforms it was compiled from.
+ *
+ * @version 1.3
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class TransformPipelineCompiler {
+  private static final int MAX_CACHED_KERNELS = 64;
+  private static final String KERNEL_NAME = "backend/core/CompiledTransformKernel";
+  private static final String TRANSFORM_ARRAY = "[Lbackend/transforms/Transform;";
+
+  private static final Map<String, TransformKernel> CACHE = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TransformKernel> eldest) {
+          return size() > MAX_CACHED_KERNELS;
+        }
+      }
+  );
+
+  /**
+   * Prevent instantiation.
+   *
+   * @since 1.0
+   */
+  private TransformPipelineCompiler() {
+    // Prevent instantiation
+  }
+
+  /**
+   * Returns a kernel for the given transforms, compiling it if it is not cached.
+   * The cache key is the fingerprint of the transforms, everything the kernel depends on, so
+   * the view and probabilities of the description do not matter.
+   *
+   * @param transforms the transforms to compile, in the order of their indices
+   * @return the kernel applying the given transforms
+   * @since 1.0
+   */
+  public static TransformKernel compile(List<Transform> transforms) {
+    String fingerprint = getFingerprint(transforms);
+
+    TransformKernel cached = CACHE.get(fingerprint);
+    if (cached != null) {
+      return cached;
+    }
+
+    // Copied, the kernel may be reused for other transforms of the same fingerprint
+    List<Transform> copies = new ArrayList<>();
+    for (Transform transform : transforms) {
+      copies.add(transform.copy());
+    }
+
+    TransformKernel kernel;
+    try {
+      kernel = define(copies, new KernelClassWriter(copies).write());
+    } catch (IOException e) {
+      kernel = fallBack(copies, e);
+    }
+
+    CACHE.put(fingerprint, kernel);
+    return kernel;
+  }
+
+  /**
+   * Transforms the point in place with the given Julia constant, power and sign.
+   * Mirrors {@link JuliaTransform#transform(Vector)}, using primitives only.
+   * Called from generated kernels.
+   *
+   * @param point the point to transform
+   * @param real the real part of the Julia constant
+   * @param imag the imaginary part of the Julia constant
+   * @param power the power of the root
+   * @param sign the sign of the result
+   * @since 1.0
+   */
+  static void applyJulia(double[] point, double real, double imag, int power, int sign) {
+    double zr = point[0] - real;
+    double zi = point[1] - imag;
+
+    double magnitude = Math.sqrt(zr * zr + zi * zi);
+    double argument = Math.atan2(zi, zr);
+
+    double rootMagnitude = Math.pow(magnitude, 1.0 / power);
+    double angle = (argument + 2 * Math.PI * power) / power;
+
+    point[0] = rootMagnitude * Math.cos(angle) * sign;
+    point[1] = rootMagnitude * Math.sin(angle) * sign;
+  }
+
+  /**
+   * Transforms the point in place through the {@link Transform} interface.
+   * Used for transforms that are not inlined in generated kernels. Flame transforms are applied
+   * to the point directly, without allocating.
+   *
+   * @param transform the transform to apply
+   * @param point the point to transform
+   * @since 1.0
+   */
+  static void applyGeneric(Transform transform, double[] point) {
+    if (transform instanceof FlameTransform flame) {
+      flame.transformPoint(point);
+      return;
+    }
+    Vector result = transform.transform(new Vector(point[0], point[1]));
+    point[0] = result.getElement(0);
+    point[1] = result.getElement(1);
+  }
+
+  /**
+   * Returns a string identifying the given transforms, including everything inlined into the
+   * generated kernel.
+   *
+   * @param transforms the transforms to identify
+   * @return the fingerprint of the transforms
+   * @since 1.0
+   */
+  private static String getFingerprint(List<Transform> transforms) {
+    StringBuilder result = new StringBuilder();
+    for (Transform transform : transforms) {
+      result.append(transform.getClass().getName())
+          .append(':')
+          .append(transform.getDetailsAsString());
+      if (transform instanceof JuliaTransform julia) {
+        result.append(':').append(julia.getSign()).append(':').append(julia.getPower());
+      }
+      result.append(';');
+    }
+    return String.valueOf(result);
+  }
+
+  /**
+   * Returns whether the given transform can be inlined as a 2-dimensional affine transform.
+   *
+   * @param transform the transform to check
+   * @return true if the transform is a 2x2 affine transform, false otherwise
+   * @since 1.0
+   */
+  private static boolean isAffine2d(Transform transform) {
+    return transform instanceof AffineTransform affine
+        && affine.getMatrix().getSize() == 2
+        && affine.getVector().getSize() == 2;
+  }
+
+  /**
+   * Defines and instantiates the hidden kernel class of the given class bytes, for the given
+   * transforms. If the class cannot be defined, verified or instantiated, like when the
+   * bytecode is malformed, logs a warning and returns a kernel calling the transforms through
+   * the interface instead, so rendering goes on.
+   *
+   * @param transforms the transforms of the kernel
+   * @param classBytes the class file of the kernel
+   * @return a new instance of the kernel, or the fallback kernel
+   * @since 1.3
+   */
+  static TransformKernel define(List<Transform> transforms, byte[] classBytes) {
+    try {
+      Class<?> kernelClass = MethodHandles.lookup()
+          .defineHiddenClass(classBytes, true)
+          .lookupClass();
+
+      return (TransformKernel) kernelClass
+          .getDeclaredConstructor(Transform[].class)
+          .newInstance((Object) transforms.toArray(new Transform[0]));
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // Linkage errors, like a VerifyError, come from the hand-written bytecode
+      return fallBack(transforms, e);
+    }
+  }
+
+  /**
+   * Logs the given failure of generating a kernel, and returns a kernel calling the given
+   * transforms through the interface.
+   *
+   * @since 1.3
+   */
+  private static TransformKernel fallBack(List<Transform> transforms, Throwable cause) {
+    Logger.getLogger(TransformPipelineCompiler.class.getName())
+        .warning("Could not generate transform kernel, falling back to interface calls. " + cause);
+    Transform[] copy = transforms.toArray(new Transform[0]);
+    return (index, point) -> applyGeneric(copy[index], point);
+  }
+
+  /**
+   * Writes the class file of a kernel.
+   * The class implements {@link TransformKernel}, and keeps the transforms that are not inlined
+   * in a final field. Every case of the switch in {@code apply} ends with a return, so all branch
+   * targets share the frame of the method entry.
+   *
+   * @version 1.0
+   * @author proggang
+   * @since 19.10.2026
+   */
+  private static class KernelClassWriter {
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int CLASS_VERSION = 64;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ILOAD_1 = 0x1b;
+    private static final int ICONST_M1 = 0x02;
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD = 0x18;
+    private static final int DSTORE = 0x39;
+    private static final int DALOAD = 0x31;
+    private static final int AALOAD = 0x32;
+    private static final int DASTORE = 0x52;
+    private static final int DADD = 0x63;
+    private static final int DMUL = 0x6b;
+    private static final int TABLESWITCH = 0xaa;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private static final int LOCAL_X = 3;
+    private static final int LOCAL_Y = 5;
+
+    private final List<Transform> transforms;
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndices = new HashMap<>();
+    private int poolSize = 1;
+
+    /**
+     * Constructs a class writer for the given transforms.
+     *
+     * @param transforms the transforms to compile
+     * @since 1.0
+     */
+    KernelClassWriter(List<Transform> transforms) {
+      this.transforms = new ArrayList<>(transforms);
+    }
+
+    /**
+     * Writes the complete class file.
+     *
+     * @return the bytes of the class file
+     * @throws IOException if the bytes cannot be written
+     * @since 1.0
+     */
+    byte[] write() throws IOException {
+      int thisClass = classRef(KERNEL_NAME);
+      int superClass = classRef("java/lang/Object");
+      int kernelInterface = classRef("backend/core/TransformKernel");
+      int fallbackName = utf8("fallback");
+      int fallbackType = utf8(TRANSFORM_ARRAY);
+      int codeName = utf8("Code");
+      int stackMapName = utf8("StackMapTable");
+
+      byte[] constructor = writeMethod(
+          ACC_PUBLIC, "<init>", "(" + TRANSFORM_ARRAY + ")V", codeName,
+          writeConstructorCode(), 2, 2, null, 0
+      );
+
+      List<Integer> targets = new ArrayList<>();
+      byte[] applyCode = writeApplyCode(targets);
+      byte[] apply = writeMethod(
+          ACC_PUBLIC, "apply", "(I[D)V", codeName,
+          applyCode, 8, 7, writeStackMap(targets), stackMapName
+      );
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(CLASS_VERSION);
+      out.writeShort(poolSize);
+      out.write(poolBytes.toByteArray());
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);
+      out.writeShort(kernelInterface);
+
+      out.writeShort(1);
+      out.writeShort(ACC_PRIVATE | ACC_FINAL);
+      out.writeShort(fallbackName);
+      out.writeShort(fallbackType);
+      out.writeShort(0);
+
+      out.writeShort(2);
+      out.write(constructor);
+      out.write(apply);
+      out.writeShort(0);
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the constructor, storing the transforms in the fallback field.
+     *
+     * @return the bytecode of the constructor
+     * @since 1.0
+     */
+    private byte[] writeConstructorCode() throws IOException {
+      ByteArrayOutputStream code = new ByteArrayOutputStream();
+      code.write(ALOAD_0);
+      writeOpWithIndex(code, INVOKESPECIAL, methodRef("java/lang/Object", "<init>", "()V"));
+      code.write(ALOAD_0);
+      code.write(ALOAD_1);
+      writeOpWithIndex(code, PUTFIELD, fieldRef(KERNEL_NAME, "fallback", TRANSFORM_ARRAY));
+      code.write(RETURN);
+      return code.toByteArray();
+    }
+
+    /**
+     * Writes the apply method, a table switch with one case per transform.
+     *
+     * @param targets filled with the offsets of all branch targets, in ascending order
+     * @return the bytecode of the apply method
+     * @since 1.0
+     */
+    private byte[] writeApplyCode(List<Integer> targets) throws IOException {
+      List<byte[]> cases = new ArrayList<>();
+      for (int i = 0; i < transforms.size(); i++) {
+        cases.add(writeCase(i, transforms.get(i)));
+      }
+
+      // iload_1 and the table switch opcode, padded to a multiple of four
+      int switchStart = 1;
+      int padding = (4 - ((switchStart + 1) % 4)) % 4;
+      int switchLength = 1 + padding + 12 + 4 * cases.size();
+      int offset = switchStart + switchLength;
+
+      for (byte[] body : cases) {
+        targets.add(offset);
+        offset += body.length;
+      }
+      int defaultTarget = offset;
+      targets.add(defaultTarget);
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream code = new DataOutputStream(bytes);
+      code.write(ILOAD_1);
+      code.write(TABLESWITCH);
+      for (int i = 0; i < padding; i++) {
+        code.write(0);
+      }
+      code.writeInt(defaultTarget - switchStart);
+      code.writeInt(0);
+      code.writeInt(cases.size() - 1);
+      for (int i = 0; i < cases.size(); i++) {
+        code.writeInt(targets.get(i) - switchStart);
+      }
+      for (byte[] body : cases) {
+        code.write(body);
+      }
+      code.write(RETURN);
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the case of the switch applying a single transform.
+     *
+     * @param index the index of the transform
+     * @param transform the transform to apply
+     * @return the bytecode of the case
+     * @since 1.0
+     */
+    private byte[] writeCase(int index, Transform transform) throws IOException {
+      ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+      if (isAffine2d(transform)) {
+        AffineTransform affine = (AffineTransform) transform;
+        MatrixNxN matrix = affine.getMatrix();
+        Vector vector = affine.getVector();
+
+        // Load x and y into locals before overwriting the point
+        code.write(ALOAD_2);
+        code.write(ICONST_0);
+        code.write(DALOAD);
+        code.write(DSTORE);
+        code.write(LOCAL_X);
+        code.write(ALOAD_2);
+        code.write(ICONST_1);
+        code.write(DALOAD);
+        code.write(DSTORE);
+        code.write(LOCAL_Y);
+
+        for (int row = 0; row < 2; row++) {
+          code.write(ALOAD_2);
+          code.write(row == 0 ? ICONST_0 : ICONST_1);
+          writeOpWithIndex(code, LDC2_W, doubleConstant(matrix.getElement(row, 0)));
+          code.write(DLOAD);
+          code.write(LOCAL_X);
+          code.write(DMUL);
+          writeOpWithIndex(code, LDC2_W, doubleConstant(matrix.getElement(row, 1)));
+          code.write(DLOAD);
+          code.write(LOCAL_Y);
+          code.write(DMUL);
+          code.write(DADD);
+          writeOpWithIndex(code, LDC2_W, doubleConstant(vector.getElement(row)));
+          code.write(DADD);
+          code.write(DASTORE);
+        }
+      } else if (transform instanceof JuliaTransform julia) {
+        code.write(ALOAD_2);
+        writeOpWithIndex(code, LDC2_W, doubleConstant(julia.getPoint().getElement(0)));
+        writeOpWithIndex(code, LDC2_W, doubleConstant(julia.getPoint().getElement(1)));
+        writeOpWithIndex(code, LDC_W, intConstant(julia.getPower()));
+        code.write(julia.getSign() < 0 ? ICONST_M1 : ICONST_1);
+        writeOpWithIndex(code, INVOKESTATIC, methodRef(
+            "backend/core/TransformPipelineCompiler", "applyJulia", "([DDDII)V"
+        ));
+      } else {
+        code.write(ALOAD_0);
+        writeOpWithIndex(code, GETFIELD, fieldRef(KERNEL_NAME, "fallback", TRANSFORM_ARRAY));
+        writeOpWithIndex(code, LDC_W, intConstant(index));
+        code.write(AALOAD);
+        code.write(ALOAD_2);
+        writeOpWithIndex(code, INVOKESTATIC, methodRef(
+            "backend/core/TransformPipelineCompiler", "applyGeneric",
+            "(Lbackend/transforms/Transform;[D)V"
+        ));
+      }
+
+      code.write(RETURN);
+      return code.toByteArray();
+    }
+
+    /**
+     * Writes the stack map table, with an unchanged frame at every branch target.
+     *
+     * @param targets the ascending offsets of all branch targets
+     * @return the bytes of the stack map table attribute, without name and length
+     * @since 1.0
+     */
+    private byte[] writeStackMap(List<Integer> targets) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeShort(targets.size());
+
+      int previous = -1;
+      for (int target : targets) {
+        int delta = target - previous - 1;
+        if (delta < 64) {
+          out.write(delta);  // same_frame
+        } else {
+          out.write(251);  // same_frame_extended
+          out.writeShort(delta);
+        }
+        previous = target;
+      }
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a method with a code attribute and an optional stack map table.
+     *
+     * @return the bytes of the method
+     * @since 1.0
+     */
+    private byte[] writeMethod(int access, String name, String descriptor, int codeName,
+        byte[] code, int maxStack, int maxLocals, byte[] stackMap, int stackMapName)
+        throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeShort(access);
+      out.writeShort(utf8(name));
+      out.writeShort(utf8(descriptor));
+      out.writeShort(1);
+
+      int stackMapLength = stackMap == null ? 0 : 6 + stackMap.length;
+      out.writeShort(codeName);
+      out.writeInt(12 + code.length + stackMapLength);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(code.length);
+      out.write(code);
+      out.writeShort(0);
+      if (stackMap == null) {
+        out.writeShort(0);
+      } else {
+        out.writeShort(1);
+        out.writeShort(stackMapName);
+        out.writeInt(stackMap.length);
+        out.write(stackMap);
+      }
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Writes an opcode followed by a two byte constant pool index.
+     *
+     * @since 1.0
+     */
+    private void writeOpWithIndex(ByteArrayOutputStream code, int opcode, int index) {
+      code.write(opcode);
+      code.write(index >> 8);
+      code.write(index & 0xff);
+    }
+
+    /**
+     * Returns the constant pool index of the given string, adding it if needed.
+     * The other constant methods work the same way for their own entry types.
+     *
+     * @param value the string to add
+     * @return the index of the entry
+     * @since 1.0
+     */
+    private int utf8(String value) throws IOException {
+      Integer index = poolIndices.get("U" + value);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(1);
+      pool.writeUTF(value);
+      return register("U" + value, 1);
+    }
+
+    private int classRef(String name) throws IOException {
+      int nameIndex = utf8(name);
+      Integer index = poolIndices.get("C" + name);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(7);
+      pool.writeShort(nameIndex);
+      return register("C" + name, 1);
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+      int nameIndex = utf8(name);
+      int typeIndex = utf8(descriptor);
+      String key = "N" + name + ":" + descriptor;
+      Integer index = poolIndices.get(key);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(12);
+      pool.writeShort(nameIndex);
+      pool.writeShort(typeIndex);
+      return register(key, 1);
+    }
+
+    private int fieldRef(String owner, String name, String descriptor) throws IOException {
+      return memberRef(9, owner, name, descriptor);
+    }
+
+    private int methodRef(String owner, String name, String descriptor) throws IOException {
+      return memberRef(10, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor)
+        throws IOException {
+      int ownerIndex = classRef(owner);
+      int nameAndTypeIndex = nameAndType(name, descriptor);
+      String key = "M" + tag + owner + "." + name + ":" + descriptor;
+      Integer index = poolIndices.get(key);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(tag);
+      pool.writeShort(ownerIndex);
+      pool.writeShort(nameAndTypeIndex);
+      return register(key, 1);
+    }
+
+    private int intConstant(int value) throws IOException {
+      Integer index = poolIndices.get("I" + value);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(3);
+      pool.writeInt(value);
+      return register("I" + value, 1);
+    }
+
+    private int doubleConstant(double value) throws IOException {
+      // Keyed by the raw bits, so 0.0 and -0.0 stay distinct
+      String key = "D" + Double.doubleToRawLongBits(value);
+      Integer index = poolIndices.get(key);
+      if (index != null) {
+        return index;
+      }
+      pool.writeByte(6);
+      pool.writeDouble(value);
+      return register(key, 2);  // Doubles take up two entries in the constant pool
+    }
+
+    /**
+     * Registers the last written entry under the given key.
+     *
+     * @param key the key of the entry
+     * @param slots the number of slots the entry takes up
+     * @return the index of the entry
+     * @since 1.0
+     */
+    private int register(String key, int slots) {
+      int index = poolSize;
+      poolIndices.put(key, index);
+      poolSize += slots;
+      return index;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package backend.core.canvas;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Represents a pool of idle canvas storages, keyed by storage type and size.
+ * Dragging the canvas size or editing a description would otherwise allocate a new canvas of
+ * many megabytes for every change. Released storages are cleared in place and kept for the next
+ * canvas of the same type and size, up to a memory budget. When the budget is exceeded, the
+ * least recently released storages are closed.
+ * The pool is thread-safe.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class CanvasPool {
+  public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+
+  private static CanvasPool instance;
+
+  private final long memoryBudget;
+  private final Deque<Entry> idle;
+  private long idleBytes;
+
+  /**
+   * Constructs a new, empty pool that keeps idle storages up to the given number of bytes.
+   *
+   * @param memoryBudget the number of bytes the idle storages may hold
+   * @throws IllegalArgumentException if the budget is negative
+   * @since 1.0
+   */
+  public CanvasPool(long memoryBudget) throws IllegalArgumentException {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("The memory budget cannot be negative");
+    }
+    this.memoryBudget = memoryBudget;
+    this.idle = new ArrayDeque<>();
+  }
+
+  /**
+   * Returns the pool shared by the chaos games of the application.
+   *
+   * @return the shared pool
+   * @since 1.0
+   */
+  public static synchronized CanvasPool getInstance() {
+    if (instance == null) {
+      instance = new CanvasPool(DEFAULT_MEMORY_BUDGET);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns an empty storage of the given type and size, reusing an idle storage if the pool
+   * has one, or creating a new storage otherwise.
+   *
+   * @param type the type of the storage
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @return an empty storage
+   * @since 1.0
+   */
+  public synchronized CanvasStorage acquire(CanvasStorageType type, int width, int height) {
+    // The most recently released storages are first
+    Iterator<Entry> iterator = idle.iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.type == type
+          && entry.storage.getWidth() == width
+          && entry.storage.getHeight() == height) {
+        iterator.remove();
+        idleBytes -= entry.bytes;
+        return entry.storage;
+      }
+    }
+    return type.create(width, height);
+  }
+
+  /**
+   * Clears the given storage in place and keeps it for a later canvas of the same type and
+   * size. The storage must not be used after releasing.
+   * If the storage is null, does nothing.
+   *
+   * @param type the type the storage was created as
+   * @param storage the storage to release
+   * @since 1.0
+   */
+  public void release(CanvasStorageType type, CanvasStorage storage) {
+    if (storage == null) {
+      return;
+    }
+    long bytes = type.estimateBytes(storage.getWidth(), storage.getHeight());
+    if (bytes > memoryBudget) {
+      storage.close();
+      return;
+    }
+
+    // Cleared outside the lock, so other threads can acquire in the meantime
+    storage.clear();
+    synchronized (this) {
+      idle.addFirst(new Entry(type, storage, bytes));
+      idleBytes += bytes;
+      while (idleBytes > memoryBudget) {
+        Entry oldest = idle.removeLast();
+        idleBytes -= oldest.bytes;
+        oldest.storage.close();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of idle storages in the pool.
+   *
+   * @return the number of idle storages
+   * @since 1.0
+   */
+  public synchronized int getIdleCount() {
+    return idle.size();
+  }
+
+  /**
+   * Returns the estimated number of bytes held by the idle storages.
+   *
+   * @return the size of the idle storages in bytes
+   * @since 1.0
+   */
+  public synchronized long getIdleBytes() {
+    return idleBytes;
+  }
+
+  /**
+   * Closes every idle storage and empties the pool.
+   *
+   * @since 1.0
+   */
+  public synchronized void clear() {
+    for (Entry entry : idle) {
+      entry.storage.close();
+    }
+    idle.clear();
+    idleBytes = 0;
+  }
+
+  /**
+   * Represents an idle storage with its type and estimated size.
+   *
+   * @since 1.0
+   */
+  private static class Entry {
+    private final CanvasStorageType type;
+    private final CanvasStorage storage;
+    private final long bytes;
+
+    private Entry(CanvasStorageType type, CanvasStorage storage, long bytes) {
+      this.type = type;
+      this.storage = storage;
+      this.bytes = bytes;
+    }
+  }
+}
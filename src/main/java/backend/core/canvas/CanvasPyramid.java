@@ -0,0 +1,195 @@
+package backend.core.canvas;
+
+/**
+ * Represents a pyramid of the pixels of a canvas at halving resolutions, like a mipmap.
+ * Level 0 is the canvas itself, and every following level sums each 2 by 2 block of the level
+ * before, down to a single pixel. The sum of a block is what the chaos game would have put in
+ * a single pixel of a canvas of half the size, so every level is a valid canvas on its own,
+ * for overviews and thumbnails without running the chaos game again.
+ * The levels above 0 take a third of the memory of the canvas together.
+ * The pyramid is built once from a storage that is no longer written, like a snapshot.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class CanvasPyramid {
+  private final CanvasStorage base;
+  private final int[] widths;
+  private final int[] heights;
+  // The pixels of the levels above 0, row by row
+  private final double[][] levels;
+
+  /**
+   * Constructs the pyramid of the given storage. The storage is read but not copied, and
+   * must not change while the pyramid is used.
+   *
+   * @param base the storage of level 0
+   * @since 1.0
+   */
+  public CanvasPyramid(CanvasStorage base) {
+    this.base = base;
+
+    int count = 1;
+    for (int w = base.getWidth(), h = base.getHeight(); w > 1 || h > 1; count++) {
+      w = (w + 1) >> 1;
+      h = (h + 1) >> 1;
+    }
+    this.widths = new int[count];
+    this.heights = new int[count];
+    this.levels = new double[count][];
+    widths[0] = base.getWidth();
+    heights[0] = base.getHeight();
+    for (int level = 1; level < count; level++) {
+      widths[level] = (widths[level - 1] + 1) >> 1;
+      heights[level] = (heights[level - 1] + 1) >> 1;
+    }
+
+    if (count > 1) {
+      // Only the hit pixels of the base are read, which suits sparse storages
+      double[] first = new double[widths[1] * heights[1]];
+      int firstWidth = widths[1];
+      base.forEachNonZero((row, column, value) ->
+          first[(row >> 1) * firstWidth + (column >> 1)] += value);
+      levels[1] = first;
+    }
+    for (int level = 2; level < count; level++) {
+      levels[level] = reduce(levels[level - 1], widths[level - 1], heights[level - 1],
+          widths[level], heights[level]);
+    }
+  }
+
+  /**
+   * Sums each 2 by 2 block of the given level into the next level.
+   *
+   * @since 1.0
+   */
+  private static double[] reduce(
+      double[] source, int sourceWidth, int sourceHeight, int width, int height
+  ) {
+    double[] result = new double[width * height];
+    for (int row = 0; row < sourceHeight; row++) {
+      int sourceOffset = row * sourceWidth;
+      int offset = (row >> 1) * width;
+      for (int column = 0; column < sourceWidth; column++) {
+        result[offset + (column >> 1)] += source[sourceOffset + column];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of levels, including the canvas itself.
+   *
+   * @return the number of levels
+   * @since 1.0
+   */
+  public int getLevelCount() {
+    return widths.length;
+  }
+
+  /**
+   * Returns the width of the given level.
+   *
+   * @param level the level, 0 being the canvas
+   * @return the width of the level
+   * @since 1.0
+   */
+  public int getWidth(int level) {
+    return widths[level];
+  }
+
+  /**
+   * Returns the height of the given level.
+   *
+   * @param level the level, 0 being the canvas
+   * @return the height of the level
+   * @since 1.0
+   */
+  public int getHeight(int level) {
+    return heights[level];
+  }
+
+  /**
+   * Returns the value of the pixel at the given row and column of the given level.
+   *
+   * @param level the level, 0 being the canvas
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the value of the pixel
+   * @throws IndexOutOfBoundsException if the level or pixel is out of bounds
+   * @since 1.0
+   */
+  public double get(int level, int row, int column) throws IndexOutOfBoundsException {
+    if (level == 0) {
+      return base.get(row, column);
+    }
+    if (row < 0 || row >= heights[level] || column < 0 || column >= widths[level]) {
+      throw new IndexOutOfBoundsException("Pixel " + row + ", " + column + " is out of bounds");
+    }
+    return levels[level][row * widths[level] + column];
+  }
+
+  /**
+   * Returns the coarsest level that is at least as large as the given size in both directions,
+   * or level 0 if the canvas is smaller.
+   *
+   * @param width the width to cover
+   * @param height the height to cover
+   * @return the nearest level to resample from
+   * @since 1.0
+   */
+  public int getNearestLevel(int width, int height) {
+    int level = 0;
+    while (level + 1 < widths.length
+        && widths[level + 1] >= width && heights[level + 1] >= height) {
+      level++;
+    }
+    return level;
+  }
+
+  /**
+   * Resamples the nearest level into the given empty storage, for an immediate preview of a
+   * canvas of another size.
+   * Every source pixel is added to the target pixels it covers, split evenly between them when
+   * enlarging, so the total of the pixels is kept.
+   *
+   * @param target the empty storage to resample into
+   * @since 1.0
+   */
+  public void resampleTo(CanvasStorage target) {
+    int targetWidth = target.getWidth();
+    int targetHeight = target.getHeight();
+    int level = getNearestLevel(targetWidth, targetHeight);
+    int width = widths[level];
+    int height = heights[level];
+
+    CanvasStorage.PixelVisitor splat = (row, column, value) -> {
+      int row0 = (int) ((long) row * targetHeight / height);
+      int row1 = Math.max(row0 + 1, (int) ((long) (row + 1) * targetHeight / height));
+      int column0 = (int) ((long) column * targetWidth / width);
+      int column1 = Math.max(column0 + 1, (int) ((long) (column + 1) * targetWidth / width));
+
+      double share = value / ((row1 - row0) * (column1 - column0));
+      for (int r = row0; r < row1; r++) {
+        for (int c = column0; c < column1; c++) {
+          target.add(r, c, share);
+        }
+      }
+    };
+
+    if (level == 0) {
+      base.forEachNonZero(splat);
+      return;
+    }
+    double[] pixels = levels[level];
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        double value = pixels[row * width + column];
+        if (value != 0) {
+          splat.visit(row, column, value);
+        }
+      }
+    }
+  }
+}
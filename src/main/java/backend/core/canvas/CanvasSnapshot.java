@@ -0,0 +1,234 @@
+package backend.core.canvas;
+
+import backend.geometry.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents an immutable snapshot of a canvas, published by the chaos game after a run.
+ * The chaos game keeps writing to its own canvas, and readers like the display, exporters and
+ * statistics read snapshots instead, so they never see a half written canvas and never block
+ * the chaos game.
+ * Snapshots are reference counted. The publisher holds one reference until it publishes the
+ * next snapshot, and every reader retains its own while reading. When the last reference is
+ * released, the storage is returned to the {@link CanvasPool}.
+ *
+ * @version 1.3
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class CanvasSnapshot implements AutoCloseable {
+  private final CanvasStorageType type;
+  private final CanvasStorage storage;
+  private final Vector minCoords;
+  private final Vector maxCoords;
+  private final long generation;
+  private final CanvasStatistics statistics;
+  private final ColorBuffer colors;
+  private final AtomicInteger references;
+  private volatile CanvasPyramid pyramid;
+
+  /**
+   * Constructs a new snapshot of the given storage, with one reference held by the publisher.
+   * The storage must not be written after it is given to the snapshot.
+   *
+   * @param type the type the storage was created as
+   * @param storage the storage holding the pixels of the snapshot
+   * @param minCoords the minimum coordinates of the canvas
+   * @param maxCoords the maximum coordinates of the canvas
+   * @param generation the number of the snapshot, increasing with every publish
+   * @param statistics the statistics of the pixels, not changed after publishing
+   * @since 1.1
+   */
+  public CanvasSnapshot(
+      CanvasStorageType type, CanvasStorage storage,
+      Vector minCoords, Vector maxCoords, long generation, CanvasStatistics statistics
+  ) {
+    this(type, storage, minCoords, maxCoords, generation, statistics, null);
+  }
+
+  /**
+   * Constructs a new snapshot of the given storage and color channels, with one reference held
+   * by the publisher. Neither may be written after they are given to the snapshot.
+   *
+   * @param type the type the storage was created as
+   * @param storage the storage holding the pixels of the snapshot
+   * @param minCoords the minimum coordinates of the canvas
+   * @param maxCoords the maximum coordinates of the canvas
+   * @param generation the number of the snapshot, increasing with every publish
+   * @param statistics the statistics of the pixels, not changed after publishing
+   * @param colors the color channels of the same size as the storage, or null if the chaos game
+   *     was not colored by transforms
+   * @since 1.3
+   */
+  public CanvasSnapshot(
+      CanvasStorageType type, CanvasStorage storage, Vector minCoords, Vector maxCoords,
+      long generation, CanvasStatistics statistics, ColorBuffer colors
+  ) {
+    this.type = type;
+    this.storage = storage;
+    // Copied, the coordinates of a description are edited in place
+    this.minCoords = new Vector(minCoords.getElement(0), minCoords.getElement(1));
+    this.maxCoords = new Vector(maxCoords.getElement(0), maxCoords.getElement(1));
+    this.generation = generation;
+    this.statistics = statistics;
+    this.colors = colors;
+    this.references = new AtomicInteger(1);
+  }
+
+  /**
+   * Retains another reference to this snapshot, unless it is already released.
+   *
+   * @return true if the snapshot was retained, false if its storage is already returned
+   * @since 1.0
+   */
+  public boolean tryRetain() {
+    int count = references.get();
+    while (count > 0) {
+      if (references.compareAndSet(count, count + 1)) {
+        return true;
+      }
+      count = references.get();
+    }
+    return false;
+  }
+
+  /**
+   * Releases a reference to this snapshot. The last release returns the storage to the pool.
+   *
+   * @since 1.0
+   */
+  public void release() {
+    if (references.decrementAndGet() == 0) {
+      CanvasPool.getInstance().release(type, storage);
+    }
+  }
+
+  /**
+   * Releases the reference of the reader, so snapshots can be read in try-with-resources.
+   *
+   * @since 1.0
+   */
+  @Override
+  public void close() {
+    release();
+  }
+
+  /**
+   * Returns the width of the snapshot, the number of columns.
+   *
+   * @return the width of the snapshot
+   * @since 1.0
+   */
+  public int getWidth() {
+    return storage.getWidth();
+  }
+
+  /**
+   * Returns the height of the snapshot, the number of rows.
+   *
+   * @return the height of the snapshot
+   * @since 1.0
+   */
+  public int getHeight() {
+    return storage.getHeight();
+  }
+
+  /**
+   * Returns the value of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the value of the pixel
+   * @since 1.0
+   */
+  public double get(int row, int column) {
+    return storage.get(row, column);
+  }
+
+  /**
+   * Calls the given visitor for every pixel that is not zero.
+   *
+   * @param visitor the visitor to call for each pixel
+   * @see CanvasStorage#forEachNonZero(CanvasStorage.PixelVisitor)
+   * @since 1.0
+   */
+  public void forEachNonZero(CanvasStorage.PixelVisitor visitor) {
+    storage.forEachNonZero(visitor);
+  }
+
+  /**
+   * Returns the minimum coordinates of the canvas when the snapshot was published.
+   *
+   * @return a copy of the minimum coordinates
+   * @since 1.0
+   */
+  public Vector getMinCoords() {
+    return new Vector(minCoords.getElement(0), minCoords.getElement(1));
+  }
+
+  /**
+   * Returns the maximum coordinates of the canvas when the snapshot was published.
+   *
+   * @return a copy of the maximum coordinates
+   * @since 1.0
+   */
+  public Vector getMaxCoords() {
+    return new Vector(maxCoords.getElement(0), maxCoords.getElement(1));
+  }
+
+  /**
+   * Returns the statistics of the pixels of the snapshot, for normalizing colors without
+   * scanning the pixels.
+   *
+   * @return the statistics of the snapshot
+   * @since 1.1
+   */
+  public CanvasStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Returns the color channels of the snapshot, with the average color index of the
+   * transforms that hit each pixel.
+   *
+   * @return the color channels, or null if the chaos game was not colored by transforms
+   * @since 1.3
+   */
+  public ColorBuffer getColors() {
+    return colors;
+  }
+
+  /**
+   * Returns the pyramid of the pixels of the snapshot at halving resolutions.
+   * The pyramid is built on the first call, and shared by every later reader of the snapshot.
+   * It reads the storage of the snapshot, so it must only be used while the snapshot is
+   * retained.
+   *
+   * @return the pyramid of the snapshot
+   * @since 1.2
+   */
+  public CanvasPyramid getPyramid() {
+    CanvasPyramid result = pyramid;
+    if (result == null) {
+      synchronized (this) {
+        result = pyramid;
+        if (result == null) {
+          result = new CanvasPyramid(storage);
+          pyramid = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of the snapshot. Later snapshots of the same chaos game have higher
+   * numbers.
+   *
+   * @return the generation of the snapshot
+   * @since 1.0
+   */
+  public long getGeneration() {
+    return generation;
+  }
+}
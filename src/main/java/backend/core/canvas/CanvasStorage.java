@@ -0,0 +1,139 @@
+package backend.core.canvas;
+
+/**
+ * Represents the storage of the pixel values of a chaos canvas.
+ * Pixels are addressed by row and column, like the canvas array.
+ * Storages may hold memory outside the heap, and should be closed when no longer used.
+ *
+ * @version 1.2
+ * @author proggang
+ * @since 19.10.2026
+ */
+public interface CanvasStorage extends AutoCloseable {
+
+  /**
+   * Returns the width of the storage, the number of columns.
+   *
+   * @return the width of the storage
+   * @since 1.0
+   */
+  int getWidth();
+
+  /**
+   * Returns the height of the storage, the number of rows.
+   *
+   * @return the height of the storage
+   * @since 1.0
+   */
+  int getHeight();
+
+  /**
+   * Returns the value of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the value of the pixel
+   * @since 1.0
+   */
+  double get(int row, int column);
+
+  /**
+   * Sets the value of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param value the new value of the pixel
+   * @since 1.0
+   */
+  void set(int row, int column, double value);
+
+  /**
+   * Adds the given value to the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param value the value to add
+   * @return the new value of the pixel
+   * @since 1.0
+   */
+  double add(int row, int column, double value);
+
+  /**
+   * Sets every pixel to zero.
+   *
+   * @since 1.0
+   */
+  void clear();
+
+  /**
+   * Returns the pixel values as an array of rows.
+   * Storages on the heap may return their own array, others return a copy.
+   *
+   * @return the pixel values, indexed by row and column
+   * @since 1.0
+   */
+  double[][] toArray();
+
+  /**
+   * Calls the given visitor for every pixel that is not zero, row by row unless the storage
+   * orders its pixels differently.
+   * Storages that know where their pixels are, like sparse storages, skip the empty areas.
+   *
+   * @param visitor the visitor to call for each pixel
+   * @since 1.1
+   */
+  default void forEachNonZero(PixelVisitor visitor) {
+    for (int row = 0; row < getHeight(); row++) {
+      for (int column = 0; column < getWidth(); column++) {
+        double value = get(row, column);
+        if (value != 0) {
+          visitor.visit(row, column, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies every pixel of this storage to the given storage of the same size.
+   * Pixels of the target that are zero here are cleared.
+   *
+   * @param target the storage to copy to
+   * @throws IllegalArgumentException if the sizes of the storages differ
+   * @since 1.2
+   */
+  default void copyTo(CanvasStorage target) throws IllegalArgumentException {
+    if (target.getWidth() != getWidth() || target.getHeight() != getHeight()) {
+      throw new IllegalArgumentException("The storages must have the same size");
+    }
+    target.clear();
+    forEachNonZero(target::set);
+  }
+
+  /**
+   * Releases the memory held by this storage. The storage can not be used after closing.
+   * Closing a storage more than once does nothing.
+   *
+   * @since 1.0
+   */
+  @Override
+  void close();
+
+  /**
+   * Represents a visitor of the pixels of a storage.
+   *
+   * @since 1.1
+   */
+  @FunctionalInterface
+  interface PixelVisitor {
+
+    /**
+     * Visits a single pixel.
+     *
+     * @param row the row of the pixel
+     * @param column the column of the pixel
+     * @param value the value of the pixel
+     * @since 1.1
+     */
+    void visit(int row, int column, double value);
+  }
+}
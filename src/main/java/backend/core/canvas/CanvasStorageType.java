@@ -0,0 +1,128 @@
+package backend.core.canvas;
+
+/**
+ * Represents the kinds of storage a chaos canvas can keep its pixels in.
+ *
+ * @version 1.4
+ * @author proggang
+ * @since 19.10.2026
+ */
+public enum CanvasStorageType {
+  /**
+   * One array per row on the heap, the fastest for normal canvas sizes.
+   */
+  HEAP {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new HeapCanvasStorage(width, height);
+    }
+  },
+  /**
+   * Direct memory outside the heap, for very large canvases.
+   */
+  OFF_HEAP {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new OffHeapCanvasStorage(width, height);
+    }
+  },
+  /**
+   * A temporary file mapped into memory, for canvases larger than the available memory.
+   */
+  FILE_MAPPED {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return OffHeapCanvasStorage.mapped(width, height);
+    }
+  },
+  /**
+   * Tiles allocated on their first hit, for very large canvases of thin attractors.
+   */
+  SPARSE {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new SparseTileCanvasStorage(width, height);
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+      // An empty sparse storage holds no tiles
+      return 0;
+    }
+  },
+  /**
+   * A single array in tiled Morton order, keeping pixels that are close in both directions
+   * close in memory.
+   */
+  MORTON {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new MortonCanvasStorage(width, height);
+    }
+  },
+  /**
+   * Exact 32-bit hit counters, half the memory of the heap storage.
+   */
+  COUNTERS_32 {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new CounterCanvasStorage(width, height, CounterEncoding.INT32);
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+      return (long) width * height * CounterEncoding.INT32.getBytesPerPixel();
+    }
+  },
+  /**
+   * Exact 16-bit hit counters saturating at 65535 hits, a quarter of the memory.
+   */
+  COUNTERS_16 {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new CounterCanvasStorage(width, height, CounterEncoding.SATURATING16);
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+      return (long) width * height * CounterEncoding.SATURATING16.getBytesPerPixel();
+    }
+  },
+  /**
+   * Approximate 8-bit logarithmic hit counters, an eighth of the memory.
+   */
+  COUNTERS_LOG8 {
+    @Override
+    public CanvasStorage create(int width, int height) {
+      return new CounterCanvasStorage(width, height, CounterEncoding.LOG8);
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+      return (long) width * height * CounterEncoding.LOG8.getBytesPerPixel();
+    }
+  };
+
+  /**
+   * Creates a new, empty storage of this type with the given width and height.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @return the new storage
+   * @since 1.0
+   */
+  public abstract CanvasStorage create(int width, int height);
+
+  /**
+   * Returns the number of bytes an empty storage of this type with the given width and height
+   * holds, used to bound the memory of pooled storages.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @return the estimated size of the storage in bytes
+   * @since 1.4
+   */
+  public long estimateBytes(int width, int height) {
+    return (long) width * height * Double.BYTES;
+  }
+}
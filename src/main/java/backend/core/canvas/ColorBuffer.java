@@ -0,0 +1,324 @@
+package backend.core.canvas;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Represents the color channels of a canvas, for coloring by the transforms that hit a pixel
+ * instead of by density alone, like flames.
+ * Every pixel keeps the number of hits and the sum of the color indices of the hits, as two
+ * interleaved floats, so the average color index of a pixel is one division and both values
+ * share a cache line. The buffer takes 8 bytes per pixel, the same as a heap canvas.
+ * Floats count hits exactly up to 2 to the power of 24 per pixel.
+ * Many walkers can write to the same buffer at once through their own {@link Batch}. The buffer
+ * is split into bands of pixels, each with its own lock, and a batch merges its hits one band at
+ * a time, so walkers rarely wait for each other.
+ *
+ * @version 1.1
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class ColorBuffer {
+  // Buffers with more pixels are cleared by several threads
+  private static final int PARALLEL_CLEAR_PIXELS = 1 << 20;
+  private static final int MAX_BANDS = 64;
+  private static final int BATCH_SIZE = 4096;
+
+  private final int width;
+  private final int height;
+  // The hits and the color sum of each pixel, row by row
+  private final float[] channels;
+  private final int bandShift;
+  private final ReentrantLock[] bandLocks;
+
+  /**
+   * Constructs a new, empty color buffer with the given width and height.
+   *
+   * @param width the width of the buffer
+   * @param height the height of the buffer
+   * @throws IllegalArgumentException if the width or height is not positive, or if the buffer
+   *     is too large for a single array
+   * @since 1.0
+   */
+  public ColorBuffer(int width, int height) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    long size = (long) width * height * 2;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The canvas is too large for a color buffer");
+    }
+    this.width = width;
+    this.height = height;
+    this.channels = new float[(int) size];
+
+    int shift = 0;
+    while ((((long) width * height - 1) >> shift) >= MAX_BANDS) {
+      shift++;
+    }
+    this.bandShift = shift;
+    this.bandLocks = new ReentrantLock[(int) (((long) width * height - 1) >> shift) + 1];
+    for (int band = 0; band < bandLocks.length; band++) {
+      bandLocks[band] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Returns the width of the buffer, the number of columns.
+   *
+   * @return the width of the buffer
+   * @since 1.0
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the buffer, the number of rows.
+   *
+   * @return the height of the buffer
+   * @since 1.0
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Adds hits with the given total color to the pixel at the given row and column.
+   * Not thread-safe, use a {@link Batch} for writing from several threads.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param hits the number of hits to add
+   * @param colorSum the sum of the color indices of the hits
+   * @since 1.0
+   */
+  public void add(int row, int column, double hits, double colorSum) {
+    int offset = (row * width + column) * 2;
+    channels[offset] += (float) hits;
+    channels[offset + 1] += (float) colorSum;
+  }
+
+  /**
+   * Returns the number of hits of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the number of hits
+   * @since 1.0
+   */
+  public double getHits(int row, int column) {
+    return channels[(row * width + column) * 2];
+  }
+
+  /**
+   * Returns the average color index of the hits of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the average color index, or 0 if the pixel is not hit
+   * @since 1.0
+   */
+  public double getColor(int row, int column) {
+    int offset = (row * width + column) * 2;
+    float hits = channels[offset];
+    return hits > 0 ? channels[offset + 1] / hits : 0;
+  }
+
+  /**
+   * Calls the given visitor with the number of hits of every pixel that is hit.
+   *
+   * @param visitor the visitor to call for each pixel
+   * @since 1.0
+   */
+  public void forEachNonZero(CanvasStorage.PixelVisitor visitor) {
+    for (int row = 0; row < height; row++) {
+      int offset = row * width * 2;
+      for (int column = 0; column < width; column++) {
+        float hits = channels[offset + column * 2];
+        if (hits != 0) {
+          visitor.visit(row, column, hits);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of this buffer, that is not changed by later hits.
+   *
+   * @return a copy of the buffer
+   * @since 1.0
+   */
+  public ColorBuffer copy() {
+    ColorBuffer copy = new ColorBuffer(width, height);
+    System.arraycopy(channels, 0, copy.channels, 0, channels.length);
+    return copy;
+  }
+
+  /**
+   * Returns a buffer of a fraction of the size of this one, where each block of pixels is summed
+   * into one, like the snapshot of a supersampled canvas.
+   *
+   * @param factor the number of pixels of this buffer per pixel of the result in each direction
+   * @return the reduced buffer
+   * @since 1.0
+   */
+  public ColorBuffer reduce(int factor) {
+    ColorBuffer result = new ColorBuffer(
+        Math.max(width / factor, 1), Math.max(height / factor, 1)
+    );
+    for (int row = 0; row < height; row++) {
+      int targetRow = Math.min(row / factor, result.height - 1);
+      for (int column = 0; column < width; column++) {
+        int offset = (row * width + column) * 2;
+        result.add(targetRow, Math.min(column / factor, result.width - 1),
+            channels[offset], channels[offset + 1]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Clears the buffer by filling it with zeros. Large buffers are cleared by several threads.
+   *
+   * @since 1.0
+   */
+  public void clear() {
+    if ((long) width * height >= PARALLEL_CLEAR_PIXELS) {
+      int rowLength = width * 2;
+      IntStream.range(0, height).parallel().forEach(row ->
+          Arrays.fill(channels, row * rowLength, (row + 1) * rowLength, 0));
+    } else {
+      Arrays.fill(channels, 0);
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the channels of this buffer.
+   *
+   * @return the size of the buffer in bytes
+   * @since 1.0
+   */
+  public long getAllocatedBytes() {
+    return (long) channels.length * Float.BYTES;
+  }
+
+  /**
+   * Returns a new batch for writing hits to this buffer from a single thread.
+   *
+   * @return a new, empty batch
+   * @since 1.0
+   */
+  public Batch createBatch() {
+    return new Batch();
+  }
+
+  /**
+   * Represents the hits of a single walker not yet merged into the buffer.
+   * Hits are collected in the batch and merged when it is full, sorted by band, so each band
+   * is locked once per merge and written in order. Every thread needs its own batch, and must
+   * flush it when done.
+   *
+   * @since 1.0
+   */
+  public final class Batch {
+    private final int[] indices;
+    private final float[] colors;
+    private final int[] sortedIndices;
+    private final float[] sortedColors;
+    private final int[] bandStarts;
+    private final boolean[] merged;
+    private int size;
+
+    private Batch() {
+      this.indices = new int[BATCH_SIZE];
+      this.colors = new float[BATCH_SIZE];
+      this.sortedIndices = new int[BATCH_SIZE];
+      this.sortedColors = new float[BATCH_SIZE];
+      this.bandStarts = new int[bandLocks.length + 1];
+      this.merged = new boolean[bandLocks.length];
+    }
+
+    /**
+     * Adds a hit with the given color index to the pixel at the given row and column, and
+     * merges the batch if it is full.
+     *
+     * @param row the row of the pixel
+     * @param column the column of the pixel
+     * @param color the color index of the hit
+     * @since 1.0
+     */
+    public void add(int row, int column, double color) {
+      indices[size] = row * width + column;
+      colors[size] = (float) color;
+      if (++size == BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    /**
+     * Merges the hits of the batch into the buffer, and empties the batch.
+     * Bands locked by other batches are skipped and merged after the free ones.
+     *
+     * @since 1.0
+     */
+    public void flush() {
+      // Counting sort of the hits by band
+      Arrays.fill(bandStarts, 0);
+      for (int i = 0; i < size; i++) {
+        bandStarts[(indices[i] >> bandShift) + 1]++;
+      }
+      for (int band = 0; band < bandLocks.length; band++) {
+        bandStarts[band + 1] += bandStarts[band];
+      }
+      for (int i = 0; i < size; i++) {
+        int position = bandStarts[indices[i] >> bandShift]++;
+        sortedIndices[position] = indices[i];
+        sortedColors[position] = colors[i];
+      }
+      // The starts were moved to the ends by the sort, so band b runs up to bandStarts[b]
+
+      int remaining = 0;
+      for (int band = 0; band < bandLocks.length; band++) {
+        if (hasHits(band)) {
+          remaining++;
+        }
+      }
+      Arrays.fill(merged, false);
+      for (boolean wait = false; remaining > 0; wait = true) {
+        for (int band = 0; band < bandLocks.length; band++) {
+          if (merged[band] || !hasHits(band)) {
+            continue;
+          }
+          ReentrantLock lock = bandLocks[band];
+          if (wait) {
+            lock.lock();
+          } else if (!lock.tryLock()) {
+            continue;
+          }
+          try {
+            mergeBand(band);
+          } finally {
+            lock.unlock();
+          }
+          merged[band] = true;
+          remaining--;
+        }
+      }
+      size = 0;
+    }
+
+    private boolean hasHits(int band) {
+      return bandStarts[band] > (band == 0 ? 0 : bandStarts[band - 1]);
+    }
+
+    private void mergeBand(int band) {
+      for (int i = band == 0 ? 0 : bandStarts[band - 1]; i < bandStarts[band]; i++) {
+        int offset = sortedIndices[i] * 2;
+        channels[offset] += 1;
+        channels[offset + 1] += sortedColors[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package backend.core.canvas;
+
+import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
+
+import java.util.Arrays;
+
+/**
+ * Represents a canvas storage of compact hit counters, in a single row-major array.
+ * Every pixel of a chaos game only counts hits, so instead of a double of 8 bytes, each pixel
+ * keeps a counter of 1 to 4 bytes in the chosen {@link CounterEncoding}.
+ * Values are given and returned in the same unit as the other storages, a multiple of the
+ * pixel hit incrementer, and converted to and from hit counts at the edges.
+ * Fractional hits, like the weighted hits of all-branch sampling, are rounded up or down at
+ * random, so the expected count stays exact.
+ * Like the heap storage, the storage is not thread-safe.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class CounterCanvasStorage implements CanvasStorage {
+  private static final int MAX_16 = 0xFFFF;
+  private static final int MAX_LOG8 = 0xFF;
+
+  // Base of the logarithmic counters, a counter of 255 stands for about 4 billion hits
+  private static final double LOG_BASE = 1.08;
+
+  // The estimated hit count of each logarithmic counter, and its chance to be incremented
+  private static final double[] LOG_COUNTS = new double[MAX_LOG8 + 1];
+  private static final double[] LOG_PROBABILITIES = new double[MAX_LOG8 + 1];
+
+  static {
+    for (int v = 0; v <= MAX_LOG8; v++) {
+      LOG_COUNTS[v] = (Math.pow(LOG_BASE, v) - 1) / (LOG_BASE - 1);
+      LOG_PROBABILITIES[v] = Math.pow(LOG_BASE, -v);
+    }
+    // A full counter is never incremented
+    LOG_PROBABILITIES[MAX_LOG8] = 0;
+  }
+
+  private final int width;
+  private final int height;
+  private final CounterEncoding encoding;
+
+  // Only the array of the encoding is allocated
+  private final int[] counts32;
+  private final char[] counts16;
+  private final byte[] counts8;
+
+  private long randomState;
+
+  /**
+   * Constructs a new counter storage with the given width, height and encoding.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @param encoding the encoding of the counters
+   * @throws IllegalArgumentException if the width or height is not positive, if the encoding is
+   *     null, or if the storage is too large for a single array
+   * @since 1.0
+   */
+  public CounterCanvasStorage(int width, int height, CounterEncoding encoding)
+      throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    if (encoding == null) {
+      throw new IllegalArgumentException("The encoding cannot be null");
+    }
+    long size = (long) width * height;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The canvas is too large for a counter storage");
+    }
+    this.width = width;
+    this.height = height;
+    this.encoding = encoding;
+    this.counts32 = encoding == CounterEncoding.INT32 ? new int[(int) size] : null;
+    this.counts16 = encoding == CounterEncoding.SATURATING16 ? new char[(int) size] : null;
+    this.counts8 = encoding == CounterEncoding.LOG8 ? new byte[(int) size] : null;
+    this.randomState = 0x9E3779B97F4A7C15L;
+  }
+
+  /**
+   * Returns the encoding of the counters.
+   *
+   * @return the encoding of this storage
+   * @since 1.0
+   */
+  public CounterEncoding getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * Returns the number of bytes held by the counters.
+   *
+   * @return the size of the counters in bytes
+   * @since 1.0
+   */
+  public long getAllocatedBytes() {
+    return (long) width * height * encoding.getBytesPerPixel();
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the hit count of the pixel at the given row and column.
+   * Logarithmic counters return the estimated count.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the hit count of the pixel
+   * @since 1.0
+   */
+  public double getCount(int row, int column) {
+    checkBounds(row, column);
+    return decode(row * width + column);
+  }
+
+  @Override
+  public double get(int row, int column) {
+    return getCount(row, column) * PIXEL_HIT_INCREMENTER;
+  }
+
+  /**
+   * Sets the value of the pixel at the given row and column.
+   * The value is rounded to the nearest count the encoding can hold.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param value the new value of the pixel
+   * @throws IllegalArgumentException if the value is negative
+   * @since 1.0
+   */
+  @Override
+  public void set(int row, int column, double value) throws IllegalArgumentException {
+    checkBounds(row, column);
+    if (value < 0) {
+      throw new IllegalArgumentException("Hit counters cannot be negative");
+    }
+    int index = row * width + column;
+    double hits = value / PIXEL_HIT_INCREMENTER;
+    switch (encoding) {
+      case INT32 -> counts32[index] = (int) Math.min(Math.round(hits), Integer.MAX_VALUE);
+      case SATURATING16 -> counts16[index] = (char) Math.min(Math.round(hits), MAX_16);
+      case LOG8 -> counts8[index] = (byte) Math.min(
+          Math.round(Math.log1p(hits * (LOG_BASE - 1)) / Math.log(LOG_BASE)), MAX_LOG8);
+    }
+  }
+
+  /**
+   * Adds the given value to the pixel at the given row and column.
+   * Counters saturate at the largest count they can hold.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param value the value to add
+   * @return the new value of the pixel
+   * @throws IllegalArgumentException if the value is negative
+   * @since 1.0
+   */
+  @Override
+  public double add(int row, int column, double value) throws IllegalArgumentException {
+    checkBounds(row, column);
+    if (value < 0) {
+      throw new IllegalArgumentException("Hit counters cannot be negative");
+    }
+    int index = row * width + column;
+    double exactHits = value / PIXEL_HIT_INCREMENTER;
+    long hits = (long) exactHits;
+    if (exactHits != hits && nextDouble() < exactHits - hits) {
+      hits++;
+    }
+
+    switch (encoding) {
+      case INT32 -> counts32[index] = (int) Math.min(counts32[index] + hits, Integer.MAX_VALUE);
+      case SATURATING16 -> counts16[index] = (char) Math.min(counts16[index] + hits, MAX_16);
+      case LOG8 -> {
+        int counter = counts8[index] & MAX_LOG8;
+        for (long hit = 0; hit < hits && counter < MAX_LOG8; hit++) {
+          if (nextDouble() < LOG_PROBABILITIES[counter]) {
+            counter++;
+          }
+        }
+        counts8[index] = (byte) counter;
+      }
+    }
+    return decode(index) * PIXEL_HIT_INCREMENTER;
+  }
+
+  @Override
+  public void clear() {
+    switch (encoding) {
+      case INT32 -> Arrays.fill(counts32, 0);
+      case SATURATING16 -> Arrays.fill(counts16, (char) 0);
+      case LOG8 -> Arrays.fill(counts8, (byte) 0);
+    }
+  }
+
+  /**
+   * Returns a copy of the pixel values, converted from the counters.
+   *
+   * @return the pixel values, indexed by row and column
+   * @since 1.0
+   */
+  @Override
+  public double[][] toArray() {
+    double[][] result = new double[height][width];
+    forEachNonZero((row, column, value) -> result[row][column] = value);
+    return result;
+  }
+
+  @Override
+  public void forEachNonZero(PixelVisitor visitor) {
+    int index = 0;
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++, index++) {
+        double count = decode(index);
+        if (count != 0) {
+          visitor.visit(row, column, count * PIXEL_HIT_INCREMENTER);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release, the counters are collected with the storage
+  }
+
+  /**
+   * Returns the hit count held by the counter at the given index.
+   *
+   * @since 1.0
+   */
+  private double decode(int index) {
+    return switch (encoding) {
+      case INT32 -> counts32[index];
+      case SATURATING16 -> counts16[index];
+      case LOG8 -> LOG_COUNTS[counts8[index] & MAX_LOG8];
+    };
+  }
+
+  /**
+   * Returns a random number between 0 and 1 from a xorshift generator, which is much cheaper
+   * than a shared random generator for the many draws of the logarithmic counters.
+   *
+   * @since 1.0
+   */
+  private double nextDouble() {
+    randomState ^= randomState << 13;
+    randomState ^= randomState >>> 7;
+    randomState ^= randomState << 17;
+    return (randomState >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * Checks that the given row and column are inside the storage.
+   *
+   * @throws IndexOutOfBoundsException if the pixel is out of bounds
+   * @since 1.0
+   */
+  private void checkBounds(int row, int column) throws IndexOutOfBoundsException {
+    if (row < 0 || row >= height || column < 0 || column >= width) {
+      throw new IndexOutOfBoundsException("Pixel " + row + ", " + column + " is out of bounds");
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package backend.core.canvas;
+
+/**
+ * Represents the ways a {@link CounterCanvasStorage} can encode the hit count of a pixel.
+ * Smaller counters use less memory and fit more pixels in the cache, at the cost of range or
+ * precision.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public enum CounterEncoding {
+  /**
+   * Exact 32-bit counters, saturating at about 2 billion hits.
+   */
+  INT32(Integer.BYTES),
+  /**
+   * Exact 16-bit counters, saturating at 65535 hits.
+   * Enough for most pixels of normal renders, where only the densest pixels saturate.
+   */
+  SATURATING16(Character.BYTES),
+  /**
+   * Approximate 8-bit logarithmic counters.
+   * Each hit increments the counter with a probability that falls as the counter grows, so the
+   * counter holds the logarithm of the hit count. The estimate is unbiased, with a relative error
+   * of about 20%, which is hidden by the logarithmic colors of the canvas.
+   */
+  LOG8(Byte.BYTES);
+
+  private final int bytesPerPixel;
+
+  /**
+   * Constructs an encoding with the given size of each counter.
+   *
+   * @param bytesPerPixel the number of bytes of each counter
+   * @since 1.0
+   */
+  CounterEncoding(int bytesPerPixel) {
+    this.bytesPerPixel = bytesPerPixel;
+  }
+
+  /**
+   * Returns the number of bytes of each counter.
+   *
+   * @return the number of bytes per pixel
+   * @since 1.0
+   */
+  public int getBytesPerPixel() {
+    return bytesPerPixel;
+  }
+}
@@ -0,0 +1,204 @@
+package backend.core.canvas;
+
+import backend.geometry.Complex;
+import backend.geometry.Vector;
+import java.util.Arrays;
+
+/**
+ * Represents the escape times of the pixels of an inverse Julia render, with the viewport and
+ * the Julia constant they were computed for.
+ * Every pixel is sampled at its corner, the column at the minimum x plus the column times the
+ * pixel width, and the row down from the maximum y. Corner samples line up between views, so
+ * after a pan by whole pixels, or a zoom by a factor of 2 around the center, many pixels of the
+ * new view sample the same point as a pixel of the old one. Those are copied by
+ * {@link #reproject(EscapeTimeBuffer)} instead of iterated again, and only the rest is computed.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class EscapeTimeBuffer {
+  /**
+   * The escape time of a pixel that is not computed yet.
+   */
+  public static final int UNKNOWN = -1;
+  // Sample points closer than this share of a pixel are the same point
+  private static final double ALIGNMENT_TOLERANCE = 1e-6;
+
+  private final int width;
+  private final int height;
+  private final int[] escapeTimes;
+  private final double minX;
+  private final double maxY;
+  private final double pixelWidth;
+  private final double pixelHeight;
+  private final double constantReal;
+  private final double constantImaginary;
+  private final int power;
+
+  /**
+   * Constructs a new buffer of unknown escape times, for the given size, viewport and Julia
+   * constant.
+   *
+   * @param width the width of the buffer
+   * @param height the height of the buffer
+   * @param minCoords the minimum coordinates of the viewport
+   * @param maxCoords the maximum coordinates of the viewport
+   * @param constant the constant of the Julia transform
+   * @param power the power of the Julia transform
+   * @throws IllegalArgumentException if the width or height is not positive
+   * @since 1.0
+   */
+  public EscapeTimeBuffer(
+      int width, int height, Vector minCoords, Vector maxCoords, Complex constant, int power
+  ) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.escapeTimes = new int[width * height];
+    Arrays.fill(escapeTimes, UNKNOWN);
+
+    this.minX = minCoords.getElement(0);
+    this.maxY = maxCoords.getElement(1);
+    this.pixelWidth = (maxCoords.getElement(0) - minX) / width;
+    this.pixelHeight = (maxY - minCoords.getElement(1)) / height;
+    this.constantReal = constant.getElement(0);
+    this.constantImaginary = constant.getElement(1);
+    this.power = power;
+  }
+
+  /**
+   * Returns the width of the buffer, the number of columns.
+   *
+   * @return the width of the buffer
+   * @since 1.0
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the buffer, the number of rows.
+   *
+   * @return the height of the buffer
+   * @since 1.0
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the x coordinate sampled by the given column.
+   *
+   * @param column the column of the pixel
+   * @return the x coordinate of the pixel
+   * @since 1.0
+   */
+  public double getX(int column) {
+    return minX + column * pixelWidth;
+  }
+
+  /**
+   * Returns the y coordinate sampled by the given row. Rows go down from the maximum y.
+   *
+   * @param row the row of the pixel
+   * @return the y coordinate of the pixel
+   * @since 1.0
+   */
+  public double getY(int row) {
+    return maxY - row * pixelHeight;
+  }
+
+  /**
+   * Returns the escape time of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the escape time, 0 inside the Julia set, or {@link #UNKNOWN} if not computed
+   * @since 1.0
+   */
+  public int get(int row, int column) {
+    return escapeTimes[row * width + column];
+  }
+
+  /**
+   * Sets the escape time of the pixel at the given row and column.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @param escapeTime the escape time, 0 inside the Julia set
+   * @since 1.0
+   */
+  public void set(int row, int column, int escapeTime) {
+    escapeTimes[row * width + column] = escapeTime;
+  }
+
+  /**
+   * Copies the escape times of the given buffer to every pixel of this one that samples the
+   * same point, if both are of the same Julia transform. The rows and columns are matched
+   * separately, so the cost is one pass over the pixels, without iterating any.
+   *
+   * @param previous the buffer to reuse, may be null
+   * @return the number of pixels copied
+   * @since 1.0
+   */
+  public int reproject(EscapeTimeBuffer previous) {
+    if (previous == null
+        || previous.constantReal != constantReal
+        || previous.constantImaginary != constantImaginary
+        || previous.power != power) {
+      return 0;
+    }
+
+    int[] previousColumns = new int[width];
+    for (int column = 0; column < width; column++) {
+      previousColumns[column] = align(
+          (getX(column) - previous.minX) / previous.pixelWidth, previous.width
+      );
+    }
+
+    int reused = 0;
+    for (int row = 0; row < height; row++) {
+      int previousRow = align((previous.maxY - getY(row)) / previous.pixelHeight, previous.height);
+      if (previousRow < 0) {
+        continue;
+      }
+      int offset = row * width;
+      int previousOffset = previousRow * previous.width;
+      for (int column = 0; column < width; column++) {
+        if (previousColumns[column] >= 0) {
+          escapeTimes[offset + column] = previous.escapeTimes[previousOffset
+              + previousColumns[column]];
+          reused++;
+        }
+      }
+    }
+    return reused;
+  }
+
+  /**
+   * Returns the number of bytes of the escape times of this buffer.
+   *
+   * @return the size of the buffer in bytes
+   * @since 1.0
+   */
+  public long getAllocatedBytes() {
+    return (long) escapeTimes.length * Integer.BYTES;
+  }
+
+  /**
+   * Returns the given fractional index rounded, if it is a whole index below the given size,
+   * or -1 otherwise.
+   *
+   * @since 1.0
+   */
+  private static int align(double index, int size) {
+    double rounded = Math.rint(index);
+    if (Math.abs(index - rounded) > ALIGNMENT_TOLERANCE || rounded < 0 || rounded >= size) {
+      return -1;
+    }
+    return (int) rounded;
+  }
+}
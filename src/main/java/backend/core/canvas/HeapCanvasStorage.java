@@ -0,0 +1,127 @@
+package backend.core.canvas;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Represents a canvas storage on the heap, as one array per row.
+ * The default storage, suitable for canvases that fit comfortably in the heap.
+ *
+ * @version 1.3
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class HeapCanvasStorage implements CanvasStorage {
+  // Canvases with more pixels are cleared by several threads
+  private static final int PARALLEL_CLEAR_PIXELS = 1 << 20;
+
+  private final int width;
+  private final int height;
+  private final double[][] pixels;
+
+  /**
+   * Constructs a new heap storage with the given width and height.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @since 1.0
+   */
+  public HeapCanvasStorage(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.pixels = new double[height][width];
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public double get(int row, int column) {
+    return pixels[row][column];
+  }
+
+  @Override
+  public void set(int row, int column, double value) {
+    pixels[row][column] = value;
+  }
+
+  @Override
+  public double add(int row, int column, double value) {
+    return pixels[row][column] += value;
+  }
+
+  /**
+   * Sets every pixel to zero in place, without allocating.
+   * Large canvases are cleared one row per task on the common pool.
+   * Arrays returned by {@link #toArray()} are cleared as well.
+   *
+   * @since 1.2
+   */
+  @Override
+  public void clear() {
+    if ((long) width * height >= PARALLEL_CLEAR_PIXELS) {
+      IntStream.range(0, height).parallel().forEach(row -> Arrays.fill(pixels[row], 0));
+    } else {
+      for (double[] row : pixels) {
+        Arrays.fill(row, 0);
+      }
+    }
+  }
+
+  /**
+   * Returns the array of this storage, without copying.
+   *
+   * @return the pixel values, indexed by row and column
+   * @since 1.0
+   */
+  @Override
+  public double[][] toArray() {
+    return pixels;
+  }
+
+  @Override
+  public void forEachNonZero(PixelVisitor visitor) {
+    for (int row = 0; row < height; row++) {
+      double[] pixelRow = pixels[row];
+      for (int column = 0; column < width; column++) {
+        if (pixelRow[column] != 0) {
+          visitor.visit(row, column, pixelRow[column]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies every pixel of this storage to the given storage of the same size.
+   * Heap targets are copied row by row, without visiting single pixels.
+   *
+   * @param target the storage to copy to
+   * @throws IllegalArgumentException if the sizes of the storages differ
+   * @since 1.3
+   */
+  @Override
+  public void copyTo(CanvasStorage target) throws IllegalArgumentException {
+    if (!(target instanceof HeapCanvasStorage heap)) {
+      CanvasStorage.super.copyTo(target);
+      return;
+    }
+    if (heap.width != width || heap.height != height) {
+      throw new IllegalArgumentException("The storages must have the same size");
+    }
+    for (int row = 0; row < height; row++) {
+      System.arraycopy(pixels[row], 0, heap.pixels[row], 0, width);
+    }
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release, the array is collected with the storage
+  }
+}
@@ -0,0 +1,200 @@
+package backend.core.canvas;
+
+import java.util.Arrays;
+
+/**
+ * Represents a canvas storage in tiled Morton order, in a single array on the heap.
+ * The canvas is split into square blocks stored one after another, and the pixels within a
+ * block follow the Z-shaped Morton curve, which interleaves the bits of the row and column.
+ * Pixels close to each other in both directions are close in memory, so the writes of a
+ * chaos game that stays in one area of the attractor hit fewer cache lines and memory pages
+ * than with one array per row.
+ * Like the heap storage, the storage is not thread-safe.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class MortonCanvasStorage implements CanvasStorage {
+  static final int BLOCK_SHIFT = 6;
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+  private static final int BLOCK_PIXELS_SHIFT = 2 * BLOCK_SHIFT;
+
+  // The bits of a coordinate within a block, spread to every other bit
+  private static final int[] SPREAD = new int[BLOCK_SIZE];
+
+  static {
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      int spread = 0;
+      for (int bit = 0; bit < BLOCK_SHIFT; bit++) {
+        spread |= ((i >> bit) & 1) << (2 * bit);
+      }
+      SPREAD[i] = spread;
+    }
+  }
+
+  private final int width;
+  private final int height;
+  private final int blockColumns;
+  private final double[] pixels;
+
+  /**
+   * Constructs a new Morton storage with the given width and height.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @throws IllegalArgumentException if the width or height is not positive, or if the
+   *     storage is too large for a single array
+   * @since 1.0
+   */
+  public MortonCanvasStorage(int width, int height) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.blockColumns = (width + BLOCK_MASK) >> BLOCK_SHIFT;
+    long blockRows = (height + BLOCK_MASK) >> BLOCK_SHIFT;
+
+    long size = blockRows * blockColumns << BLOCK_PIXELS_SHIFT;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The canvas is too large for a Morton storage");
+    }
+    this.pixels = new double[(int) size];
+  }
+
+  /**
+   * Returns the index of the pixel at the given row and column in the array.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the index of the pixel
+   * @since 1.0
+   */
+  int encode(int row, int column) {
+    int block = (row >> BLOCK_SHIFT) * blockColumns + (column >> BLOCK_SHIFT);
+    return block << BLOCK_PIXELS_SHIFT
+        | SPREAD[row & BLOCK_MASK] << 1
+        | SPREAD[column & BLOCK_MASK];
+  }
+
+  /**
+   * Returns the row of the pixel at the given index in the array.
+   *
+   * @param index the index of the pixel
+   * @return the row of the pixel
+   * @since 1.0
+   */
+  int decodeRow(int index) {
+    int block = index >>> BLOCK_PIXELS_SHIFT;
+    return (block / blockColumns) << BLOCK_SHIFT | compact(index >> 1);
+  }
+
+  /**
+   * Returns the column of the pixel at the given index in the array.
+   *
+   * @param index the index of the pixel
+   * @return the column of the pixel
+   * @since 1.0
+   */
+  int decodeColumn(int index) {
+    int block = index >>> BLOCK_PIXELS_SHIFT;
+    return (block % blockColumns) << BLOCK_SHIFT | compact(index);
+  }
+
+  /**
+   * Gathers every other bit of the Morton code within a block, the inverse of spreading.
+   *
+   * @since 1.0
+   */
+  private static int compact(int code) {
+    int x = code & 0x555;
+    x = (x | (x >> 1)) & 0x333;
+    x = (x | (x >> 2)) & 0x0F0F;
+    x = (x | (x >> 4)) & 0x00FF;
+    return x & BLOCK_MASK;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public double get(int row, int column) {
+    checkBounds(row, column);
+    return pixels[encode(row, column)];
+  }
+
+  @Override
+  public void set(int row, int column, double value) {
+    checkBounds(row, column);
+    pixels[encode(row, column)] = value;
+  }
+
+  @Override
+  public double add(int row, int column, double value) {
+    checkBounds(row, column);
+    return pixels[encode(row, column)] += value;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(pixels, 0);
+  }
+
+  /**
+   * Returns a row-major copy of the pixel values, for displaying.
+   * The array is read in its own order, one block at a time.
+   *
+   * @return the pixel values, indexed by row and column
+   * @since 1.0
+   */
+  @Override
+  public double[][] toArray() {
+    double[][] result = new double[height][width];
+    forEachNonZero((row, column, value) -> result[row][column] = value);
+    return result;
+  }
+
+  /**
+   * Calls the given visitor for every pixel that is not zero, in Morton order.
+   *
+   * @param visitor the visitor to call for each pixel
+   * @since 1.0
+   */
+  @Override
+  public void forEachNonZero(PixelVisitor visitor) {
+    for (int index = 0; index < pixels.length; index++) {
+      if (pixels[index] != 0) {
+        // Only pixels inside the canvas are ever written
+        visitor.visit(decodeRow(index), decodeColumn(index), pixels[index]);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release, the array is collected with the storage
+  }
+
+  /**
+   * Checks that the given row and column are inside the storage. Without the check, pixels
+   * outside the canvas would land in the padding of the edge blocks.
+   *
+   * @throws IndexOutOfBoundsException if the pixel is out of bounds
+   * @since 1.0
+   */
+  private void checkBounds(int row, int column) throws IndexOutOfBoundsException {
+    if (row < 0 || row >= height || column < 0 || column >= width) {
+      throw new IndexOutOfBoundsException("Pixel " + row + ", " + column + " is out of bounds");
+    }
+  }
+}
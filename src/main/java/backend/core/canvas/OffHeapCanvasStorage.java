@@ -0,0 +1,267 @@
+package backend.core.canvas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Represents a canvas storage outside the heap, in direct or file-mapped memory.
+ * Large canvases do not count towards the heap, and do not slow down garbage collection.
+ * The pixels are stored in chunks of whole rows, since a single buffer holds at most 2 GB.
+ * Closing the storage releases the memory right away, instead of when the garbage collector
+ * finds the buffers.
+ * Like the heap storage, the storage is not thread-safe.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class OffHeapCanvasStorage implements CanvasStorage {
+  private static final long CHUNK_BYTES = 1L << 30;
+
+  private final int width;
+  private final int height;
+  private final int rowsPerChunk;
+  private final Path file;
+  private ByteBuffer[] buffers;
+  private DoubleBuffer[] chunks;
+
+  /**
+   * Constructs a new storage in direct memory with the given width and height.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @throws IllegalArgumentException if the width or height is not positive, or if a single
+   *     row does not fit in a chunk
+   * @since 1.0
+   */
+  public OffHeapCanvasStorage(int width, int height) throws IllegalArgumentException {
+    this(width, height, null);
+  }
+
+  /**
+   * Constructs a new storage with the given width and height, mapped to the given file.
+   * The file is used as scratch space, and is deleted when the storage is closed.
+   * If the file is null, the storage is kept in direct memory instead.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @param file the file to map the storage to, or null for direct memory
+   * @throws IllegalArgumentException if the width or height is not positive, or if a single
+   *     row does not fit in a chunk
+   * @throws UncheckedIOException if the file can not be mapped
+   * @since 1.0
+   */
+  public OffHeapCanvasStorage(int width, int height, Path file)
+      throws IllegalArgumentException, UncheckedIOException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    if ((long) width * Double.BYTES > CHUNK_BYTES) {
+      throw new IllegalArgumentException("The width is too large for a single chunk");
+    }
+    this.width = width;
+    this.height = height;
+    this.file = file;
+    this.rowsPerChunk = (int) Math.min(height, CHUNK_BYTES / ((long) width * Double.BYTES));
+
+    int chunkCount = (height + rowsPerChunk - 1) / rowsPerChunk;
+    buffers = new ByteBuffer[chunkCount];
+    chunks = new DoubleBuffer[chunkCount];
+
+    if (file == null) {
+      for (int c = 0; c < chunkCount; c++) {
+        buffers[c] = ByteBuffer.allocateDirect(getChunkBytes(c));
+      }
+    } else {
+      mapFile(chunkCount);
+    }
+    for (int c = 0; c < chunkCount; c++) {
+      chunks[c] = buffers[c].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+  }
+
+  /**
+   * Creates a storage mapped to a new temporary file.
+   *
+   * @param width the width of the storage
+   * @param height the height of the storage
+   * @return the file-mapped storage
+   * @throws UncheckedIOException if the file can not be created or mapped
+   * @since 1.0
+   */
+  public static OffHeapCanvasStorage mapped(int width, int height) throws UncheckedIOException {
+    try {
+      return new OffHeapCanvasStorage(width, height, Files.createTempFile("canvas", ".bin"));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not create the canvas file", e);
+    }
+  }
+
+  /**
+   * Maps every chunk to its own region of the file. The file grows to fit the chunks, and
+   * new regions of the file are filled with zeros.
+   *
+   * @param chunkCount the number of chunks to map
+   * @throws UncheckedIOException if the file can not be mapped
+   * @since 1.0
+   */
+  private void mapFile(int chunkCount) throws UncheckedIOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // Start from an empty file, so every pixel starts at zero
+      channel.truncate(0);
+      long position = 0;
+      for (int c = 0; c < chunkCount; c++) {
+        buffers[c] = channel.map(FileChannel.MapMode.READ_WRITE, position, getChunkBytes(c));
+        position += getChunkBytes(c);
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException("Could not map the canvas file " + file, e);
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the given chunk. The last chunk may hold fewer rows.
+   *
+   * @param chunk the index of the chunk
+   * @return the number of bytes of the chunk
+   * @since 1.0
+   */
+  private int getChunkBytes(int chunk) {
+    int rows = Math.min(rowsPerChunk, height - chunk * rowsPerChunk);
+    return rows * width * Double.BYTES;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public double get(int row, int column) {
+    return chunks[row / rowsPerChunk].get(getIndex(row, column));
+  }
+
+  @Override
+  public void set(int row, int column, double value) {
+    chunks[row / rowsPerChunk].put(getIndex(row, column), value);
+  }
+
+  @Override
+  public double add(int row, int column, double value) {
+    DoubleBuffer chunk = chunks[row / rowsPerChunk];
+    int index = getIndex(row, column);
+    double result = chunk.get(index) + value;
+    chunk.put(index, result);
+    return result;
+  }
+
+  /**
+   * Returns the index of the pixel within its chunk.
+   *
+   * @param row the row of the pixel
+   * @param column the column of the pixel
+   * @return the index of the pixel in its chunk
+   * @throws IndexOutOfBoundsException if the column is out of bounds
+   * @since 1.0
+   */
+  private int getIndex(int row, int column) throws IndexOutOfBoundsException {
+    if (column < 0 || column >= width) {
+      throw new IndexOutOfBoundsException("Column " + column + " is out of bounds");
+    }
+    return (row % rowsPerChunk) * width + column;
+  }
+
+  @Override
+  public void clear() {
+    double[] zeros = new double[width];
+    for (int row = 0; row < height; row++) {
+      chunks[row / rowsPerChunk].put(getIndex(row, 0), zeros);
+    }
+  }
+
+  /**
+   * Returns a copy of the pixel values on the heap.
+   * For very large storages, prefer reading single pixels with {@link #get(int, int)}.
+   *
+   * @return the pixel values, indexed by row and column
+   * @since 1.0
+   */
+  @Override
+  public double[][] toArray() {
+    double[][] result = new double[height][width];
+    for (int row = 0; row < height; row++) {
+      chunks[row / rowsPerChunk].get(getIndex(row, 0), result[row]);
+    }
+    return result;
+  }
+
+  /**
+   * Releases the memory of this storage right away, and deletes the mapped file.
+   * Reading or writing pixels after closing throws a {@link NullPointerException},
+   * instead of touching released memory.
+   *
+   * @since 1.0
+   */
+  @Override
+  public void close() {
+    if (buffers == null) {
+      return;
+    }
+    ByteBuffer[] released = buffers;
+    chunks = null;
+    buffers = null;
+
+    for (ByteBuffer buffer : released) {
+      if (buffer != null) {
+        free(buffer);
+      }
+    }
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        Logger.getLogger(OffHeapCanvasStorage.class.getName())
+            .warning("Could not delete the canvas file " + file + ". " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Releases the memory of the given direct or mapped buffer.
+   * If the memory can not be released, it is left to the garbage collector.
+   *
+   * @param buffer the buffer to release
+   * @since 1.0
+   */
+  private static void free(ByteBuffer buffer) {
+    try {
+      // Looked up reflectively, sun.misc.Unsafe is not part of the public API
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      invokeCleaner.invoke(field.get(null), buffer);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      Logger.getLogger(OffHeapCanvasStorage.class.getName())
+          .warning("Could not release the canvas memory, leaving it to the garbage collector. "
+              + e.getMessage());
+    }
+  }
+}
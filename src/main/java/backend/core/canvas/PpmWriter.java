@@ -0,0 +1,116 @@
+package backend.core.canvas;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Represents a streaming writer of binary PPM images.
+ * Rows are written from top to bottom as they are produced, so images much larger than the
+ * available memory can be written one part at a time.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class PpmWriter implements AutoCloseable {
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int width;
+  private final int height;
+  private int rowsWritten;
+
+  /**
+   * Constructs a new writer, and writes the header of the image to the given file.
+   * An existing file is overwritten.
+   *
+   * @param path the path of the image file
+   * @param width the width of the image
+   * @param height the height of the image
+   * @throws IOException if the file can not be written
+   * @throws IllegalArgumentException if the width or height is not positive
+   * @since 1.0
+   */
+  public PpmWriter(Path path, int width, int height)
+      throws IOException, IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_BYTES, width * 3));
+
+    buffer.put(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Writes the next row of the image.
+   *
+   * @param rgb the colors of the row, as 0xRRGGBB integers
+   * @param offset the index of the first pixel of the row in the array
+   * @throws IOException if the file can not be written
+   * @throws IllegalStateException if every row is already written
+   * @since 1.0
+   */
+  public void writeRow(int[] rgb, int offset) throws IOException, IllegalStateException {
+    if (rowsWritten >= height) {
+      throw new IllegalStateException("Every row of the image is already written");
+    }
+    if (buffer.remaining() < width * 3) {
+      flush();
+    }
+    for (int x = 0; x < width; x++) {
+      int color = rgb[offset + x];
+      buffer.put((byte) (color >> 16));
+      buffer.put((byte) (color >> 8));
+      buffer.put((byte) color);
+    }
+    rowsWritten++;
+  }
+
+  /**
+   * Returns the number of rows written so far.
+   *
+   * @return the number of rows written
+   * @since 1.0
+   */
+  public int getRowsWritten() {
+    return rowsWritten;
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes the remaining buffered rows and closes the file.
+   * Logs a warning if not every row of the image was written.
+   *
+   * @throws IOException if the file can not be written
+   * @since 1.0
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+    if (rowsWritten != height) {
+      Logger.getLogger(PpmWriter.class.getName())
+          .warning("Only " + rowsWritten + " of " + height + " rows were written");
+    }
+  }
+}
@@ -0,0 +1,234 @@
+package backend.core.canvas;
+
+import java.util.stream.IntStream;
+import javafx.scene.paint.Color;
+
+/**
+ * Represents the tone mapping from the pixel values of a snapshot to packed ARGB colors,
+ * premultiplied by their alpha like the pixel buffers of JavaFX.
+ * The density of a pixel is scaled logarithmically up to the white point of the snapshot,
+ * gamma corrected, and looked up in a palette. Snapshots colored by transforms look up the
+ * color index of each pixel in the palette instead, and the density sets the opacity.
+ * Vibrancy blends the palette between its colors as given and the colors gamma corrected,
+ * like flames, so low vibrancy washes the colors out towards white.
+ * Both the gamma curve and the palette are tables of {@value #LUT_SIZE} entries, computed once,
+ * and the logarithm is taken from the exponent of the density and a table of its highest
+ * mantissa bits, so mapping a pixel takes three lookups without creating any objects.
+ * The tone mapper is immutable and can be shared between threads.
+ *
+ * @version 1.1
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class ToneMapper {
+  public static final int LUT_SIZE = 4096;
+  private static final int OPAQUE = 0xff000000;
+  private static final int MANTISSA_BITS = 12;
+  private static final int MANTISSA_SHIFT = 52 - MANTISSA_BITS;
+  private static final double LN_2 = Math.log(2);
+  // The logarithm of the middle of each range of mantissas
+  private static final double[] LOG_MANTISSA = new double[1 << MANTISSA_BITS];
+
+  static {
+    for (int i = 0; i < LOG_MANTISSA.length; i++) {
+      LOG_MANTISSA[i] = Math.log(1 + (i + 0.5) / LOG_MANTISSA.length);
+    }
+  }
+
+  private final double gamma;
+  private final double vibrancy;
+  private final double whitePointQuantile;
+  // The value raised to 1 / gamma, for values from 0 to 1
+  private final float[] gammaLut;
+  // Packed RGB colors without alpha, for values from 0 to 1
+  private final int[] paletteLut;
+
+  /**
+   * Constructs a new tone mapper with the given palette, gamma, vibrancy and white point.
+   * The palette is spread evenly over the values from 0 to 1, interpolating between its colors.
+   *
+   * @param palette the packed ARGB colors of the palette, the alpha is not used
+   * @param gamma the gamma of the display, 1 for a linear ramp
+   * @param vibrancy the share of the palette taken as given, between 0 and 1
+   * @param whitePointQuantile the quantile of the hit pixels that maps to full brightness
+   * @throws IllegalArgumentException if the palette is empty, the gamma is not positive, or
+   *     the vibrancy or quantile is not between 0 and 1
+   * @since 1.0
+   */
+  public ToneMapper(int[] palette, double gamma, double vibrancy, double whitePointQuantile)
+      throws IllegalArgumentException {
+    if (palette == null || palette.length == 0) {
+      throw new IllegalArgumentException("The palette needs at least one color");
+    }
+    if (!(gamma > 0)) {
+      throw new IllegalArgumentException("The gamma must be positive");
+    }
+    if (!(vibrancy >= 0 && vibrancy <= 1)) {
+      throw new IllegalArgumentException("The vibrancy must be between 0 and 1");
+    }
+    if (!(whitePointQuantile > 0 && whitePointQuantile <= 1)) {
+      throw new IllegalArgumentException("The white point quantile must be between 0 and 1");
+    }
+    this.gamma = gamma;
+    this.vibrancy = vibrancy;
+    this.whitePointQuantile = whitePointQuantile;
+
+    this.gammaLut = new float[LUT_SIZE];
+    for (int i = 0; i < LUT_SIZE; i++) {
+      gammaLut[i] = (float) Math.pow((double) i / (LUT_SIZE - 1), 1 / gamma);
+    }
+
+    this.paletteLut = new int[LUT_SIZE];
+    for (int i = 0; i < LUT_SIZE; i++) {
+      double position = (double) i / (LUT_SIZE - 1) * (palette.length - 1);
+      int stop = Math.min((int) position, palette.length - 1);
+      int next = Math.min(stop + 1, palette.length - 1);
+      double fraction = position - stop;
+
+      int rgb = 0;
+      for (int shift = 16; shift >= 0; shift -= 8) {
+        double channel = ((palette[stop] >> shift & 0xff) * (1 - fraction)
+            + (palette[next] >> shift & 0xff) * fraction) / 255;
+        double vibrant = vibrancy * channel + (1 - vibrancy) * applyGamma(channel);
+        rgb |= (int) Math.round(Math.min(vibrant, 1) * 255) << shift;
+      }
+      paletteLut[i] = rgb;
+    }
+  }
+
+  /**
+   * Returns a palette of {@value #LUT_SIZE} colors from the start to the end color, interpolated
+   * by hue, saturation and brightness.
+   *
+   * @param start the color of the lowest values
+   * @param end the color of the highest values
+   * @return the packed ARGB colors of the palette
+   * @since 1.0
+   */
+  public static int[] createGradient(Color start, Color end) {
+    int[] palette = new int[LUT_SIZE];
+    for (int i = 0; i < LUT_SIZE; i++) {
+      double value = (double) i / (LUT_SIZE - 1);
+      Color color = Color.hsb(
+          start.getHue() + (end.getHue() - start.getHue()) * value,
+          start.getSaturation() + (end.getSaturation() - start.getSaturation()) * value,
+          start.getBrightness() + (end.getBrightness() - start.getBrightness()) * value
+      );
+      palette[i] = pack(color);
+    }
+    return palette;
+  }
+
+  /**
+   * Returns the given color as a packed ARGB integer.
+   *
+   * @param color the color to pack
+   * @return the packed color
+   * @since 1.0
+   */
+  public static int pack(Color color) {
+    return (int) Math.round(color.getOpacity() * 255) << 24
+        | (int) Math.round(color.getRed() * 255) << 16
+        | (int) Math.round(color.getGreen() * 255) << 8
+        | (int) Math.round(color.getBlue() * 255);
+  }
+
+  /**
+   * Returns the gamma of this tone mapper.
+   *
+   * @return the gamma
+   * @since 1.0
+   */
+  public double getGamma() {
+    return gamma;
+  }
+
+  /**
+   * Returns the vibrancy of this tone mapper.
+   *
+   * @return the vibrancy, between 0 and 1
+   * @since 1.0
+   */
+  public double getVibrancy() {
+    return vibrancy;
+  }
+
+  /**
+   * Maps every pixel of the given snapshot to a packed ARGB color premultiplied by its alpha,
+   * row by row. Pixels that are not hit are transparent. The rows are mapped in parallel.
+   * The white point is read from the statistics of the snapshot, so the pixels are only read
+   * once.
+   *
+   * @param snapshot the snapshot to map
+   * @param argb the array to write the colors to, of at least the width times the height
+   * @throws IllegalArgumentException if the array is too small
+   * @since 1.0
+   */
+  public void map(CanvasSnapshot snapshot, int[] argb) throws IllegalArgumentException {
+    int width = snapshot.getWidth();
+    int height = snapshot.getHeight();
+    if (argb.length < width * height) {
+      throw new IllegalArgumentException("The array is too small for the snapshot");
+    }
+
+    double whitePoint = snapshot.getStatistics().getQuantile(whitePointQuantile);
+    double exposure = whitePoint > 0 ? 1 / Math.log1p(whitePoint) : 1;
+    ColorBuffer colors = snapshot.getColors();
+
+    IntStream.range(0, height).parallel().forEach(row -> {
+      int offset = row * width;
+      for (int column = 0; column < width; column++) {
+        double density = snapshot.get(row, column);
+        if (density <= 0) {
+          argb[offset + column] = 0;
+          continue;
+        }
+        float intensity = applyGamma(fastLog1p(density) * exposure);
+        if (colors == null) {
+          argb[offset + column] = OPAQUE | paletteLut[toIndex(intensity)];
+        } else {
+          argb[offset + column] = premultiply(
+              paletteLut[toIndex(colors.getColor(row, column))], Math.round(intensity * 255)
+          );
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the given RGB color with the given alpha, premultiplied.
+   *
+   * @since 1.1
+   */
+  private static int premultiply(int rgb, int alpha) {
+    int red = ((rgb >> 16 & 0xff) * alpha + 127) / 255;
+    int green = ((rgb >> 8 & 0xff) * alpha + 127) / 255;
+    int blue = ((rgb & 0xff) * alpha + 127) / 255;
+    return alpha << 24 | red << 16 | green << 8 | blue;
+  }
+
+  /**
+   * Returns the given value, clamped between 0 and 1, raised to 1 / gamma through the table.
+   *
+   * @since 1.0
+   */
+  private float applyGamma(double value) {
+    return gammaLut[toIndex(value)];
+  }
+
+  /**
+   * Returns the natural logarithm of 1 plus the given positive value, to within a relative
+   * error of a few parts in ten thousand, finer than the steps of the tables.
+   *
+   * @since 1.0
+   */
+  static double fastLog1p(double value) {
+    long bits = Double.doubleToRawLongBits(1 + value);
+    int mantissa = (int) (bits >>> MANTISSA_SHIFT) & (LOG_MANTISSA.length - 1);
+    return Math.getExponent(1 + value) * LN_2 + LOG_MANTISSA[mantissa];
+  }
+
+  private static int toIndex(double value) {
+    return (int) (Math.min(Math.max(value, 0), 1) * (LUT_SIZE - 1) + 0.5);
+  }
+}
@@ -2,35 +2,56 @@ package backend.models;
 
 
 import static config.DataConfig.PRESET_FILE_PATH;
+import static config.DisplayConfig.DEFAULT_GAMMA;
+import static config.DisplayConfig.DEFAULT_VIBRANCY;
 import static config.DisplayConfig.END_COLOR;
+import static config.DisplayConfig.REGION_SIZE;
+import static config.DisplayConfig.REGION_STEP_FACTOR;
 import static config.DisplayConfig.START_COLOR;
+import static config.DisplayConfig.WHITE_POINT_QUANTILE;
 
 import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
 import backend.core.ChaosGameDescriptionFactory;
 import backend.core.ChaosGameFileHandler;
 import backend.core.ChaosGameObserver;
+import backend.core.canvas.ToneMapper;
 import backend.geometry.Complex;
 import backend.geometry.MatrixNxN;
 import backend.geometry.Vector;
+import backend.rendering.QualityLadder;
+import backend.rendering.RenderExecutor;
+import backend.rendering.RenderRequest;
+import backend.rendering.RenderedFrame;
 import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
 import backend.transforms.JuliaTransform;
 import backend.transforms.Transform;
+import backend.transforms.Variation;
 import backend.utility.state.StateHandler;
 import frontend.controllers.MainController;
 import frontend.inputboxes.AffineInputBox;
 import frontend.inputboxes.JuliaInputBox;
 import frontend.inputboxes.VectorInputBox;
 import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
+import javafx.application.Platform;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 
 /**
  * Class for interacting with the view-model of the chaos game.
  *
- * @version 1.1
+ * @version 1.20
  * @author proggang
  * @since 04.04.2024
  */
@@ -39,7 +60,33 @@ public class MainModel implements ChaosGameObserver {
   private final MainController controller;
   private int steps;
   private boolean fancyColoring;
+  private boolean transformColors;
   private boolean inverseTransform;
+  private int[] palette;
+  private double gamma;
+  private double vibrancy;
+  private ToneMapper toneMapper;
+  private final RenderExecutor renderExecutor;
+  // Renders selected regions on their own thread, so the view keeps its renders and cache
+  private final RenderExecutor regionExecutor;
+  // The full quality request of the frame on the canvas, also while its preview is shown.
+  // Selections are regions of its view, with its steps
+  private RenderRequest shownRequest;
+  // Reused between redraws of the same size, the image shows the buffer without copying
+  private PixelBuffer<IntBuffer> pixelBuffer;
+  private WritableImage image;
+  // Previews are smaller than the canvas, and drawn smoothed instead of as blocks
+  private boolean previewShown;
+  // The last pan, continued by the views rendered ahead while dragging
+  private int lastPanColumns;
+  private int lastPanRows;
+  // The last two cursor positions on the canvas, extrapolated to the next Julia constants
+  private double cursorX = Double.NaN;
+  private double cursorY = Double.NaN;
+  private double previousCursorX = Double.NaN;
+  private double previousCursorY = Double.NaN;
+  private double cursorCanvasWidth;
+  private double cursorCanvasHeight;
 
   /**
    * Constructs a new model with the given chaos game.
@@ -49,6 +96,12 @@ public class MainModel implements ChaosGameObserver {
   public MainModel(MainController controller) {
     this.controller = controller;
     inverseTransform = false;
+    palette = ToneMapper.createGradient(START_COLOR, END_COLOR);
+    gamma = DEFAULT_GAMMA;
+    vibrancy = DEFAULT_VIBRANCY;
+    updateToneMapper();
+    renderExecutor = new RenderExecutor();
+    regionExecutor = new RenderExecutor(Platform::runLater, QualityLadder.FULL);
 
     // If the state is not null, set the chaos game description to the state
     if (StateHandler.getInstance().getChaosGameDescription() != null) {
@@ -81,13 +134,26 @@ public class MainModel implements ChaosGameObserver {
     for (int i = 0; i < chaosGame.getDescription().getTransforms().size(); i++) {
       Transform transform = chaosGame.getDescription().getTransforms().get(i);
 
-      Consumer<Void> updateFunction = unused -> chaosGame.updateCanvas();
+      // Edited transforms move the attractor, so the view is fitted to it again, and
+      // probabilities solved for the old transforms are solved again
+      Consumer<Void> updateFunction = unused -> {
+        chaosGame.fitToAttractor();
+        if (chaosGame.getDescription().isProbabilitySolved()) {
+          chaosGame.optimizeProbabilities();
+        }
+        chaosGame.updateCanvas();
+      };
       Consumer<Transform> removeFunction = unused -> chaosGame.removeTransform(transform);
 
       if (transform instanceof AffineTransform transformFromDesc) {
         container.getChildren().add(
             new AffineInputBox(transformFromDesc, updateFunction, removeFunction)
         );
+      } else if (transform instanceof FlameTransform flame) {
+        // Only the affine pre-transform of a flame is editable
+        container.getChildren().add(
+            new AffineInputBox(flame.getAffine(), updateFunction, removeFunction)
+        );
       } else {
         container.getChildren().add(
             new JuliaInputBox(transform, updateFunction, removeFunction)
@@ -95,10 +161,15 @@ public class MainModel implements ChaosGameObserver {
       }
     }
 
-    Consumer<Void> updateFunction = unused -> chaosGame.updateCanvas();
+    // Probabilities edited by the user are theirs, and are not solved again
+    ChaosGameDescription description = chaosGame.getDescription();
+    Vector probability = description.getProbability();
+    Consumer<Void> updateFunction = unused -> {
+      description.setProbability(probability);
+      chaosGame.updateCanvas();
+    };
 
-    VectorInputBox vectorInputBox =
-        new VectorInputBox(chaosGame.getDescription().getProbability(), updateFunction);
+    VectorInputBox vectorInputBox = new VectorInputBox(probability, updateFunction);
     container.getChildren().add(vectorInputBox.constructBox());
   }
 
@@ -109,108 +180,293 @@ public class MainModel implements ChaosGameObserver {
    * @since 1.0
    */
   public void setChaosGame(ChaosGame chaosGame) {
+    if (this.chaosGame != null && this.chaosGame != chaosGame) {
+      this.chaosGame.removeObserver(this);
+      this.chaosGame.close();
+    }
     this.chaosGame = chaosGame;
+    chaosGame.setTransformColors(transformColors);
+    optimizeUnsetProbabilities();
     chaosGame.addObserver(this);
   }
 
   /**
-   * Runs the game for the given number of steps. If the chaos game is null, does nothing.
+   * Solves probabilities for the chaos game if its description has none,
+   * instead of using equal probabilities.
+   *
+   * @since 1.2
+   */
+  private void optimizeUnsetProbabilities() {
+    if (!chaosGame.getDescription().isProbabilitySet()) {
+      chaosGame.optimizeProbabilities();
+    }
+  }
+
+  /**
+   * Runs the game for the given number of steps on the render thread, and draws the frame
+   * when it is done. The description is copied first, so it can be edited in the meantime.
+   * The views the user is likely to go to next are rendered ahead while idle.
    *
    * @since 1.0
    */
   public void runIterations() {
-    chaosGame.getCanvas().clear();
-
-    if (inverseTransform) {
-      try {
-        chaosGame.runInverse();
-      } catch (IllegalAccessException e) {
-        Logger.getLogger(MainModel.class.getName())
-            .severe("Inverse Julia set can only be run with JuliaTransform. " + e);
+    RenderRequest request = new RenderRequest(chaosGame, steps, inverseTransform, toneMapper);
+    renderExecutor.submit(request, frame -> showFrame(request, frame), speculate(request));
+  }
+
+  /**
+   * Returns the requests of the views likely to follow the view of the given request, the most
+   * likely first. Those are the next Julia constants along the path of the cursor, the next
+   * step of a drag, and one zoom step in and out. The views are computed the same way as by
+   * moving the cursor, panning and zooming, so they match exactly when the user gets there.
+   *
+   * @since 1.14
+   */
+  private List<RenderRequest> speculate(RenderRequest request) {
+    List<RenderRequest> speculative = new ArrayList<>();
+    ChaosGameDescription description = request.getDescription();
+
+    boolean cursorMoved = (cursorX != previousCursorX || cursorY != previousCursorY)
+        && !Double.isNaN(previousCursorX) && !Double.isNaN(previousCursorY);
+    if (cursorMoved && !description.getTransforms().isEmpty()
+        && description.getTransforms().get(0) instanceof JuliaTransform) {
+      for (int step = 1; step <= 2; step++) {
+        ChaosGameDescription next = request.getDescription();
+        Complex point = ((JuliaTransform) next.getTransforms().get(0)).getPoint();
+        point.setElement(0, toJuliaConstant(
+            cursorX + step * (cursorX - previousCursorX), cursorCanvasWidth));
+        point.setElement(1, toJuliaConstant(
+            cursorY + step * (cursorY - previousCursorY), cursorCanvasHeight));
+        speculative.add(request.withDescription(next));
       }
-    } else {
-      chaosGame.runSteps(steps);
     }
+
+    if (lastPanColumns != 0 || lastPanRows != 0) {
+      ChaosGameDescription panned = request.getDescription();
+      panned.panView(lastPanColumns, lastPanRows, request.getWidth(), request.getHeight());
+      speculative.add(request.withDescription(panned));
+    }
+
+    for (int value : new int[] {1, -1}) {
+      ChaosGameDescription zoomed = request.getDescription();
+      zoomed.zoomView(value);
+      speculative.add(request.withDescription(zoomed));
+    }
+    return speculative;
+  }
+
+  /**
+   * Shows the given frame on the canvas. Called on the application thread, first with a preview
+   * and then with the refinements of the frame.
+   * The colors of the frame are copied into the pixel buffer of the image in one bulk copy.
+   *
+   * @param request the full quality request the frame is rendered for
+   * @param frame the frame to show, of the request or one of its previews
+   * @since 1.11
+   */
+  private void showFrame(RenderRequest request, RenderedFrame frame) {
+    int width = frame.getWidth();
+    int height = frame.getHeight();
+    if (pixelBuffer == null
+        || pixelBuffer.getWidth() != width || pixelBuffer.getHeight() != height) {
+      pixelBuffer = new PixelBuffer<>(
+          width, height, IntBuffer.allocate(width * height), PixelFormat.getIntArgbPreInstance()
+      );
+      image = new WritableImage(pixelBuffer);
+    }
+
+    System.arraycopy(frame.getPixels(), 0, pixelBuffer.getBuffer().array(), 0, width * height);
+    // No dirty region, the whole image is uploaded once
+    pixelBuffer.updateBuffer(unused -> null);
+    previewShown = frame.getRequest().isPreview();
+    // Not the request of a preview, which has a fraction of the steps
+    shownRequest = request;
+    drawCanvas();
   }
 
   /**
-   * Draws the canvas of the chaos game.
-   * Supports fancy coloring.
+   * Draws the latest frame of the chaos game on the canvas.
+   * The frame is a single image, drawn with one call, instead of one rectangle per pixel.
+   * If no frame is rendered yet, only clears the canvas.
    *
    * @since 1.0
    */
   public void drawCanvas() {
     GraphicsContext gc = controller.getCanvas().getGraphicsContext2D();
     gc.clearRect(0, 0, controller.getCanvas().getWidth(), controller.getCanvas().getHeight());
-
-    double[][] canvasArray = chaosGame.getCanvas().getCanvasArray();
-
-    double pixelWidth = controller.getCanvas().getWidth() / canvasArray.length;
-    double pixelHeight = controller.getCanvas().getHeight() / canvasArray[0].length;
-
-    if (!fancyColoring) {
-      // Skip loading the same color thousands of times, faster to load once
-      gc.setFill(Color.BLACK);
+    if (image == null) {
+      return;
     }
 
-    for (int y = 0; y < canvasArray.length; y++) {
-      for (int x = 0; x < canvasArray.length; x++) {
-        double freq = canvasArray[y][x];
-        if (freq == 0) {
-          continue;
-        }
-        if (fancyColoring) {
-          gc.setFill(calculateColor(freq));
-        }
-        gc.fillRect(x * pixelWidth, y * pixelHeight, pixelWidth, pixelHeight);
-      }
-    }
+    // Scaled to the canvas with sharp pixels, unless the frame is a low resolution preview
+    gc.setImageSmoothing(previewShown);
+    gc.drawImage(
+        image, 0, 0, controller.getCanvas().getWidth(), controller.getCanvas().getHeight()
+    );
   }
 
-  // ChatGPT generated code, no trivial effect
-  private Color calculateColor(double freq) {
-    // Define the range of colors
+  /**
+   * Draws the latest frame with the outline of the selection between the given points of the
+   * canvas on top.
+   *
+   * @param startX the x-coordinate on the canvas where the selection started
+   * @param startY the y-coordinate on the canvas where the selection started
+   * @param endX the x-coordinate on the canvas where the selection is now
+   * @param endY the y-coordinate on the canvas where the selection is now
+   * @since 1.15
+   */
+  public void drawSelection(double startX, double startY, double endX, double endY) {
+    drawCanvas();
+    GraphicsContext gc = controller.getCanvas().getGraphicsContext2D();
+    gc.setStroke(Color.DODGERBLUE);
+    gc.setLineWidth(1);
+    gc.strokeRect(Math.min(startX, endX), Math.min(startY, endY),
+        Math.abs(endX - startX), Math.abs(endY - startY));
+  }
 
-    // Map the value to a range between 0 and 1
-    double normalizedValue = Math.min(Math.max(freq, 0.0), 1.0);
+  /**
+   * Renders the selection between the given points of the canvas on its own, at
+   * {@value config.DisplayConfig#REGION_SIZE} pixels along its longest side and with
+   * {@value config.DisplayConfig#REGION_STEP_FACTOR} times the steps of the shown view at full
+   * quality, also while its preview is shown. The frame is given to the given consumer on the
+   * application thread. The view is not rendered again, and its description is not changed. If
+   * no frame is shown yet, does nothing.
+   *
+   * @param startX the x-coordinate on the canvas where the selection started
+   * @param startY the y-coordinate on the canvas where the selection started
+   * @param endX the x-coordinate on the canvas where the selection ended
+   * @param endY the y-coordinate on the canvas where the selection ended
+   * @param onFrame the consumer of the frame of the selection
+   * @since 1.15
+   */
+  public void renderRegion(
+      double startX, double startY, double endX, double endY, Consumer<RenderedFrame> onFrame
+  ) {
+    if (shownRequest == null) {
+      return;
+    }
+    double canvasWidth = controller.getCanvas().getWidth();
+    double canvasHeight = controller.getCanvas().getHeight();
+    ChaosGameDescription shown = shownRequest.getDescription();
+    Vector minCoords = shown.getMinCoords();
+    Vector maxCoords = shown.getMaxCoords();
+    double extentX = maxCoords.getElement(0) - minCoords.getElement(0);
+    double extentY = maxCoords.getElement(1) - minCoords.getElement(1);
+
+    // The frame is stretched over the canvas, with y going up from the bottom
+    Vector regionMin = new Vector(
+        minCoords.getElement(0) + Math.min(startX, endX) / canvasWidth * extentX,
+        maxCoords.getElement(1) - Math.max(startY, endY) / canvasHeight * extentY
+    );
+    Vector regionMax = new Vector(
+        minCoords.getElement(0) + Math.max(startX, endX) / canvasWidth * extentX,
+        maxCoords.getElement(1) - Math.min(startY, endY) / canvasHeight * extentY
+    );
 
-    // Interpolate between startColor and endColor based on the normalized value
-    double hue = START_COLOR.getHue()
-        + (END_COLOR.getHue() - START_COLOR.getHue()) * normalizedValue;
+    double selectionWidth = Math.abs(endX - startX);
+    double selectionHeight = Math.abs(endY - startY);
+    double scale = REGION_SIZE / Math.max(selectionWidth, selectionHeight);
+    int width = Math.max((int) Math.round(selectionWidth * scale), 1);
+    int height = Math.max((int) Math.round(selectionHeight * scale), 1);
+    // The full steps of the view the selection was made on, not of a view not yet shown
+    int regionSteps = (int) Math.min(
+        (long) shownRequest.getSteps() * REGION_STEP_FACTOR, Integer.MAX_VALUE
+    );
 
-    double saturation = START_COLOR.getSaturation()
-        + (END_COLOR.getSaturation() - START_COLOR.getSaturation()) * normalizedValue;
+    regionExecutor.submit(
+        shownRequest.forRegion(regionMin, regionMax, width, height, regionSteps), onFrame
+    );
+  }
 
-    double brightness = START_COLOR.getBrightness()
-        + (END_COLOR.getBrightness() - START_COLOR.getBrightness()) * normalizedValue;
+  /**
+   * Rebuilds the tone mapper from the palette, gamma and vibrancy. Without fancy coloring or
+   * transform colors, every hit pixel is black.
+   *
+   * @since 1.9
+   */
+  private void updateToneMapper() {
+    int[] colors = fancyColoring || transformColors
+        ? palette : new int[] {ToneMapper.pack(Color.BLACK)};
+    toneMapper = new ToneMapper(colors, gamma, vibrancy, WHITE_POINT_QUANTILE);
+  }
+
+  /**
+   * Sets the palette used for fancy coloring and transform colors, and renders the canvas.
+   * The colors are spread evenly from the lowest to the highest values.
+   * If the palette is null or empty, the gradient from the start to the end color is used.
+   *
+   * @param palette the packed ARGB colors of the palette
+   * @since 1.9
+   */
+  public void setPalette(int[] palette) {
+    this.palette = palette == null || palette.length == 0
+        ? ToneMapper.createGradient(START_COLOR, END_COLOR) : palette.clone();
+    updateToneMapper();
+    update();
+  }
 
-    // Create and return the interpolated color
-    return Color.hsb(hue, saturation, brightness);
+  /**
+   * Sets the gamma and vibrancy of the coloring, and renders the canvas.
+   *
+   * @param gamma the gamma of the display, 1 for a linear ramp
+   * @param vibrancy the share of the palette colors taken as given, between 0 and 1
+   * @throws IllegalArgumentException if the gamma is not positive or the vibrancy is not
+   *     between 0 and 1
+   * @since 1.9
+   */
+  public void setToneMapping(double gamma, double vibrancy) throws IllegalArgumentException {
+    if (!(gamma > 0) || !(vibrancy >= 0 && vibrancy <= 1)) {
+      throw new IllegalArgumentException(
+          "The gamma must be positive and the vibrancy between 0 and 1");
+    }
+    this.gamma = gamma;
+    this.vibrancy = vibrancy;
+    updateToneMapper();
+    update();
   }
 
   /**
-   * Updates the model by rerunning the iterations and redrawing the canvas.
+   * Updates the model by rerunning the iterations, the canvas is redrawn when the frame is done.
    *
    * @since 1.0
    */
   @Override
   public void update() {
     runIterations();
-    drawCanvas();
     StateHandler.getInstance().setDescription(chaosGame.getDescription());
   }
 
   /**
-   * Zooms the chaos game by the given value.
+   * Zooms the chaos game by the given value around the center of the view.
+   * Every step of 1 zooms in by a factor of {@value config.DisplayConfig#ZOOM_FACTOR}, and
+   * negative values zoom out. Whole steps keep the pixels of an inverse Julia set aligned with
+   * the pixels of the previous view, so they are reused instead of computed again.
    * The value should be between -10 and 10.
    *
    * @param value the value to zoom by
    */
   public void zoom(double value) {
-    Vector scaleVector = new Vector(value, value);
+    chaosGame.getDescription().zoomView(value);
+    lastPanColumns = 0;
+    lastPanRows = 0;
 
-    chaosGame.getDescription().getMaxCoords().sub(scaleVector);
-    chaosGame.getDescription().getMinCoords().add(scaleVector);
+    chaosGame.updateCanvas();
+    update();
+  }
+
+  /**
+   * Moves the view of the chaos game by the given number of pixels, to the right and down.
+   * Whole pixels keep the pixels of an inverse Julia set aligned with the previous view, so
+   * only the newly exposed strips are computed.
+   *
+   * @param columns the number of pixels to move the view right, negative to move it left
+   * @param rows the number of pixels to move the view down, negative to move it up
+   * @since 1.13
+   */
+  public void pan(int columns, int rows) {
+    chaosGame.getDescription().panView(columns, rows, chaosGame.getWidth(), chaosGame.getHeight());
+    lastPanColumns = columns;
+    lastPanRows = rows;
 
     chaosGame.updateCanvas();
     update();
@@ -246,6 +502,20 @@ public class MainModel implements ChaosGameObserver {
    */
   public void toggleHeatmap(boolean selected) {
     fancyColoring = selected;
+    updateToneMapper();
+    update();
+  }
+
+  /**
+   * Toggles whether to color the pixels by the transforms that hit them, instead of by density.
+   *
+   * @param selected if the pixels should be colored by transforms
+   * @since 1.8
+   */
+  public void toggleTransformColors(boolean selected) {
+    transformColors = selected;
+    chaosGame.setTransformColors(selected);
+    updateToneMapper();
     update();
   }
 
@@ -271,6 +541,7 @@ public class MainModel implements ChaosGameObserver {
   public void setFilePath(String filePath) {
     if (chaosGame != null) {
       chaosGame.removeObserver(this);
+      chaosGame.close();
     }
 
 
@@ -288,6 +559,9 @@ public class MainModel implements ChaosGameObserver {
       // Default config, boring
       chaosGame = new ChaosGameDescriptionFactory().getDefaultChaosGame();
     }
+
+    chaosGame.setTransformColors(transformColors);
+    optimizeUnsetProbabilities();
     chaosGame.addObserver(this);
     chaosGame.updateCanvas();
   }
@@ -302,6 +576,23 @@ public class MainModel implements ChaosGameObserver {
     return chaosGame;
   }
 
+  /**
+   * Stops rendering for this model, when its view is left.
+   * Stops the render threads of the view and of selected regions, stops observing the chaos
+   * game and closes it.
+   * The model can not be used after it is closed.
+   *
+   * @since 1.16
+   */
+  public void close() {
+    renderExecutor.close();
+    regionExecutor.close();
+    if (chaosGame != null) {
+      chaosGame.removeObserver(this);
+      chaosGame.close();
+    }
+  }
+
   /**
    * Toggles whether to use the inverse transform or not.
    * If the inverse transform is used, the chaos game will run the inverse of the Julia set.
@@ -331,6 +622,50 @@ public class MainModel implements ChaosGameObserver {
 
   }
 
+  /**
+   * Moves the cursor to the given position on a canvas of the given size, and updates the Julia
+   * set to the cursor position. The last positions are kept, so the next Julia constants along
+   * the path of the cursor are rendered ahead.
+   *
+   * @param x the x-coordinate of the cursor on the canvas
+   * @param y the y-coordinate of the cursor on the canvas
+   * @param canvasWidth the width of the canvas
+   * @param canvasHeight the height of the canvas
+   * @since 1.14
+   */
+  public void moveCursor(double x, double y, double canvasWidth, double canvasHeight) {
+    previousCursorX = cursorX;
+    previousCursorY = cursorY;
+    cursorX = x;
+    cursorY = y;
+    cursorCanvasWidth = canvasWidth;
+    cursorCanvasHeight = canvasHeight;
+    updateCursorPos(toJuliaConstant(x, canvasWidth), toJuliaConstant(y, canvasHeight));
+  }
+
+  /**
+   * Forgets the path of the cursor, so no Julia constants are rendered ahead until it moves
+   * again.
+   *
+   * @since 1.14
+   */
+  public void resetCursorTrajectory() {
+    cursorX = Double.NaN;
+    cursorY = Double.NaN;
+    previousCursorX = Double.NaN;
+    previousCursorY = Double.NaN;
+  }
+
+  /**
+   * Returns the part of the Julia constant at the given cursor coordinate on a canvas of the
+   * given extent, from -1 at the start to 1 at the end.
+   *
+   * @since 1.14
+   */
+  private static double toJuliaConstant(double coordinate, double extent) {
+    return (coordinate / extent) * 2 - 1;
+  }
+
   /**
    * Saves the chaos game to a file with the given file name.
    * The file name should not contain the file extension.
@@ -365,12 +700,18 @@ public class MainModel implements ChaosGameObserver {
 
   /**
    * Adds a transform to the chaos game.
-   * The transform consists of only zeros.
+   * The transform consists of only zeros, flames get a linear variation. The view is fitted to
+   * the new attractor, and new probabilities are solved for the transforms.
    *
    * @since 1.2
    */
   public void addTransform() {
-    if (chaosGame.isAffine()) {
+    if (chaosGame.isFlame()) {
+      AffineTransform affine = new AffineTransform(new MatrixNxN(0, 0, 0, 0), new Vector(0, 0));
+      chaosGame.getDescription().getTransforms().add(
+          new FlameTransform(affine, Map.of(Variation.LINEAR, 1.0))
+      );
+    } else if (chaosGame.isAffine()) {
       AffineTransform transform =
           (AffineTransform) chaosGame.getDescription().getTransforms().get(0);
       int size = transform.getMatrix().getSize();
@@ -383,5 +724,7 @@ public class MainModel implements ChaosGameObserver {
       chaosGame.getDescription().getTransforms().add(new JuliaTransform(new Complex(0, 0), 1));
     }
     chaosGame.getDescription().clearProbabilities();
+    chaosGame.fitToAttractor();
+    chaosGame.optimizeProbabilities();
   }
 }
\ No newline at end of file
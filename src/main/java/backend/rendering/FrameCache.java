@@ -0,0 +1,122 @@
+package backend.rendering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents a cache of finished frames, keyed by the request they were rendered for.
+ * Going back to a view, or on to a view rendered ahead of time, shows its frame at once instead
+ * of rendering it again. Frames are kept up to a memory budget, and when the budget is exceeded,
+ * the least recently used frames are dropped.
+ * The cache is thread-safe.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class FrameCache {
+  private final long memoryBudget;
+  // In access order, the least recently used frame is first
+  private final LinkedHashMap<RenderRequest, RenderedFrame> frames;
+  private long usedBytes;
+
+  /**
+   * Constructs a new, empty cache that keeps frames up to the given number of bytes.
+   *
+   * @param memoryBudget the number of bytes the frames may hold
+   * @throws IllegalArgumentException if the budget is negative
+   * @since 1.0
+   */
+  public FrameCache(long memoryBudget) throws IllegalArgumentException {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("The memory budget cannot be negative");
+    }
+    this.memoryBudget = memoryBudget;
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the frame of the given request, or null if it is not cached.
+   *
+   * @param request the request of the frame
+   * @return the cached frame, or null
+   * @since 1.0
+   */
+  public synchronized RenderedFrame get(RenderRequest request) {
+    return frames.get(request);
+  }
+
+  /**
+   * Returns whether the frame of the given request is cached, without counting as a use.
+   *
+   * @param request the request of the frame
+   * @return true if the frame is cached, false otherwise
+   * @since 1.0
+   */
+  public synchronized boolean contains(RenderRequest request) {
+    return frames.containsKey(request);
+  }
+
+  /**
+   * Keeps the given frame for the given request, and drops the least recently used frames
+   * until the budget is met. Frames larger than the whole budget are not kept.
+   *
+   * @param request the request the frame was rendered for
+   * @param frame the frame to keep
+   * @since 1.0
+   */
+  public synchronized void put(RenderRequest request, RenderedFrame frame) {
+    long bytes = getBytes(frame);
+    if (bytes > memoryBudget) {
+      return;
+    }
+    RenderedFrame replaced = frames.put(request, frame);
+    usedBytes += bytes - (replaced == null ? 0 : getBytes(replaced));
+
+    Iterator<Map.Entry<RenderRequest, RenderedFrame>> iterator = frames.entrySet().iterator();
+    while (usedBytes > memoryBudget && iterator.hasNext()) {
+      usedBytes -= getBytes(iterator.next().getValue());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Returns the number of cached frames.
+   *
+   * @return the number of frames
+   * @since 1.0
+   */
+  public synchronized int size() {
+    return frames.size();
+  }
+
+  /**
+   * Returns the number of bytes of the cached frames.
+   *
+   * @return the size of the frames in bytes
+   * @since 1.0
+   */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * Drops every cached frame.
+   *
+   * @since 1.0
+   */
+  public synchronized void clear() {
+    frames.clear();
+    usedBytes = 0;
+  }
+
+  /**
+   * Returns the number of bytes of the colors of the given frame.
+   *
+   * @since 1.0
+   */
+  private static long getBytes(RenderedFrame frame) {
+    return (long) frame.getPixels().length * Integer.BYTES;
+  }
+}
@@ -0,0 +1,95 @@
+package backend.rendering;
+
+/**
+ * Represents the levels of detail a request is rendered at, from a fast preview to the final
+ * frame. Every level divides the resolution and scales the number of steps of the request.
+ * The first level is rendered as soon as the request is made, and the others one after another
+ * once the input is idle, so the user sees a rough frame at once while interacting.
+ * Levels must not lose detail, the divisors can only shrink and the step fractions only grow.
+ * Ladders are immutable.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public final class QualityLadder {
+  /**
+   * A quarter of the resolution at 5% of the steps, then half the resolution at 25% of the
+   * steps, then the full frame.
+   */
+  public static final QualityLadder DEFAULT =
+      new QualityLadder(new int[] {4, 2, 1}, new double[] {0.05, 0.25, 1});
+
+  /**
+   * Only the full frame, without previews.
+   */
+  public static final QualityLadder FULL = new QualityLadder(new int[] {1}, new double[] {1});
+
+  private final int[] resolutionDivisors;
+  private final double[] stepFractions;
+
+  /**
+   * Constructs a new quality ladder with the given levels, from the first to the last.
+   *
+   * @param resolutionDivisors the number the width and height are divided by at each level
+   * @param stepFractions the share of the steps run at each level, above 0 and at most 1
+   * @throws IllegalArgumentException if there are no levels, the arrays differ in length, or a
+   *     level has less detail than the one before it
+   * @since 1.0
+   */
+  public QualityLadder(int[] resolutionDivisors, double[] stepFractions)
+      throws IllegalArgumentException {
+    if (resolutionDivisors == null || stepFractions == null || resolutionDivisors.length == 0) {
+      throw new IllegalArgumentException("The ladder needs at least one level");
+    }
+    if (resolutionDivisors.length != stepFractions.length) {
+      throw new IllegalArgumentException("Every level needs a divisor and a step fraction");
+    }
+    for (int level = 0; level < resolutionDivisors.length; level++) {
+      if (resolutionDivisors[level] < 1) {
+        throw new IllegalArgumentException("The resolution divisors must be at least 1");
+      }
+      if (!(stepFractions[level] > 0 && stepFractions[level] <= 1)) {
+        throw new IllegalArgumentException("The step fractions must be above 0 and at most 1");
+      }
+      if (level > 0 && (resolutionDivisors[level] > resolutionDivisors[level - 1]
+          || stepFractions[level] < stepFractions[level - 1])) {
+        throw new IllegalArgumentException("Every level needs at least the detail of the last");
+      }
+    }
+    this.resolutionDivisors = resolutionDivisors.clone();
+    this.stepFractions = stepFractions.clone();
+  }
+
+  /**
+   * Returns the number of levels of the ladder.
+   *
+   * @return the number of levels
+   * @since 1.0
+   */
+  public int getLevelCount() {
+    return resolutionDivisors.length;
+  }
+
+  /**
+   * Returns the number the width and height are divided by at the given level.
+   *
+   * @param level the level, from 0
+   * @return the resolution divisor of the level
+   * @since 1.0
+   */
+  public int getResolutionDivisor(int level) {
+    return resolutionDivisors[level];
+  }
+
+  /**
+   * Returns the share of the steps run at the given level.
+   *
+   * @param level the level, from 0
+   * @return the step fraction of the level
+   * @since 1.0
+   */
+  public double getStepFraction(int level) {
+    return stepFractions[level];
+  }
+}
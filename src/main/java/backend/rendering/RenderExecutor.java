@@ -0,0 +1,454 @@
+package backend.rendering;
+
+import static config.DisplayConfig.FRAME_CACHE_BYTES;
+import static config.DisplayConfig.MIN_FRAME_INTERVAL_MILLIS;
+import static config.DisplayConfig.PREFETCH_LIMIT;
+import static config.DisplayConfig.PREFETCH_STEP_BUDGET;
+import static config.DisplayConfig.REFINE_IDLE_MILLIS;
+
+import backend.core.ChaosGame;
+import backend.core.canvas.CanvasSnapshot;
+import backend.core.canvas.EscapeTimeBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+
+/**
+ * Represents the render thread, computing frames of chaos games off the application thread.
+ * Every request is run and tone mapped on a single background thread, and the finished frame is
+ * handed back on the application thread, where only the copy to the screen is left. The window
+ * stays responsive while frames are rendered.
+ * Requests are coalesced, only the latest request submitted is kept while waiting for the
+ * render thread, and older ones are dropped without rendering. Renders start at most once every
+ * {@value config.DisplayConfig#MIN_FRAME_INTERVAL_MILLIS} milliseconds, so a burst of requests,
+ * like resizing the window or tracking the cursor, renders a few frames instead of one per event.
+ * Each request is first rendered at the lowest level of the {@link QualityLadder}, and refined
+ * level by level once no request has been submitted for
+ * {@value config.DisplayConfig#REFINE_IDLE_MILLIS} milliseconds. A new request cancels the
+ * refinement of the previous one, also in the middle of a render.
+ * The escape times of the last inverse render at each level are kept, so panning or zooming an
+ * inverse Julia set only iterates the pixels that were not in view before.
+ * Finished frames are kept in a {@link FrameCache}, and a request already in the cache is handed
+ * back at once. Once the last level is done, the speculative requests of the view, like the
+ * next zoom level, are rendered into the cache one by one, at most
+ * {@value config.DisplayConfig#PREFETCH_LIMIT} per view and
+ * {@value config.DisplayConfig#PREFETCH_STEP_BUDGET} steps in total. Speculative requests are
+ * only started while no request is waiting, and any new request cancels them at once.
+ *
+ * @version 1.6
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class RenderExecutor implements AutoCloseable {
+  private static final long MIN_FRAME_INTERVAL_NANOS =
+      TimeUnit.MILLISECONDS.toNanos(MIN_FRAME_INTERVAL_MILLIS);
+
+  private final ScheduledExecutorService worker;
+  // The time in nanoseconds the frame interval is measured with
+  private final LongSupplier clock;
+  private final Executor uiExecutor;
+  private final QualityLadder ladder;
+  // The latest request not yet taken by the render thread, with its consumer
+  private final AtomicReference<PendingRender> pending = new AtomicReference<>();
+  // Whether a render of the pending request is scheduled on the render thread
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  // Counts the submitted requests, refinements of older requests are dropped
+  private final AtomicLong generation = new AtomicLong();
+  // The generation of the latest request served from the cache, older frames are dropped
+  private final AtomicLong servedGeneration = new AtomicLong();
+  // The chaos game of the refinement or prefetch being rendered, cancelled by newer requests
+  private final AtomicReference<ChaosGame> refining = new AtomicReference<>();
+  private volatile long lastStartNanos;
+  // The escape times of the last inverse render at each level, only used by the render thread
+  private final EscapeTimeBuffer[] escapeTimes;
+  private final FrameCache cache;
+
+  /**
+   * Constructs a new render executor with the {@link QualityLadder#DEFAULT default} ladder,
+   * handing frames back on the JavaFX application thread.
+   *
+   * @since 1.0
+   */
+  public RenderExecutor() {
+    this(Platform::runLater, QualityLadder.DEFAULT);
+  }
+
+  /**
+   * Constructs a new render executor with the given quality ladder, handing frames back through
+   * the given executor. Frames are cached up to
+   * {@value config.DisplayConfig#FRAME_CACHE_BYTES} bytes.
+   *
+   * @param uiExecutor the executor running the frame consumers, like the application thread
+   * @param ladder the levels of detail every request is rendered at
+   * @throws IllegalArgumentException if the executor or ladder is null
+   * @since 1.0
+   */
+  public RenderExecutor(Executor uiExecutor, QualityLadder ladder)
+      throws IllegalArgumentException {
+    this(uiExecutor, ladder, new FrameCache(FRAME_CACHE_BYTES));
+  }
+
+  /**
+   * Constructs a new render executor with the given quality ladder and frame cache, handing
+   * frames back through the given executor.
+   *
+   * @param uiExecutor the executor running the frame consumers, like the application thread
+   * @param ladder the levels of detail every request is rendered at
+   * @param cache the cache of finished frames
+   * @throws IllegalArgumentException if the executor, ladder or cache is null
+   * @since 1.4
+   */
+  public RenderExecutor(Executor uiExecutor, QualityLadder ladder, FrameCache cache)
+      throws IllegalArgumentException {
+    this(uiExecutor, ladder, cache, Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "render");
+      // The render thread does not keep the application running
+      thread.setDaemon(true);
+      return thread;
+    }), System::nanoTime);
+  }
+
+  /**
+   * Constructs a new render executor running its renders on the given single thread
+   * scheduler, with the given clock, so renders can be run at chosen times.
+   *
+   * @param uiExecutor the executor running the frame consumers, like the application thread
+   * @param ladder the levels of detail every request is rendered at
+   * @param cache the cache of finished frames
+   * @param worker the scheduler of the renders, running one task at a time
+   * @param clock the time in nanoseconds, of the same origin as the delays of the scheduler
+   * @throws IllegalArgumentException if any argument is null
+   * @since 1.6
+   */
+  RenderExecutor(
+      Executor uiExecutor, QualityLadder ladder, FrameCache cache,
+      ScheduledExecutorService worker, LongSupplier clock
+  ) throws IllegalArgumentException {
+    if (uiExecutor == null || ladder == null || cache == null) {
+      throw new IllegalArgumentException(
+          "The executor, quality ladder and frame cache cannot be null");
+    }
+    if (worker == null || clock == null) {
+      throw new IllegalArgumentException("The worker and clock cannot be null");
+    }
+    this.uiExecutor = uiExecutor;
+    this.ladder = ladder;
+    this.cache = cache;
+    this.escapeTimes = new EscapeTimeBuffer[ladder.getLevelCount()];
+    this.clock = clock;
+    this.lastStartNanos = clock.getAsLong() - MIN_FRAME_INTERVAL_NANOS;
+    this.worker = worker;
+  }
+
+  /**
+   * Renders the given request on the render thread, and gives the frames to the given consumer
+   * on the application thread, first the preview and then every refinement. The request
+   * replaces any request still waiting, which is then never rendered, and stops the refinement
+   * of the previous request. If the request cannot be rendered, the failure is logged and the
+   * consumer is not called.
+   *
+   * @param request the request to render
+   * @param onFrame the consumer of the finished frames
+   * @since 1.0
+   */
+  public void submit(RenderRequest request, Consumer<RenderedFrame> onFrame) {
+    submit(request, onFrame, List.of());
+  }
+
+  /**
+   * Renders the given request like {@link #submit(RenderRequest, Consumer)}, unless its frame
+   * is cached, then the cached frame is given to the consumer at once. Once the request is
+   * rendered and no newer request is made, the given speculative requests are rendered into the
+   * cache, in order, for views the user is likely to go to next.
+   *
+   * @param request the request to render
+   * @param onFrame the consumer of the finished frames
+   * @param speculative the requests to render ahead, the most likely first
+   * @since 1.4
+   */
+  public void submit(
+      RenderRequest request, Consumer<RenderedFrame> onFrame, List<RenderRequest> speculative
+  ) {
+    PendingRender render = new PendingRender(
+        request, onFrame, List.copyOf(speculative), generation.incrementAndGet()
+    );
+    ChaosGame background = refining.get();
+    if (background != null) {
+      background.cancel();
+    }
+
+    RenderedFrame cached = cache.get(request);
+    if (cached != null) {
+      // Frames of older requests still rendering are not handed back after the cached frame
+      servedGeneration.set(render.generation());
+      pending.set(null);
+      uiExecutor.execute(() -> onFrame.accept(cached));
+      schedule(() -> prefetch(render, 0, PREFETCH_STEP_BUDGET), REFINE_IDLE_MILLIS);
+      return;
+    }
+
+    pending.set(render);
+    if (scheduled.compareAndSet(false, true)) {
+      long delay = lastStartNanos + MIN_FRAME_INTERVAL_NANOS - clock.getAsLong();
+      worker.schedule(this::renderPending, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Renders the latest pending request at the first level, if any, and schedules the next
+   * level. Runs on the render thread.
+   * The schedule is released before the request is taken, so a request submitted during the
+   * render schedules the next one.
+   *
+   * @since 1.1
+   */
+  private void renderPending() {
+    scheduled.set(false);
+    PendingRender latest = pending.getAndSet(null);
+    if (latest == null) {
+      return;
+    }
+    lastStartNanos = clock.getAsLong();
+    RenderRequest request = latest.request().atLevel(ladder, 0);
+    RenderedFrame frame = renderLevel(request, 0, request.createGame(), true);
+    if (frame != null && latest.generation() > servedGeneration.get()) {
+      handBack(latest, 0, frame, REFINE_IDLE_MILLIS);
+    }
+  }
+
+  /**
+   * Renders the given request at the given level, if no newer request is submitted in the
+   * meantime, and schedules the next level. Runs on the render thread.
+   *
+   * @since 1.2
+   */
+  private void refine(PendingRender render, int level) {
+    if (generation.get() != render.generation()) {
+      return;
+    }
+    RenderRequest request = render.request().atLevel(ladder, level);
+    ChaosGame game = createBackgroundGame(request, render.generation());
+    RenderedFrame frame = renderLevel(request, level, game, true);
+    refining.set(null);
+    if (frame != null) {
+      handBack(render, level, frame, 0);
+    }
+  }
+
+  /**
+   * Renders the first speculative request of the given request from the given index that is
+   * not cached yet, and fits in the given number of steps left, into the cache, if no newer
+   * request is submitted or waiting in the meantime, and schedules the next one. Runs on the
+   * render thread.
+   *
+   * @since 1.4
+   */
+  private void prefetch(PendingRender render, int index, long budget) {
+    int limit = Math.min(render.speculative().size(), PREFETCH_LIMIT);
+    while (index < limit && (cache.contains(render.speculative().get(index))
+        || getCost(render.speculative().get(index)) > budget)) {
+      index++;
+    }
+    // Speculative work never delays a request the user is waiting for
+    if (index >= limit || generation.get() != render.generation() || pending.get() != null) {
+      return;
+    }
+
+    RenderRequest speculative = render.speculative().get(index);
+    int level = ladder.getLevelCount() - 1;
+    RenderRequest request = speculative.atLevel(ladder, level);
+    ChaosGame game = createBackgroundGame(request, render.generation());
+    RenderedFrame frame;
+    try {
+      // The escape times of the view are reused, but not replaced by those of a guess
+      frame = renderLevel(request, level, game, false);
+    } finally {
+      refining.set(null);
+    }
+    if (frame != null) {
+      cache.put(speculative, frame);
+    }
+    int next = index + 1;
+    long left = budget - getCost(request);
+    schedule(() -> prefetch(render, next, left), 0);
+  }
+
+  /**
+   * Returns the number of steps of the given request counted against the prefetch budget, one
+   * per pixel for inverse Julia sets, which iterate every pixel instead of running steps.
+   *
+   * @since 1.5
+   */
+  static long getCost(RenderRequest request) {
+    return request.isInverse()
+        ? (long) request.getWidth() * request.getHeight()
+        : request.getSteps();
+  }
+
+  /**
+   * Returns a new chaos game of the given request for rendering in the background, published so
+   * newer requests can cancel it. Cancelled at once if the given generation is already old.
+   *
+   * @since 1.4
+   */
+  private ChaosGame createBackgroundGame(RenderRequest request, long requestGeneration) {
+    ChaosGame game = request.createGame();
+    refining.set(game);
+    // Checked again after publishing the game, so a newer request either sees it or is seen
+    if (generation.get() != requestGeneration) {
+      game.cancel();
+    }
+    return game;
+  }
+
+  /**
+   * Returns the chaos game of the refinement or prefetch being rendered, or null if none is.
+   *
+   * @return the chaos game rendered in the background, or null
+   * @since 1.6
+   */
+  ChaosGame getBackgroundGame() {
+    return refining.get();
+  }
+
+  /**
+   * Hands the given frame of the given level back to the consumer of the given request. Then
+   * schedules the next level after the given delay, or schedules the prefetch if it was the
+   * last level, and the frame is cached.
+   *
+   * @since 1.4
+   */
+  private void handBack(PendingRender render, int level, RenderedFrame frame, long delayMillis) {
+    boolean last = level + 1 == ladder.getLevelCount();
+    if (last) {
+      // Cached first, so the same request made on seeing the frame hits the cache
+      cache.put(render.request(), frame);
+    }
+    uiExecutor.execute(() -> render.onFrame().accept(frame));
+    if (last) {
+      schedule(() -> prefetch(render, 0, PREFETCH_STEP_BUDGET), delayMillis);
+    } else {
+      schedule(() -> refine(render, level + 1), delayMillis);
+    }
+  }
+
+  /**
+   * Schedules the given task on the render thread after the given delay, unless the render
+   * thread is stopped.
+   *
+   * @since 1.4
+   */
+  private void schedule(Runnable task, long delayMillis) {
+    if (!worker.isShutdown()) {
+      worker.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Renders the given request at the given level with the given chaos game of the request,
+   * reusing the escape times of the last inverse render at the level, and closes the chaos game.
+   * The escape times of the render replace those of the level if they are to be kept.
+   *
+   * @since 1.3
+   */
+  private RenderedFrame renderLevel(
+      RenderRequest request, int level, ChaosGame game, boolean keepEscapeTimes
+  ) {
+    game.setEscapeTimes(escapeTimes[level]);
+    try {
+      return render(request, game);
+    } finally {
+      if (keepEscapeTimes && game.getEscapeTimes() != null) {
+        escapeTimes[level] = game.getEscapeTimes();
+      }
+      game.close();
+    }
+  }
+
+  /**
+   * Renders the given request on the calling thread.
+   *
+   * @param request the request to render
+   * @return the finished frame, or null if the request could not be rendered
+   * @since 1.0
+   */
+  static RenderedFrame render(RenderRequest request) {
+    ChaosGame game = request.createGame();
+    try {
+      return render(request, game);
+    } finally {
+      game.close();
+    }
+  }
+
+  /**
+   * Renders the given request with the given chaos game of the request on the calling thread.
+   *
+   * @return the finished frame, or null if the request could not be rendered or was cancelled
+   * @since 1.2
+   */
+  private static RenderedFrame render(RenderRequest request, ChaosGame game) {
+    try {
+      if (request.isInverse()) {
+        game.runInverse();
+      } else {
+        game.runSteps(request.getSteps());
+      }
+      if (game.isCancelled()) {
+        return null;
+      }
+
+      try (CanvasSnapshot snapshot = game.acquireSnapshot()) {
+        int[] pixels = new int[snapshot.getWidth() * snapshot.getHeight()];
+        request.getToneMapper().map(snapshot, pixels);
+        return new RenderedFrame(request, pixels);
+      }
+    } catch (IllegalAccessException e) {
+      Logger.getLogger(RenderExecutor.class.getName())
+          .severe("Inverse Julia set can only be run with JuliaTransform. " + e);
+      return null;
+    } catch (RuntimeException e) {
+      Logger.getLogger(RenderExecutor.class.getName())
+          .warning("Could not render the chaos game. " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Stops the render thread. Requests that are not started are dropped, and the running render
+   * is cancelled if it is a refinement or prefetch.
+   *
+   * @since 1.0
+   */
+  @Override
+  public void close() {
+    pending.set(null);
+    generation.incrementAndGet();
+    ChaosGame refinement = refining.get();
+    if (refinement != null) {
+      refinement.cancel();
+    }
+    worker.shutdownNow();
+  }
+
+  /**
+   * Represents a request waiting for the render thread, with the consumer of its frames, the
+   * requests to render ahead after it, and the number of requests submitted up to it.
+   *
+   * @since 1.1
+   */
+  private record PendingRender(
+      RenderRequest request, Consumer<RenderedFrame> onFrame, List<RenderRequest> speculative,
+      long generation
+  ) {
+  }
+}
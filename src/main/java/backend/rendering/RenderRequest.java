@@ -0,0 +1,289 @@
+package backend.rendering;
+
+import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
+import backend.core.SamplingMode;
+import backend.core.SplatMode;
+import backend.core.canvas.CanvasStorageType;
+import backend.core.canvas.ToneMapper;
+import backend.geometry.Vector;
+import java.util.Objects;
+
+/**
+ * Represents everything needed to render a frame of a chaos game, apart from the chaos game.
+ * The description is copied when the request is made, so the user can keep editing the
+ * description of the chaos game on the application thread while the frame is rendered on
+ * another. The copy is never handed out, so requests are immutable and can key a cache.
+ * A request can be scaled down to a level of a {@link QualityLadder}, for previews.
+ * Requests are equal if they render the same frame, so they can key a {@link FrameCache}. Tone
+ * mappers are compared by identity, they are only rebuilt when the coloring changes.
+ * A rectangle of the view can be rendered on its own, at another size and number of steps.
+ *
+ * @version 1.4
+ * @author proggang
+ * @since 19.10.2026
+ */
+public final class RenderRequest {
+  private final ChaosGameDescription description;
+  private final int width;
+  private final int height;
+  private final int steps;
+  private final boolean inverse;
+  private final SamplingMode samplingMode;
+  private final SplatMode splatMode;
+  private final int supersampling;
+  private final CanvasStorageType storageType;
+  private final boolean transformColors;
+  private final ToneMapper toneMapper;
+  private final boolean preview;
+
+  /**
+   * Constructs a new request to render the given chaos game as it is now, with its size and
+   * settings.
+   *
+   * @param game the chaos game to render
+   * @param steps the number of steps to run
+   * @param inverse true to render the inverse Julia set, false to run the steps
+   * @param toneMapper the tone mapper coloring the frame
+   * @throws IllegalArgumentException if the chaos game or tone mapper is null
+   * @since 1.0
+   */
+  public RenderRequest(ChaosGame game, int steps, boolean inverse, ToneMapper toneMapper)
+      throws IllegalArgumentException {
+    if (game == null || toneMapper == null) {
+      throw new IllegalArgumentException("The chaos game and tone mapper cannot be null");
+    }
+    this.description = game.getDescription().copy();
+    this.width = game.getWidth();
+    this.height = game.getHeight();
+    this.steps = steps;
+    this.inverse = inverse;
+    this.samplingMode = game.getSamplingMode();
+    this.splatMode = game.getSplatMode();
+    this.supersampling = game.getSupersampling();
+    this.storageType = game.getStorageType();
+    this.transformColors = game.isTransformColors();
+    this.toneMapper = toneMapper;
+    this.preview = false;
+  }
+
+  /**
+   * Constructs a copy of the given request, at the given size and number of steps.
+   *
+   * @since 1.1
+   */
+  private RenderRequest(
+      RenderRequest request, ChaosGameDescription description, int width, int height, int steps,
+      boolean preview
+  ) {
+    this.description = description;
+    this.width = width;
+    this.height = height;
+    this.steps = steps;
+    this.inverse = request.inverse;
+    this.samplingMode = request.samplingMode;
+    this.splatMode = request.splatMode;
+    this.supersampling = request.supersampling;
+    this.storageType = request.storageType;
+    this.transformColors = request.transformColors;
+    this.toneMapper = request.toneMapper;
+    this.preview = preview;
+  }
+
+  /**
+   * Returns this request scaled down to the given level of the given ladder. The width, height
+   * and steps are divided, but kept at least 1. The copied description is shared.
+   * The last level of full detail is this request itself.
+   *
+   * @param ladder the ladder of levels
+   * @param level the level to scale to, from 0
+   * @return the request at the level, a preview unless it is the last level
+   * @throws IllegalArgumentException if the level is not in the ladder
+   * @since 1.1
+   */
+  public RenderRequest atLevel(QualityLadder ladder, int level) throws IllegalArgumentException {
+    if (level < 0 || level >= ladder.getLevelCount()) {
+      throw new IllegalArgumentException("The level is not in the quality ladder");
+    }
+    int divisor = ladder.getResolutionDivisor(level);
+    boolean last = level == ladder.getLevelCount() - 1;
+    if (last && divisor == 1 && ladder.getStepFraction(level) == 1) {
+      return this;
+    }
+    return new RenderRequest(
+        this,
+        description,
+        Math.max(width / divisor, 1),
+        Math.max(height / divisor, 1),
+        (int) Math.max(Math.round(steps * ladder.getStepFraction(level)), 1),
+        !last
+    );
+  }
+
+  /**
+   * Returns a copy of this request rendering the given description instead, with the same size
+   * and settings. Used for speculative requests of views the user is likely to go to next.
+   * The description is copied, so it may be changed afterwards.
+   *
+   * @param description the description to render
+   * @return the request of the given description
+   * @throws IllegalArgumentException if the description is null
+   * @since 1.2
+   */
+  public RenderRequest withDescription(ChaosGameDescription description)
+      throws IllegalArgumentException {
+    if (description == null) {
+      throw new IllegalArgumentException("The description cannot be null");
+    }
+    return new RenderRequest(this, description.copy(), width, height, steps, preview);
+  }
+
+  /**
+   * Returns a copy of this request rendering only the given rectangle of the view, at the given
+   * size and number of steps, with the same settings. The description is copied with the
+   * rectangle as its view, and this request is not changed.
+   * Affine descriptions zoomed in this way only sample the pieces of the attractor in the
+   * rectangle, and inverse Julia sets only iterate the pixels of the rectangle.
+   *
+   * @param minCoords the minimum coordinates of the rectangle
+   * @param maxCoords the maximum coordinates of the rectangle
+   * @param width the width of the frame of the rectangle
+   * @param height the height of the frame of the rectangle
+   * @param steps the number of steps to run
+   * @return the request of the rectangle
+   * @throws IllegalArgumentException if the rectangle is empty or the size is not positive
+   * @since 1.3
+   */
+  public RenderRequest forRegion(
+      Vector minCoords, Vector maxCoords, int width, int height, int steps
+  ) throws IllegalArgumentException {
+    if (!(minCoords.getElement(0) < maxCoords.getElement(0))
+        || !(minCoords.getElement(1) < maxCoords.getElement(1))) {
+      throw new IllegalArgumentException("The minimum coordinates must be below the maximum");
+    }
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The width and height must be positive");
+    }
+    ChaosGameDescription region = description.copy();
+    for (int i = 0; i < 2; i++) {
+      region.getMinCoords().setElement(i, minCoords.getElement(i));
+      region.getMaxCoords().setElement(i, maxCoords.getElement(i));
+    }
+    return new RenderRequest(this, region, width, height, steps, false);
+  }
+
+  /**
+   * Returns a new chaos game of the copied description, with the size and settings of the
+   * request. The caller must close the chaos game when done.
+   *
+   * @return a new chaos game for rendering the request
+   * @since 1.0
+   */
+  public ChaosGame createGame() {
+    ChaosGame game = new ChaosGame(description, width, height);
+    game.setSamplingMode(samplingMode);
+    game.setSplatMode(splatMode);
+    game.setTransformColors(transformColors);
+    if (storageType != game.getStorageType()) {
+      game.setStorageType(storageType);
+    }
+    if (supersampling != game.getSupersampling()) {
+      game.setSupersampling(supersampling);
+    }
+    return game;
+  }
+
+  /**
+   * Returns a copy of the description to render. Changing it does not change the request.
+   *
+   * @return a copy of the description of the request
+   * @since 1.0
+   */
+  public ChaosGameDescription getDescription() {
+    return description.copy();
+  }
+
+  /**
+   * Returns the width of the frame.
+   *
+   * @return the width of the frame
+   * @since 1.0
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the frame.
+   *
+   * @return the height of the frame
+   * @since 1.0
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the number of steps to run.
+   *
+   * @return the number of steps
+   * @since 1.0
+   */
+  public int getSteps() {
+    return steps;
+  }
+
+  /**
+   * Returns whether the inverse Julia set is rendered instead of running the steps.
+   *
+   * @return true if the inverse Julia set is rendered, false otherwise
+   * @since 1.0
+   */
+  public boolean isInverse() {
+    return inverse;
+  }
+
+  /**
+   * Returns the tone mapper coloring the frame.
+   *
+   * @return the tone mapper of the request
+   * @since 1.0
+   */
+  public ToneMapper getToneMapper() {
+    return toneMapper;
+  }
+
+  /**
+   * Returns whether the request is a preview, at a lower level of detail than the final frame.
+   *
+   * @return true if the request is a preview, false otherwise
+   * @since 1.1
+   */
+  public boolean isPreview() {
+    return preview;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RenderRequest that = (RenderRequest) o;
+    return width == that.width && height == that.height && steps == that.steps
+        && inverse == that.inverse && supersampling == that.supersampling
+        && transformColors == that.transformColors && preview == that.preview
+        && samplingMode == that.samplingMode && splatMode == that.splatMode
+        && storageType == that.storageType && toneMapper == that.toneMapper
+        && description.equals(that.description);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(description, width, height, steps, inverse, samplingMode, splatMode,
+        supersampling, storageType, transformColors, System.identityHashCode(toneMapper),
+        preview);
+  }
+}
@@ -0,0 +1,103 @@
+package backend.rendering;
+
+import backend.core.canvas.PpmWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Represents a finished frame, the colors of every pixel of a rendered chaos game.
+ * The colors are packed ARGB integers premultiplied by their alpha, row by row, ready to be
+ * copied into a pixel buffer.
+ * Frames can be exported as PPM images.
+ *
+ * @version 1.1
+ * @author proggang
+ * @since 19.10.2026
+ */
+public final class RenderedFrame {
+  private final RenderRequest request;
+  private final int[] pixels;
+
+  /**
+   * Constructs a new frame of the given request, with the given colors. The colors are not
+   * copied, and must not be changed afterwards.
+   *
+   * @param request the request the frame was rendered for
+   * @param pixels the colors of the pixels, row by row
+   * @throws IllegalArgumentException if there are fewer colors than pixels
+   * @since 1.0
+   */
+  public RenderedFrame(RenderRequest request, int[] pixels) throws IllegalArgumentException {
+    if (pixels.length < request.getWidth() * request.getHeight()) {
+      throw new IllegalArgumentException("The frame needs a color for every pixel");
+    }
+    this.request = request;
+    this.pixels = pixels;
+  }
+
+  /**
+   * Returns the request the frame was rendered for.
+   *
+   * @return the request of the frame
+   * @since 1.0
+   */
+  public RenderRequest getRequest() {
+    return request;
+  }
+
+  /**
+   * Returns the width of the frame.
+   *
+   * @return the width of the frame
+   * @since 1.0
+   */
+  public int getWidth() {
+    return request.getWidth();
+  }
+
+  /**
+   * Returns the height of the frame.
+   *
+   * @return the height of the frame
+   * @since 1.0
+   */
+  public int getHeight() {
+    return request.getHeight();
+  }
+
+  /**
+   * Returns the colors of the pixels, without copying. The colors must not be changed.
+   *
+   * @return the packed, premultiplied ARGB colors, row by row
+   * @since 1.0
+   */
+  public int[] getPixels() {
+    return pixels;
+  }
+
+  /**
+   * Writes the frame to the given file as a binary PPM image. PPM images have no alpha, so the
+   * colors are drawn over white, like on the canvas. An existing file is overwritten.
+   *
+   * @param path the path of the image file
+   * @throws IOException if the file can not be written
+   * @since 1.1
+   */
+  public void writePpm(Path path) throws IOException {
+    int width = getWidth();
+    int[] row = new int[width];
+    try (PpmWriter writer = new PpmWriter(path, width, getHeight())) {
+      for (int y = 0; y < getHeight(); y++) {
+        for (int x = 0; x < width; x++) {
+          int color = pixels[y * width + x];
+          // Premultiplied, so white shows through by the missing alpha
+          int background = 255 - (color >>> 24);
+          row[x] = (((color >> 16) & 0xff) + background) << 16
+              | (((color >> 8) & 0xff) + background) << 8
+              | ((color & 0xff) + background);
+        }
+        writer.writeRow(row, 0);
+      }
+    }
+  }
+}
@@ -8,7 +8,7 @@ import java.util.Objects;
  * Represents a 2-dimensional affine transformation.
  * Supports transformation of vectors.
  *
- * @version 1.3
+ * @version 1.4
  * @author proggang
  * @since 10.03.2024
  */
@@ -109,6 +109,20 @@ public class AffineTransform implements Transform {
   }
 
 
+  /**
+   * Returns a deep copy of this transformation, with copies of the matrix and vector.
+   *
+   * @return a copy of this transformation
+   * @since 1.4
+   */
+  @Override
+  public AffineTransform copy() {
+    return new AffineTransform(
+        new MatrixNxN(matrix.getAllElements().mapToDouble(Double::doubleValue).toArray()),
+        new Vector(vector.getAllElements().mapToDouble(Double::doubleValue).toArray())
+    );
+  }
+
   /**
    * Returns the matrix of this transformation.
    *
@@ -0,0 +1,250 @@
+package backend.transforms;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Represents a 2-dimensional flame transformation.
+ * A point is first moved by an affine pre-transform, then by the weighted sum of one or more
+ * nonlinear {@link Variation variations}.
+ * Supports transforming single vectors, and whole batches of points through a
+ * {@link VariationKernel} without allocating. Single points in arrays are transformed in place
+ * through scratch buffers of the calling thread, also without allocating.
+ *
+ * @version 1.2
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class FlameTransform implements Transform {
+  // Scratch buffers for single points, one set per thread
+  private static final ThreadLocal<PointScratch> POINT_SCRATCH =
+      ThreadLocal.withInitial(PointScratch::new);
+
+  private final AffineTransform affine;
+  private final Map<Variation, Double> weights;
+
+  // Flattened copies of the weights, read by the batched kernel
+  private final Variation[] variations;
+  private final double[] variationWeights;
+  private final boolean needsRadius;
+  private final boolean needsTheta;
+
+  /**
+   * Constructs a new flame transformation with the given 2-dimensional affine pre-transform and
+   * variation weights. Variations with a weight of 0 are left out.
+   *
+   * @param affine the affine pre-transform
+   * @param weights the weight of each variation
+   * @throws IllegalArgumentException if the affine transform is null or not 2-dimensional,
+   *     or if there are no weights
+   * @since 1.0
+   */
+  public FlameTransform(AffineTransform affine, Map<Variation, Double> weights)
+      throws IllegalArgumentException {
+    if (affine == null || affine.getMatrix().getSize() != 2 || affine.getVector().getSize() != 2) {
+      throw new IllegalArgumentException("Flame transforms need a 2-dimensional affine transform");
+    }
+    if (weights == null || weights.isEmpty()) {
+      throw new IllegalArgumentException("Flame transforms need at least one variation");
+    }
+    this.affine = affine;
+    this.weights = new EnumMap<>(Variation.class);
+    weights.forEach((variation, weight) -> {
+      if (weight != 0) {
+        this.weights.put(variation, weight);
+      }
+    });
+
+    this.variations = this.weights.keySet().toArray(new Variation[0]);
+    this.variationWeights = new double[variations.length];
+    boolean radius = false;
+    boolean theta = false;
+    for (int i = 0; i < variations.length; i++) {
+      variationWeights[i] = this.weights.get(variations[i]);
+      radius |= variations[i].needsRadius();
+      theta |= variations[i].needsTheta();
+    }
+    this.needsRadius = radius;
+    this.needsTheta = theta;
+  }
+
+  /**
+   * Transforms the given vector.
+   * Prefer {@link #transformBatch(double[], double[], int, int, VariationKernel)} for many
+   * points, or {@link #transformPoint(double[])}, which do not allocate.
+   *
+   * @param v the vector to transform
+   * @return the transformed vector
+   * @since 1.0
+   */
+  @Override
+  public Vector transform(Vector v) {
+    if (v == null) {
+      return null;
+    }
+    double[] point = {v.getElement(0), v.getElement(1)};
+    transformPoint(point);
+    return new Vector(point[0], point[1]);
+  }
+
+  /**
+   * Transforms the given point in place, through scratch buffers of the calling thread, without
+   * allocating.
+   *
+   * @param point the x and y coordinates of the point
+   * @since 1.2
+   */
+  public void transformPoint(double[] point) {
+    PointScratch scratch = POINT_SCRATCH.get();
+    scratch.xs[0] = point[0];
+    scratch.ys[0] = point[1];
+    transformBatch(scratch.xs, scratch.ys, 0, 1, scratch.kernel);
+    point[0] = scratch.xs[0];
+    point[1] = scratch.ys[0];
+  }
+
+  /**
+   * Transforms a batch of points in place.
+   * The points are read from and written back to the given coordinate arrays, starting at the
+   * given offset. The polar values shared by the variations are computed once per batch.
+   *
+   * @param xs the x coordinates of the points
+   * @param ys the y coordinates of the points
+   * @param offset the index of the first point in the batch
+   * @param count the number of points in the batch
+   * @param kernel the scratch buffers to use, not shared between threads
+   * @since 1.0
+   */
+  public void transformBatch(
+      double[] xs, double[] ys, int offset, int count, VariationKernel kernel
+  ) {
+    kernel.ensureCapacity(count);
+
+    MatrixNxN matrix = affine.getMatrix();
+    Vector vector = affine.getVector();
+    double a = matrix.getElement(0, 0);
+    double b = matrix.getElement(0, 1);
+    double c = matrix.getElement(1, 0);
+    double d = matrix.getElement(1, 1);
+    double e = vector.getElement(0);
+    double f = vector.getElement(1);
+
+    for (int i = 0; i < count; i++) {
+      double x = xs[offset + i];
+      double y = ys[offset + i];
+      kernel.x[i] = a * x + b * y + e;
+      kernel.y[i] = c * x + d * y + f;
+      kernel.outX[i] = 0;
+      kernel.outY[i] = 0;
+    }
+
+    kernel.preparePolar(count, needsRadius, needsTheta);
+    for (int v = 0; v < variations.length; v++) {
+      variations[v].accumulate(kernel, count, variationWeights[v]);
+    }
+
+    System.arraycopy(kernel.outX, 0, xs, offset, count);
+    System.arraycopy(kernel.outY, 0, ys, offset, count);
+  }
+
+  /**
+   * Inverse transform of flame.
+   * DO NOT USE!
+   *
+   * @param v the vector to transform
+   * @return 0
+   * @deprecated DO NOT USE!
+   */
+  @Deprecated
+  @Override
+  public int inverseTransform(Vector v) {
+    return 0;
+  }
+
+  /**
+   * Returns the details of this transformation.
+   * The details are the values of the affine pre-transform, followed by a '|' and the name and
+   * weight of each variation.
+   * Example: "0.5, 0.0, 0.0, 0.5, 0.0, 0.0 | swirl 0.5, spherical 0.5".
+   *
+   * @return A string representation of the details of this transformation
+   * @since 1.0
+   */
+  @Override
+  public String getDetailsAsString() {
+    StringBuilder result = new StringBuilder(affine.getDetailsAsString()).append(" | ");
+
+    weights.forEach((variation, weight) -> result.append(variation.name().toLowerCase())
+        .append(" ")
+        .append(weight)
+        .append(", "));
+    // Delete last ", "
+    result.delete(result.length() - 2, result.length());
+
+    return String.valueOf(result);
+  }
+
+  /**
+   * Returns a deep copy of this transformation, with a copy of the affine pre-transform.
+   *
+   * @return a copy of this transformation
+   * @since 1.1
+   */
+  @Override
+  public FlameTransform copy() {
+    return new FlameTransform(affine.copy(), weights);
+  }
+
+  /**
+   * Returns the affine pre-transform of this transformation.
+   * The matrix and vector of the pre-transform may be edited in place.
+   *
+   * @return the affine pre-transform
+   * @since 1.0
+   */
+  public AffineTransform getAffine() {
+    return affine;
+  }
+
+  /**
+   * Returns the weight of each variation of this transformation.
+   *
+   * @return a copy of the variation weights
+   * @since 1.0
+   */
+  public Map<Variation, Double> getWeights() {
+    return new EnumMap<>(weights);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FlameTransform that = (FlameTransform) o;
+    return Objects.equals(getAffine(), that.getAffine())
+        && Objects.equals(weights, that.weights);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getAffine(), weights);
+  }
+
+  /**
+   * Represents the scratch buffers for transforming a single point.
+   *
+   * @since 1.2
+   */
+  private static final class PointScratch {
+    private final VariationKernel kernel = new VariationKernel(1);
+    private final double[] xs = new double[1];
+    private final double[] ys = new double[1];
+  }
+}
@@ -8,7 +8,7 @@ import java.util.Objects;
  * Represents a 2-dimensional transformation.
  * Supports transformation of vectors.
  *
- * @version 1.3
+ * @version 1.8
  * @author proggang
  * @since 10.03.2024
  */
@@ -98,11 +98,12 @@ public class JuliaTransform implements Transform {
   /**
    * Checks if the given vector is in the Julia set. The check is based on the formula: z = z^2 +
    * point. 3
-   * The method returns the number of iterations before the point diverges. If the point is inside
-   * the Julia set, the method returns 0.
+   * The method returns the iteration the point diverges at, counting from 1, so points that
+   * start outside the escape radius return 1. If the point is inside the Julia set, the method
+   * returns 0.
    *
    * @param v the vector to transform
-   * @return the number if iterations;
+   * @return the iteration the point diverges at, or 0 inside the Julia set
    * @since 1.0
    */
   public int inverseTransform(Vector v) {
@@ -123,7 +124,7 @@ public class JuliaTransform implements Transform {
 
       // Check if the point diverges
       if (realSquared + imagSquared > 4) {
-        return i;  // loop exit condition
+        return i + 1;  // loop exit condition, 0 is kept for points inside
       }
 
       // Apply the inverse Julia iteration formula
@@ -148,6 +149,16 @@ public class JuliaTransform implements Transform {
     return sign;
   }
 
+  /**
+   * Returns the power of the root used by this transformation.
+   *
+   * @return the power of this transformation
+   * @since 1.5
+   */
+  public int getPower() {
+    return power;
+  }
+
   /**
    * Returns the details of this transformation. The details include the point and the sign of this
    * transformation.
@@ -168,6 +179,20 @@ public class JuliaTransform implements Transform {
     return String.valueOf(result);
   }
 
+  /**
+   * Returns a deep copy of this transformation, with a copy of the point.
+   *
+   * @return a copy of this transformation
+   * @since 1.6
+   */
+  @Override
+  public JuliaTransform copy() {
+    return new JuliaTransform(
+        new Complex(point.getAllElements().mapToDouble(Double::doubleValue).toArray()),
+        sign, power
+    );
+  }
+
   /**
    * Returns the point of this transformation.
    *
@@ -187,11 +212,12 @@ public class JuliaTransform implements Transform {
       return false;
     }
     JuliaTransform that = (JuliaTransform) o;
-    return sign == that.sign && Objects.equals(getPoint(), that.getPoint());
+    return sign == that.sign && power == that.power
+        && Objects.equals(getPoint(), that.getPoint());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getPoint(), sign);
+    return Objects.hash(getPoint(), sign, power);
   }
 }
\ No newline at end of file
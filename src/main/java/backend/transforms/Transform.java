@@ -6,7 +6,7 @@ import backend.geometry.Vector;
  * Represents an N-dimensional transformation.
  * Supports transformation of vectors.
  *
- * @version 1.0
+ * @version 1.1
  * @author proggang
  * @since 10.03.2024
  */
@@ -24,4 +24,13 @@ public interface Transform {
   int inverseTransform(Vector v);
 
   String getDetailsAsString();
+
+  /**
+   * Returns a deep copy of this transformation, that is not changed when this one is edited,
+   * so it can be read by another thread.
+   *
+   * @return a copy of this transformation
+   * @since 1.1
+   */
+  Transform copy();
 }
@@ -0,0 +1,161 @@
+package backend.transforms;
+
+/**
+ * Represents the nonlinear variations of a {@link FlameTransform}.
+ * Every variation works on a whole batch of points in a {@link VariationKernel}, adding its
+ * weighted result to the output buffers, so the loops are free of allocations and of any
+ * switching between variations.
+ * The formulas follow the original fractal flame algorithm.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public enum Variation {
+  LINEAR(false, false) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        k.outX[i] += weight * k.x[i];
+        k.outY[i] += weight * k.y[i];
+      }
+    }
+  },
+  SINUSOIDAL(false, false) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        k.outX[i] += weight * Math.sin(k.x[i]);
+        k.outY[i] += weight * Math.sin(k.y[i]);
+      }
+    }
+  },
+  SPHERICAL(true, false) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double scale = weight / k.radiusSquared[i];
+        k.outX[i] += scale * k.x[i];
+        k.outY[i] += scale * k.y[i];
+      }
+    }
+  },
+  SWIRL(true, false) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double sin = Math.sin(k.radiusSquared[i]);
+        double cos = Math.cos(k.radiusSquared[i]);
+        k.outX[i] += weight * (k.x[i] * sin - k.y[i] * cos);
+        k.outY[i] += weight * (k.x[i] * cos + k.y[i] * sin);
+      }
+    }
+  },
+  HORSESHOE(true, false) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double scale = weight / k.radius[i];
+        k.outX[i] += scale * (k.x[i] - k.y[i]) * (k.x[i] + k.y[i]);
+        k.outY[i] += scale * 2 * k.x[i] * k.y[i];
+      }
+    }
+  },
+  POLAR(true, true) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        k.outX[i] += weight * k.theta[i] / Math.PI;
+        k.outY[i] += weight * (k.radius[i] - 1);
+      }
+    }
+  },
+  HANDKERCHIEF(true, true) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double scale = weight * k.radius[i];
+        k.outX[i] += scale * Math.sin(k.theta[i] + k.radius[i]);
+        k.outY[i] += scale * Math.cos(k.theta[i] - k.radius[i]);
+      }
+    }
+  },
+  HEART(true, true) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double angle = k.theta[i] * k.radius[i];
+        double scale = weight * k.radius[i];
+        k.outX[i] += scale * Math.sin(angle);
+        k.outY[i] -= scale * Math.cos(angle);
+      }
+    }
+  },
+  DISC(true, true) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double angle = Math.PI * k.radius[i];
+        double scale = weight * k.theta[i] / Math.PI;
+        k.outX[i] += scale * Math.sin(angle);
+        k.outY[i] += scale * Math.cos(angle);
+      }
+    }
+  },
+  SPIRAL(true, true) {
+    @Override
+    void accumulate(VariationKernel k, int count, double weight) {
+      for (int i = 0; i < count; i++) {
+        double scale = weight / k.radius[i];
+        k.outX[i] += scale * (Math.cos(k.theta[i]) + Math.sin(k.radius[i]));
+        k.outY[i] += scale * (Math.sin(k.theta[i]) - Math.cos(k.radius[i]));
+      }
+    }
+  };
+
+  private final boolean needsRadius;
+  private final boolean needsTheta;
+
+  /**
+   * Constructs a variation, with the polar values it reads from the kernel.
+   *
+   * @param needsRadius whether the variation reads the radius
+   * @param needsTheta whether the variation reads the angle
+   * @since 1.0
+   */
+  Variation(boolean needsRadius, boolean needsTheta) {
+    this.needsRadius = needsRadius;
+    this.needsTheta = needsTheta;
+  }
+
+  /**
+   * Returns whether the variation reads the radius of the points.
+   *
+   * @return true if the radius is needed, false otherwise
+   * @since 1.0
+   */
+  public boolean needsRadius() {
+    return needsRadius;
+  }
+
+  /**
+   * Returns whether the variation reads the angle of the points.
+   *
+   * @return true if the angle is needed, false otherwise
+   * @since 1.0
+   */
+  public boolean needsTheta() {
+    return needsTheta;
+  }
+
+  /**
+   * Adds the weighted result of this variation for the first points of the kernel to its
+   * output buffers.
+   *
+   * @param kernel the kernel holding the points and the shared polar values
+   * @param count the number of points in the batch
+   * @param weight the weight of this variation
+   * @since 1.0
+   */
+  abstract void accumulate(VariationKernel kernel, int count, double weight);
+}
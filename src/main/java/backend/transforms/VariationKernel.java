@@ -0,0 +1,84 @@
+package backend.transforms;
+
+/**
+ * Represents the scratch buffers of the batched variation kernel.
+ * A batch of points is transformed by the affine part of a {@link FlameTransform} into these
+ * buffers, the shared polar values are computed once for the whole batch, and every active
+ * {@link Variation} adds its weighted result to the output buffers.
+ * The buffers are reused between batches, so transforming points does not allocate.
+ * A kernel must only be used by one thread at a time.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class VariationKernel {
+  // Small enough to avoid division by zero, like in the original flame algorithm
+  static final double EPSILON = 1e-10;
+
+  double[] x;
+  double[] y;
+  double[] radiusSquared;
+  double[] radius;
+  double[] theta;
+  double[] outX;
+  double[] outY;
+
+  /**
+   * Constructs a new kernel with buffers for the given number of points.
+   * The buffers grow when a larger batch is transformed.
+   *
+   * @param capacity the initial number of points per batch
+   * @since 1.0
+   */
+  public VariationKernel(int capacity) {
+    allocate(Math.max(capacity, 1));
+  }
+
+  /**
+   * Makes sure the buffers can hold the given number of points.
+   *
+   * @param count the number of points in the next batch
+   * @since 1.0
+   */
+  void ensureCapacity(int count) {
+    if (count > x.length) {
+      allocate(count);
+    }
+  }
+
+  /**
+   * Computes the polar values shared by the variations, only if any active variation needs
+   * them. The radius and angle are by far the most expensive part of most variations.
+   *
+   * @param count the number of points in the batch
+   * @param needsRadius whether the radius is needed
+   * @param needsTheta whether the angle is needed
+   * @since 1.0
+   */
+  void preparePolar(int count, boolean needsRadius, boolean needsTheta) {
+    if (needsRadius) {
+      for (int i = 0; i < count; i++) {
+        double squared = x[i] * x[i] + y[i] * y[i] + EPSILON;
+        radiusSquared[i] = squared;
+        radius[i] = Math.sqrt(squared);
+      }
+    }
+    if (needsTheta) {
+      for (int i = 0; i < count; i++) {
+        // Angle against the y-axis, as in the original flame algorithm
+        theta[i] = Math.atan2(x[i], y[i]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    x = new double[capacity];
+    y = new double[capacity];
+    radiusSquared = new double[capacity];
+    radius = new double[capacity];
+    theta = new double[capacity];
+    outX = new double[capacity];
+    outY = new double[capacity];
+  }
+}
@@ -6,7 +6,7 @@ import javafx.scene.paint.Color;
  * Represents the configuration of the screen.
  * Contains the minimum and preferred screen width and height.
  *
- * @version 1.0
+ * @version 1.8
  * @author proggang
  * @since 20.04.2024
  */
@@ -26,6 +26,30 @@ public class DisplayConfig {
   public static final double PIXEL_HIT_INCREMENTER = 0.5;
   public static final Color START_COLOR = Color.RED;
   public static final Color END_COLOR = Color.PURPLE;
+  // Pixels at or above this quantile of the hit pixels are drawn with the end color
+  public static final double WHITE_POINT_QUANTILE = 0.99;
+  // Renders start at most this often, about once per refresh of a 60 Hz display
+  public static final long MIN_FRAME_INTERVAL_MILLIS = 16;
+  // Previews are refined once no render is requested for this long
+  public static final long REFINE_IDLE_MILLIS = 150;
+  // Every step of the zoom buttons scales the view by this factor
+  public static final double ZOOM_FACTOR = 2.0;
+  // Finished frames kept for views the user goes back or on to, at most this many bytes
+  public static final long FRAME_CACHE_BYTES = 64L << 20;
+  // Views rendered ahead while the user is idle, at most this many per view
+  public static final int PREFETCH_LIMIT = 6;
+  // Steps rendered ahead per view at most, inverse renders count one step per pixel
+  public static final long PREFETCH_STEP_BUDGET = 2_000_000;
+  // Regions of the canvas are rendered again with this many pixels along their longest side
+  public static final int REGION_SIZE = 800;
+  // Regions of the canvas are rendered again with this many times the steps of the view
+  public static final int REGION_STEP_FACTOR = 16;
+  // Selections of the canvas smaller than this many pixels along a side are ignored
+  public static final double MIN_SELECTION_SIZE = 4.0;
+  // Gamma of the display, raising low densities like flames do
+  public static final double DEFAULT_GAMMA = 2.2;
+  // Share of the palette colors taken as given, the rest is gamma corrected
+  public static final double DEFAULT_VIBRANCY = 1.0;
 
   // Used by the DecimalFormat class to format the numbers
   public static final String DEFAULT_DECIMAL_FORMAT = "#,###";
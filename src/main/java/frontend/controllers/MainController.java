@@ -4,12 +4,16 @@ import static config.DataConfig.AFFINE_NAME;
 import static config.DataConfig.JULIA_NAME;
 import static config.DataConfig.MENU_FILE_PATH;
 import static config.DataConfig.SELECT_TYPE_CONSTANT;
+import static config.DisplayConfig.APPLICATION_TITLE;
 import static config.DisplayConfig.DEFAULT_DECIMAL_FORMAT;
+import static config.DisplayConfig.MIN_SELECTION_SIZE;
 
 import backend.core.ChaosGame;
 import backend.core.ChaosGameDescriptionFactory;
 import backend.models.MainModel;
+import backend.rendering.RenderedFrame;
 import backend.utility.state.StateHandler;
+import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.logging.Logger;
@@ -26,15 +30,20 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.TextField;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 /**
  * The controller for the interactive part for the chaos game.
  * Handles the choice box and the sliders.
  *
- * @version 1.2
+ * @version 1.8
  * @author proggang
  * @since 25.04.2024
  */
@@ -60,6 +69,8 @@ public class MainController {
   @FXML
   private CheckBox heatmapCheckbox;
   @FXML
+  private CheckBox transformColorsCheckbox;
+  @FXML
   private Button backButton;
   @FXML
   private CheckBox inverseCheckbox;
@@ -69,6 +80,11 @@ public class MainController {
   private TextField saveToFile;
   @FXML
   private TextField rootNumberField;
+  // Where the current drag of the canvas is anchored, moved by every whole pixel panned
+  private double dragX;
+  private double dragY;
+  // Whether the drag selects a region instead of panning, started with shift held
+  private boolean selecting;
 
   /**
    * Initializes the choice box and adds listeners to the canvas size.
@@ -88,6 +104,22 @@ public class MainController {
       model.update();
     });
 
+    // Dragging the canvas pans the view by whole pixels of the chaos game, and dragging with
+    // shift held selects a region to render on its own
+    canvas.setOnMousePressed(event -> {
+      dragX = event.getX();
+      dragY = event.getY();
+      selecting = event.isShiftDown();
+    });
+    canvas.setOnMouseDragged(event -> {
+      if (selecting) {
+        model.drawSelection(dragX, dragY, event.getX(), event.getY());
+      } else {
+        panCanvas(event);
+      }
+    });
+    canvas.setOnMouseReleased(this::selectRegion);
+
 
     // ************************************
     // Initializing text fields for sliders
@@ -110,7 +142,11 @@ public class MainController {
           (int) canvasSizeSlider.getValue()
       ));
 
-      choiceBox.setValue(model.getChaosGame().isAffine() ? AFFINE_NAME : JULIA_NAME);
+      // Flames use the affine controls, their pre-transforms are affine
+      choiceBox.setValue(
+          model.getChaosGame().isAffine() || model.getChaosGame().isFlame()
+              ? AFFINE_NAME : JULIA_NAME
+      );
       model.update();
     }
   }
@@ -138,7 +174,7 @@ public class MainController {
     // if the chaos game is affine, and the choice box is julia, change to standard julia
     // if the chaos game is julia, and the choice box is affine, change to standard affine
 
-    if (model.getChaosGame().isAffine()) {
+    if (model.getChaosGame().isAffine() || model.getChaosGame().isFlame()) {
       if (choiceBox.getValue().equals(JULIA_NAME)) {
         model.setChaosGame(new ChaosGame(
             new ChaosGameDescriptionFactory().getPredefinedChaosGame(JULIA_NAME),
@@ -174,7 +210,7 @@ public class MainController {
    * @since 1.2
    */
   public void updateUsableItems() {
-    if (model.getChaosGame().isAffine()) {
+    if (model.getChaosGame().isAffine() || model.getChaosGame().isFlame()) {
       choiceBox.setValue("Affine");
 
       iterationSlider.setDisable(false); // Enable iteration slider
@@ -229,6 +265,17 @@ public class MainController {
     model.toggleHeatmap(heatmapCheckbox.isSelected());
   }
 
+  /**
+   * Toggles whether to color the canvas by the transforms that hit each pixel.
+   *
+   * @param actionEvent the mouse event, disregarded
+   * @since 1.4
+   */
+  @FXML
+  public void toggleTransformColors(ActionEvent actionEvent) {
+    model.toggleTransformColors(transformColorsCheckbox.isSelected());
+  }
+
   /**
    * Updates the canvas size based on the slider value.
    * The canvas size is updated by setting the width and height of the canvas.
@@ -246,7 +293,8 @@ public class MainController {
 
   /**
    * Handles the back button.
-   * Loads the menu, and saves the state of the application.
+   * Loads the menu, saves the state of the application, and closes the model, so its render
+   * thread and chaos game do not outlive the view.
    *
    * @param actionEvent the action event, disregarded
    * @throws IOException if a file reading error occurs
@@ -260,6 +308,7 @@ public class MainController {
     Stage stage = (Stage) backButton.getScene().getWindow();
     stage.setScene(new Scene(root));
     stage.show();
+    model.close();
   }
 
   /**
@@ -285,8 +334,9 @@ public class MainController {
     model.enableInverseTransform(inverseCheckbox.isSelected());
     heatmapCheckbox.setDisable(inverseCheckbox.isSelected());
     heatmapCheckbox.setSelected(false);
+    transformColorsCheckbox.setDisable(inverseCheckbox.isSelected());
 
-    // Disable heatmap if inverse is selected
+    // Disable heatmap and transform colors if inverse is selected
   }
 
   /**
@@ -299,17 +349,12 @@ public class MainController {
   public void toggleTrackCursorPos(ActionEvent actionEvent) {
     if (trackCursorPosCheckbox.isSelected()) {
       canvas.setOnMouseMoved(event -> {
-        double mouseX = event.getX();
-        double mouseY = event.getY();
-
-        double contentX = (mouseX / canvas.getWidth()) * 2 - 1;
-        double contentY = (mouseY / canvas.getHeight()) * 2 - 1;
-
         model.createTextFields(transformContainer);
-        model.updateCursorPos(contentX, contentY);
+        model.moveCursor(event.getX(), event.getY(), canvas.getWidth(), canvas.getHeight());
       });
     } else {
       canvas.setOnMouseMoved(null);
+      model.resetCursorTrajectory();
     }
   }
 
@@ -361,6 +406,97 @@ public class MainController {
     }
   }
 
+  /**
+   * Pans the view by the whole pixels of the chaos game the mouse is dragged past the anchor,
+   * and moves the anchor along. The content follows the mouse.
+   *
+   * @param event the drag event
+   * @since 1.5
+   */
+  private void panCanvas(MouseEvent event) {
+    double pixelWidth = canvas.getWidth() / model.getChaosGame().getWidth();
+    double pixelHeight = canvas.getHeight() / model.getChaosGame().getHeight();
+    int columns = (int) ((event.getX() - dragX) / pixelWidth);
+    int rows = (int) ((event.getY() - dragY) / pixelHeight);
+    if (columns == 0 && rows == 0) {
+      return;
+    }
+    dragX += columns * pixelWidth;
+    dragY += rows * pixelHeight;
+    model.pan(-columns, -rows);
+  }
+
+  /**
+   * Ends the selection of a region at the released mouse, and renders the region on its own if
+   * it is large enough. The frame of the region is shown in a window of its own.
+   *
+   * @param event the release event
+   * @since 1.7
+   */
+  private void selectRegion(MouseEvent event) {
+    if (!selecting) {
+      return;
+    }
+    selecting = false;
+    model.drawCanvas();
+    if (Math.abs(event.getX() - dragX) < MIN_SELECTION_SIZE
+        || Math.abs(event.getY() - dragY) < MIN_SELECTION_SIZE) {
+      return;
+    }
+    model.renderRegion(dragX, dragY, event.getX(), event.getY(), this::showRegion);
+  }
+
+  /**
+   * Shows the given frame of a region in a window of its own, with a button exporting it.
+   *
+   * @param frame the frame of the region
+   * @since 1.7
+   */
+  private void showRegion(RenderedFrame frame) {
+    int width = frame.getWidth();
+    int height = frame.getHeight();
+    WritableImage image = new WritableImage(width, height);
+    image.getPixelWriter().setPixels(
+        0, 0, width, height, PixelFormat.getIntArgbPreInstance(), frame.getPixels(), 0, width
+    );
+
+    Stage stage = new Stage();
+    Button exportButton = new Button("Export");
+    exportButton.setOnAction(actionEvent -> exportRegion(frame, stage));
+    BorderPane pane = new BorderPane(new ImageView(image));
+    pane.setBottom(exportButton);
+
+    stage.setTitle(APPLICATION_TITLE + " - Region " + width + "x" + height);
+    stage.setScene(new Scene(pane));
+    stage.show();
+  }
+
+  /**
+   * Exports the given frame of a region to a PPM image chosen by the user.
+   * If the image cannot be written, logs an error message.
+   *
+   * @param frame the frame of the region
+   * @param stage the window of the region
+   * @since 1.7
+   */
+  private void exportRegion(RenderedFrame frame, Stage stage) {
+    FileChooser fileChooser = new FileChooser();
+    fileChooser.getExtensionFilters().add(
+        new FileChooser.ExtensionFilter("PPM images (*.ppm)", "*.ppm")
+    );
+    File file = fileChooser.showSaveDialog(stage);
+    if (file == null) {
+      return;
+    }
+
+    try {
+      frame.writePpm(file.toPath());
+    } catch (IOException e) {
+      Logger.getLogger(MainController.class.getName())
+          .severe("Could not export the region. " + e);
+    }
+  }
+
   /**
    * Zooms the canvas in.
    * The zoom is done by increase the minimum and maximum coordinates of the canvas.
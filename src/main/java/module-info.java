@@ -3,11 +3,15 @@ module proggang {
   requires javafx.fxml;
   requires java.logging;
   requires java.desktop;
+  // Releasing off-heap canvas memory without waiting for the garbage collector
+  requires jdk.unsupported;
 
   exports backend.core;
+  exports backend.core.canvas;
   exports backend.transforms;
   exports backend.geometry;
   exports backend.models;
+  exports backend.rendering;
 
   exports frontend;
   exports frontend.controllers;
@@ -21,6 +25,8 @@ module proggang {
   opens backend.geometry;
   opens backend.models;
   opens backend.core;
+  opens backend.core.canvas;
+  opens backend.rendering;
   opens backend.transforms;
 
   exports backend.utility.state;
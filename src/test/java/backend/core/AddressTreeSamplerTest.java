@@ -0,0 +1,123 @@
+package backend.core;
+
+import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AddressTreeSamplerTest {
+  List<Transform> transforms;
+
+  @BeforeEach
+  void setUp() {
+    // The triangle with corners (0, 0), (1, 0) and (0.5, 1)
+    transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+  }
+
+  @Test
+  void fullViewIsNotPruned() {
+    assertNull(AddressTreeSampler.create(
+        describe(new Vector(-.1, -.1), new Vector(1.1, 1.1)), 50, 50),
+        "Expected no sampler with the whole attractor in view");
+  }
+
+  @Test
+  void zoomedViewIsPruned() {
+    AddressTreeSampler sampler = AddressTreeSampler.create(
+        describe(new Vector(0, 0), new Vector(.125, .125)), 50, 50
+    );
+    assertNotNull(sampler, "Expected a sampler of the zoomed view");
+    // The corner triangle has a probability of 1 / 27, the pieces crossing its edge add a bit
+    assertTrue(sampler.getVisibleWeight() < 0.1, "Expected most of the attractor pruned");
+    assertTrue(sampler.getAddressCount() > 1, "Expected the view refined into several pieces");
+
+    ChaosCanvas canvas = new ChaosCanvas(50, 50, new Vector(0, 0), new Vector(.125, .125));
+    sampler.run(10000, new Random(1), canvas, () -> false);
+    // Every hit in view has the visible weight
+    double hits = sum(canvas) / PIXEL_HIT_INCREMENTER / sampler.getVisibleWeight();
+    assertTrue(hits > 9000, "Expected almost every step in view, was " + hits);
+  }
+
+  @Test
+  void prunedTotalMatchesPlainRun() {
+    Vector minCoords = new Vector(.3, .1);
+    Vector maxCoords = new Vector(.425, .225);
+    ChaosGame pruned = new ChaosGame(describe(minCoords, maxCoords), 8, 8);
+    pruned.runSteps(1000000);
+    ChaosGame plain = new ChaosGame(describe(minCoords, maxCoords), 8, 8);
+    plain.setSamplingMode(SamplingMode.ALL_BRANCHES);
+    plain.runSteps(1000000);
+
+    // The same steps put the same density in view, not only the same distribution
+    double prunedTotal = sum(pruned.getCanvas());
+    double plainTotal = sum(plain.getCanvas());
+    assertEquals(plainTotal, prunedTotal, plainTotal * 0.05,
+        "Expected the same density per step as a plain run");
+  }
+
+  @Test
+  void prunedDensityMatchesPlainRun() {
+    Vector minCoords = new Vector(.3, .1);
+    Vector maxCoords = new Vector(.425, .225);
+    ChaosGame pruned = new ChaosGame(describe(minCoords, maxCoords), 8, 8);
+    pruned.runSteps(200000);
+    // All branches is never pruned, and has the same expected density
+    ChaosGame plain = new ChaosGame(describe(minCoords, maxCoords), 8, 8);
+    plain.setSamplingMode(SamplingMode.ALL_BRANCHES);
+    plain.runSteps(3000000);
+
+    double prunedTotal = sum(pruned.getCanvas());
+    double plainTotal = sum(plain.getCanvas());
+    double distance = 0;
+    for (int row = 0; row < 8; row++) {
+      for (int column = 0; column < 8; column++) {
+        distance += Math.abs(pruned.getCanvas().getCanvasArray()[row][column] / prunedTotal
+            - plain.getCanvas().getCanvasArray()[row][column] / plainTotal);
+      }
+    }
+    assertTrue(distance / 2 < 0.05, "Expected the same distribution, distance " + distance / 2);
+  }
+
+  @Test
+  void boundingBoxIsCachedAcrossViews() {
+    ChaosGameDescription full = describe(new Vector(0, 0), new Vector(1, 1));
+    ChaosGameDescription zoomed = describe(new Vector(.3, .1), new Vector(.425, .225));
+    assertEquals(AddressTreeSampler.getBoxKey(full), AddressTreeSampler.getBoxKey(zoomed),
+        "Expected the same key for every view");
+
+    Vector[] sampled = AttractorAnalyzer.getBoundingBox(full);
+    Vector[] cached = AddressTreeSampler.getBoundingBox(full);
+    cached[0].setElement(0, 5);
+    cached = AddressTreeSampler.getBoundingBox(zoomed);
+    for (int i = 0; i < 2; i++) {
+      assertEquals(sampled[i].getElement(0), cached[i].getElement(0), "Expected the same box");
+      assertEquals(sampled[i].getElement(1), cached[i].getElement(1), "Expected the same box");
+    }
+
+    ChaosGameDescription weighted = new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, new Vector(1, 2, 4)
+    );
+    assertNotEquals(AddressTreeSampler.getBoxKey(full), AddressTreeSampler.getBoxKey(weighted),
+        "Expected another key for other probabilities");
+  }
+
+  private ChaosGameDescription describe(Vector minCoords, Vector maxCoords) {
+    return new ChaosGameDescription(minCoords, maxCoords, transforms, null);
+  }
+
+  private double sum(ChaosCanvas canvas) {
+    return Arrays.stream(canvas.getCanvasArray()).flatMapToDouble(Arrays::stream).sum();
+  }
+}
@@ -0,0 +1,94 @@
+package backend.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AttractorAnalyzerTest {
+  ChaosGameDescription sierpinski;
+
+  @BeforeEach
+  void setUp() {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    // Deliberately wrong viewport
+    sierpinski = new ChaosGameDescription(
+        new Vector(-10.0, -10.0), new Vector(-5.0, -5.0), transforms, null
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    sierpinski = null;
+  }
+
+  @Test
+  void getLipschitzConstant() {
+    AffineTransform scale = new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0));
+    assertEquals(.5, AttractorAnalyzer.getLipschitzConstant(scale), 1e-12, "Expected 0.5");
+
+    // Rotation by 90 degrees scaled by 0.8, every singular value is 0.8
+    AffineTransform rotation = new AffineTransform(new MatrixNxN(0, -.8, .8, 0), new Vector(0, 0));
+    assertEquals(.8, AttractorAnalyzer.getLipschitzConstant(rotation), 1e-12, "Expected 0.8");
+  }
+
+  @Test
+  void getBoundingBox() {
+    Vector[] box = AttractorAnalyzer.getBoundingBox(sierpinski);
+
+    assertEquals(0, box[0].getElement(0), .05, "Expected 0 as min x");
+    assertEquals(0, box[0].getElement(1), .05, "Expected 0 as min y");
+    assertEquals(1, box[1].getElement(0), .05, "Expected 1 as max x");
+    assertEquals(1, box[1].getElement(1), .05, "Expected 1 as max y");
+  }
+
+  @Test
+  void getBoundingBoxRejectsNonContractive() {
+    ChaosGameDescription expanding = new ChaosGameDescription(
+        new Vector(0.0, 0.0), new Vector(1.0, 1.0),
+        List.of(new AffineTransform(new MatrixNxN(1.5, 0, 0, .5), new Vector(0, 0))), null
+    );
+
+    assertFalse(AttractorAnalyzer.isContractive(expanding), "Expected not contractive");
+    assertThrows(IllegalArgumentException.class,
+        () -> AttractorAnalyzer.getBoundingBox(expanding), "Expected rejected");
+    assertFalse(AttractorAnalyzer.fitToAttractor(expanding), "Expected not fitted");
+  }
+
+  @Test
+  void fitToAttractor() {
+    assertTrue(AttractorAnalyzer.fitToAttractor(sierpinski), "Expected fitted");
+
+    assertEquals(0, sierpinski.getMinCoords().getElement(0), .05, "Expected 0 as min x");
+    assertEquals(1, sierpinski.getMaxCoords().getElement(1), .05, "Expected 1 as max y");
+  }
+
+  @Test
+  void fitToAttractorKeepsSquare() {
+    // A flat triangle, twice as wide as it is high
+    ChaosGameDescription flat = new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), List.of(
+            new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+            new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .25)),
+            new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+        ), null
+    );
+    assertTrue(AttractorAnalyzer.fitToAttractor(flat), "Expected fitted");
+
+    double width = flat.getMaxCoords().getElement(0) - flat.getMinCoords().getElement(0);
+    double height = flat.getMaxCoords().getElement(1) - flat.getMinCoords().getElement(1);
+    assertEquals(width, height, 1e-12, "Expected a square view");
+    assertEquals(.25, (flat.getMinCoords().getElement(1) + flat.getMaxCoords().getElement(1)) / 2,
+        .02, "Expected the triangle centered vertically");
+  }
+}
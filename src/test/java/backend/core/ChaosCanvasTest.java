@@ -3,6 +3,7 @@ package backend.core;
 import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
 import static org.junit.jupiter.api.Assertions.*;
 
+import backend.core.canvas.OffHeapCanvasStorage;
 import backend.geometry.Vector;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -64,4 +65,47 @@ class ChaosCanvasTest {
     canvas.clear();
     assertEquals(0, canvas.getPixel(point), "Expected 0");
   }
-}
\ No newline at end of file
+
+  @Test
+  void bilinearSplat() {
+    // One unit per pixel, so column = x and row = 99 - y
+    ChaosCanvas unit = new ChaosCanvas(100, 100, new Vector(0.0, 0.0), new Vector(99.0, 99.0));
+    unit.setSplatMode(SplatMode.BILINEAR);
+
+    unit.putPixel(10.5, 78.5, 1.0);
+    assertEquals(PIXEL_HIT_INCREMENTER, unit.getStorage().get(20, 10), 1e-9,
+        "Expected the whole hit at the pixel center");
+
+    unit.clear();
+    unit.putPixel(10.0, 78.5, 1.0);
+    assertEquals(PIXEL_HIT_INCREMENTER / 2, unit.getStorage().get(20, 9), 1e-9,
+        "Expected half the hit left of the edge");
+    assertEquals(PIXEL_HIT_INCREMENTER / 2, unit.getStorage().get(20, 10), 1e-9,
+        "Expected half the hit right of the edge");
+
+    unit.putPixel(Double.NaN, 0, 1.0);
+    unit.putPixel(500, 0, 1.0);
+    assertEquals(PIXEL_HIT_INCREMENTER, sum(unit), 1e-9, "Expected no hits outside");
+  }
+
+  private static double sum(ChaosCanvas canvas) {
+    double[] sum = {0};
+    canvas.getStorage().forEachNonZero((row, column, value) -> sum[0] += value);
+    return sum[0];
+  }
+
+  @Test
+  void offHeapStorage() {
+    ChaosCanvas offHeap = new ChaosCanvas(
+        new OffHeapCanvasStorage(100, 100), new Vector(0.0, 0.0), new Vector(100.0, 100.0)
+    );
+    Vector point = new Vector(50.0, 50.0);
+    offHeap.putPixel(point);
+    canvas.putPixel(point);
+
+    assertEquals(canvas.getPixel(point), offHeap.getPixel(point), "Expected equal pixels");
+    assertArrayEquals(canvas.getCanvasArray()[49], offHeap.getCanvasArray()[49],
+        "Expected equal rows");
+    offHeap.close();
+  }
+}
@@ -61,4 +61,52 @@ class ChaosGameDescriptionTest {
     assertEquals(100, maxCoords.getElement(0), "Expected 100 as x0");
     assertEquals(101, maxCoords.getElement(1), "Expected 101 as x1");
   }
-}
\ No newline at end of file
+
+  @Test
+  void copyIsDeep() {
+    ChaosGameDescription copy = description.copy();
+    assertEquals(description, copy, "Expected an equal copy");
+
+    description.getMinCoords().setElement(0, -5);
+    ((AffineTransform) description.getTransforms().get(0)).getMatrix().setElement(0, 0, 42);
+    assertEquals(0, copy.getMinCoords().getElement(0), "Expected the copy to keep its coords");
+    assertEquals(1, ((AffineTransform) copy.getTransforms().get(0)).getMatrix().getElement(0, 0),
+        "Expected the copy to keep its transforms");
+  }
+
+  @Test
+  void zoomAndPanView() {
+    description.zoomView(1);
+    assertEquals(25, description.getMinCoords().getElement(0), 1e-12, "Expected half the width");
+    assertEquals(75, description.getMaxCoords().getElement(0), 1e-12, "Expected half the width");
+    assertEquals(26, description.getMinCoords().getElement(1), 1e-12, "Expected the same center");
+
+    // 10 of 100 pixels right and down moves the view by a tenth of its extent
+    description.panView(10, 10, 100, 100);
+    assertEquals(30, description.getMinCoords().getElement(0), 1e-12, "Expected the view right");
+    assertEquals(21, description.getMinCoords().getElement(1), 1e-12, "Expected the view down");
+  }
+
+  @Test
+  void getColors() {
+    Vector colors = description.getColors();
+    assertEquals(0, colors.getElement(0), "Expected 0 as first color");
+    assertEquals(.5, colors.getElement(1), "Expected 0.5 as second color");
+    assertEquals(1, colors.getElement(2), "Expected 1 as last color");
+
+    description.setColors(new Vector(.2, .4, .6));
+    assertEquals(.4, description.getColors().getElement(1), "Expected the set color");
+  }
+
+  @Test
+  void getWeights() {
+    ChaosGameDescription weighted = new ChaosGameDescription(
+        description.getMinCoords(), description.getMaxCoords(), description.getTransforms(),
+        new Vector(10, 60, 100)
+    );
+    double[] weights = weighted.getWeights();
+    assertEquals(.1, weights[0], 1e-12, "Expected 0.1 as first weight");
+    assertEquals(.5, weights[1], 1e-12, "Expected 0.5 as second weight");
+    assertEquals(.4, weights[2], 1e-12, "Expected 0.4 as third weight");
+  }
+}
@@ -5,10 +5,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import backend.geometry.MatrixNxN;
 import backend.geometry.Vector;
 import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
 import backend.transforms.Transform;
+import backend.transforms.Variation;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -85,6 +88,30 @@ class ChaosGameFileHandlerTest {
     }
   }
 
+  @Test
+  void readWriteFlameFromFile() {
+    List<Transform> transforms = List.of(
+        new FlameTransform(new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(-.5, 0)),
+            Map.of(Variation.LINEAR, .6, Variation.SWIRL, .4)),
+        new FlameTransform(new AffineTransform(new MatrixNxN(0, -.5, .5, 0), new Vector(0, .5)),
+            Map.of(Variation.HORSESHOE, 1.0))
+    );
+    ChaosGameDescription flame = new ChaosGameDescription(
+        new Vector(-1.5, -1.5), new Vector(1.5, 1.5), transforms, new Vector(50, 100)
+    );
+
+    try {
+      ChaosGameFileHandler.writeToFile(flame, "test.txt");
+    } catch (IOException e) {
+      fail("Expected file to exist");
+    }
+    ChaosGameDescription readDescription = ChaosGameFileHandler.readFromFile("test.txt");
+    assertNotNull(readDescription, "Expected file to exist");
+
+    assertEquals(transforms, readDescription.getTransforms(), "Expected equal flame transforms");
+    assertEquals(100, readDescription.getProbability().getElement(1), "Expected 100 as p1");
+  }
+
   @Test
   void ReadFromNegative() {
     assertNull(ChaosGameFileHandler.readFromFile("nonexistent.txt"), "Expected file to not exist");
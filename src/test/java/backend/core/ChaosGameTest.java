@@ -1,12 +1,24 @@
 package backend.core;
 
+import static config.DisplayConfig.PIXEL_HIT_INCREMENTER;
 import static org.junit.jupiter.api.Assertions.*;
 
+import backend.core.canvas.CanvasPool;
+import backend.core.canvas.CanvasSnapshot;
+import backend.core.canvas.CanvasStatistics;
+import backend.core.canvas.CanvasStorageType;
+import backend.core.canvas.ColorBuffer;
+import backend.geometry.Complex;
 import backend.geometry.MatrixNxN;
 import backend.geometry.Vector;
 import backend.transforms.AffineTransform;
+import backend.transforms.FlameTransform;
+import backend.transforms.JuliaTransform;
 import backend.transforms.Transform;
+import backend.transforms.Variation;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,4 +67,244 @@ class ChaosGameTest {
     // Too complicated, but implemented for higher test coverage 😂
     assertTrue(true);
   }
-}
\ No newline at end of file
+
+  @Test
+  void runStepsSampledDensity() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.runSteps(10000);
+
+    assertEquals(10000 * PIXEL_HIT_INCREMENTER, sumCanvas(sierpinski), 1e-6,
+        "Expected one hit per step");
+  }
+
+  @Test
+  void zeroProbabilityIsNeverPicked() {
+    // Every transform jumps to its own point, the cumulative probabilities give the middle one 0
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(0, 0, 0, 0), new Vector(.15, .15)),
+        new AffineTransform(new MatrixNxN(0, 0, 0, 0), new Vector(.55, .55)),
+        new AffineTransform(new MatrixNxN(0, 0, 0, 0), new Vector(.85, .85))
+    );
+    ChaosGame game = new ChaosGame(new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, new Vector(1, 1, 2)
+    ), 10, 10);
+    game.runSteps(10000);
+
+    double[][] pixels = game.getCanvas().getCanvasArray();
+    assertEquals(0, pixels[4][4], "Expected the transform of probability 0 never picked");
+    assertTrue(pixels[1][7] > 0 && pixels[7][1] > 0, "Expected the other transforms picked");
+    game.close();
+
+    assertEquals(1, ChaosGame.firstAtLeast(new int[] {0, 5, 5, 10}, 5),
+        "Expected the first of the repeated values");
+    assertEquals(3, ChaosGame.firstAtLeast(new int[] {0, 5, 5, 10}, 6),
+        "Expected the value after the repeated ones");
+  }
+
+  @Test
+  void runStepsAllBranchesDensity() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.setSamplingMode(SamplingMode.ALL_BRANCHES);
+    sierpinski.runSteps(10000);
+
+    assertEquals(10000 * PIXEL_HIT_INCREMENTER, sumCanvas(sierpinski), 1e-6,
+        "Expected the weights of each step to sum to one hit");
+  }
+
+  @Test
+  void runStepsFlameDensity() {
+    List<Transform> transforms = List.of(
+        new FlameTransform(new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+            Map.of(Variation.LINEAR, 1.0)),
+        new FlameTransform(new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+            Map.of(Variation.LINEAR, 1.0)),
+        new FlameTransform(new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0)),
+            Map.of(Variation.LINEAR, 1.0))
+    );
+    ChaosGame flame = new ChaosGame(new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, null
+    ), 100, 100);
+    assertTrue(flame.isFlame(), "Expected a flame");
+
+    flame.runSteps(10000);
+
+    assertEquals(10000 * PIXEL_HIT_INCREMENTER, sumCanvas(flame), 1e-6,
+        "Expected one hit per step");
+  }
+
+  @Test
+  void updateCanvasReusesCanvas() {
+    ChaosCanvas canvas = chaosGame.getCanvas();
+    chaosGame.updateCanvas();
+    assertSame(canvas, chaosGame.getCanvas(), "Expected the same canvas for the same size");
+
+    chaosGame.setSize(50);
+    assertEquals(50, chaosGame.getCanvas().getStorage().getWidth(), "Expected 50");
+    chaosGame.setSize(100);
+    assertSame(canvas.getStorage(), chaosGame.getCanvas().getStorage(),
+        "Expected the pooled storage back");
+  }
+
+  @Test
+  void runStepsPublishesSnapshot() {
+    ChaosGame sierpinski = createSierpinski();
+    assertNull(sierpinski.acquireSnapshot(), "Expected no snapshot before the first run");
+
+    sierpinski.runSteps(1000);
+    try (CanvasSnapshot first = sierpinski.acquireSnapshot()) {
+      double[] sum = {0};
+      first.forEachNonZero((row, column, value) -> sum[0] += value);
+      assertEquals(sumCanvas(sierpinski), sum[0], 1e-9, "Expected a copy of the canvas");
+
+      // A retained snapshot is not changed by later runs
+      sierpinski.runSteps(5000);
+      double[] again = {0};
+      first.forEachNonZero((row, column, value) -> again[0] += value);
+      assertEquals(sum[0], again[0], 1e-9, "Expected the snapshot to stay the same");
+
+      try (CanvasSnapshot second = sierpinski.acquireSnapshot()) {
+        assertTrue(second.getGeneration() > first.getGeneration(), "Expected a newer snapshot");
+      }
+    }
+  }
+
+  @Test
+  void snapshotStatistics() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.runSteps(10000);
+
+    try (CanvasSnapshot snapshot = sierpinski.acquireSnapshot()) {
+      CanvasStatistics statistics = snapshot.getStatistics();
+      assertEquals(sumCanvas(sierpinski), statistics.getTotal(), 1e-6, "Expected the canvas sum");
+      assertTrue(statistics.getNonZeroCount() > 0, "Expected hit pixels");
+      assertTrue(statistics.getQuantile(0.5) <= statistics.getMax(), "Expected median below max");
+    }
+  }
+
+  @Test
+  void canvasIsTakenOnFirstUse() {
+    CanvasPool pool = CanvasPool.getInstance();
+    pool.clear();
+    pool.release(CanvasStorageType.HEAP, CanvasStorageType.HEAP.create(37, 37));
+
+    ChaosGame game = new ChaosGame(chaosGame.getDescription(), 37, 37);
+    game.updateCanvas();
+    assertEquals(1, pool.getIdleCount(), "Expected no canvas taken before the first use");
+    game.runSteps(100);
+    assertEquals(0, pool.getIdleCount(), "Expected the pooled canvas taken by the run");
+
+    game.setSize(20);
+    assertEquals(1, pool.getIdleCount(), "Expected the old canvas returned on resizing");
+    // Only the storage of the published snapshot comes back, no canvas of the new size
+    game.close();
+    assertEquals(2, pool.getIdleCount(), "Expected no new canvas taken after resizing");
+  }
+
+  @Test
+  void supersamplingReducesSnapshot() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.setSupersampling(3);
+    sierpinski.setSplatMode(SplatMode.BILINEAR);
+    assertEquals(300, sierpinski.getCanvas().getStorage().getWidth(), "Expected a 3x canvas");
+
+    sierpinski.runSteps(10000);
+    try (CanvasSnapshot snapshot = sierpinski.acquireSnapshot()) {
+      assertEquals(100, snapshot.getWidth(), "Expected the snapshot at the game size");
+      assertEquals(sumCanvas(sierpinski), snapshot.getStatistics().getTotal(), 1e-6,
+          "Expected the snapshot to keep the total");
+    }
+    assertThrows(IllegalArgumentException.class, () -> sierpinski.setSupersampling(0));
+  }
+
+  @Test
+  void cancelStopsRuns() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.cancel();
+    sierpinski.runSteps(1_000_000);
+
+    assertTrue(sierpinski.isCancelled(), "Expected the chaos game to be cancelled");
+    assertEquals(0, sumCanvas(sierpinski), 1e-6, "Expected no steps after cancelling");
+    assertNotNull(sierpinski.acquireSnapshot(), "Expected the plotted points published");
+  }
+
+  @Test
+  void transformColorsPublishColors() {
+    ChaosGame sierpinski = createSierpinski();
+    sierpinski.setTransformColors(true);
+    sierpinski.runSteps(200000);
+
+    try (CanvasSnapshot snapshot = sierpinski.acquireSnapshot()) {
+      ColorBuffer colors = snapshot.getColors();
+      assertNotNull(colors, "Expected color channels");
+      double[] hits = {0};
+      colors.forEachNonZero((row, column, value) -> hits[0] += value);
+      assertEquals(200000, hits[0], 1e-6, "Expected every step to be a hit");
+      assertEquals(200000 * PIXEL_HIT_INCREMENTER, snapshot.getStatistics().getTotal(), 1e-6,
+          "Expected the hits as the density");
+
+      // The bottom left corner is reached by the first transform, the right by the last
+      int bottom = snapshot.getHeight() - 2;
+      int left = 0;
+      while (colors.getHits(bottom, left) == 0) {
+        left++;
+      }
+      int right = snapshot.getWidth() - 1;
+      while (colors.getHits(bottom, right) == 0) {
+        right--;
+      }
+      assertTrue(colors.getColor(bottom, left) < 0.1, "Expected the color of the first transform");
+      assertTrue(colors.getColor(bottom, right) > 0.9, "Expected the color of the last transform");
+    }
+
+    sierpinski.setTransformColors(false);
+    sierpinski.runSteps(1000);
+    try (CanvasSnapshot snapshot = sierpinski.acquireSnapshot()) {
+      assertNull(snapshot.getColors(), "Expected no colors without transform colors");
+    }
+  }
+
+  @Test
+  void runInverseReusesEscapeTimes() throws IllegalAccessException {
+    ChaosGame panned = createJulia(new Vector(-2, -2), new Vector(2, 2));
+    panned.runInverse();
+    // 10 pixels to the right
+    panned.getDescription().getMinCoords().setElement(0, -1.6);
+    panned.getDescription().getMaxCoords().setElement(0, 2.4);
+    panned.updateCanvas();
+    panned.runInverse();
+
+    ChaosGame fresh = createJulia(new Vector(-1.6, -2), new Vector(2.4, 2));
+    fresh.runInverse();
+
+    assertTrue(sumCanvas(fresh) > 0, "Expected pixels inside the Julia set");
+    for (int row = 0; row < 100; row++) {
+      assertArrayEquals(fresh.getCanvas().getCanvasArray()[row],
+          panned.getCanvas().getCanvasArray()[row], "Expected the same set after reusing");
+    }
+  }
+
+  private ChaosGame createSierpinski() {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    ChaosGameDescription description = new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, null
+    );
+    return new ChaosGame(description, 100, 100);
+  }
+
+  private ChaosGame createJulia(Vector minCoords, Vector maxCoords) {
+    ChaosGameDescription description = new ChaosGameDescription(
+        minCoords, maxCoords, List.of(new JuliaTransform(new Complex(-.74543, .11301), 1)), null
+    );
+    return new ChaosGame(description, 100, 100);
+  }
+
+  private double sumCanvas(ChaosGame game) {
+    return Arrays.stream(game.getCanvas().getCanvasArray())
+        .flatMapToDouble(Arrays::stream)
+        .sum();
+  }
+}
@@ -0,0 +1,137 @@
+package backend.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OutOfCoreRendererTest {
+  ChaosGameDescription description;
+  Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    description = new ChaosGameDescription(new Vector(0, 0), new Vector(1, 1), transforms, null);
+    directory = Files.createTempDirectory("out-of-core-test");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+    description = null;
+  }
+
+  @Test
+  void renderWritesImage() throws IOException {
+    OutOfCoreRenderer renderer = new OutOfCoreRenderer(description, 120, 100);
+    renderer.setWorkDirectory(directory);
+    Path image = directory.resolve("image.ppm");
+
+    long hits = renderer.render(50000, image);
+
+    byte[] header = "P6\n120 100\n255\n".getBytes();
+    assertEquals(header.length + 120 * 100 * 3, Files.size(image), "Expected header and pixels");
+    assertEquals(50000 - 20, hits, "Expected every step after the first to hit the image");
+    assertEquals(1, Files.list(directory).count(), "Expected the bucket files to be deleted");
+  }
+
+  @Test
+  void stripsMatchSingleStrip() throws IOException {
+    OutOfCoreRenderer single = new OutOfCoreRenderer(description, 64, 64);
+    single.setWorkDirectory(directory);
+    single.setSeed(7);
+    single.render(20000, directory.resolve("single.ppm"));
+
+    OutOfCoreRenderer strips = new OutOfCoreRenderer(description, 64, 64);
+    strips.setWorkDirectory(directory);
+    strips.setSeed(7);
+    strips.setMemoryBudget(64 * 4 * 5);
+    assertEquals(5, strips.getStripRows(), "Expected five rows per strip");
+    strips.render(20000, directory.resolve("strips.ppm"));
+
+    assertArrayEquals(Files.readAllBytes(directory.resolve("single.ppm")),
+        Files.readAllBytes(directory.resolve("strips.ppm")), "Expected equal images");
+  }
+
+  @Test
+  void manyStripsMatchSingleStrip() throws IOException {
+    OutOfCoreRenderer single = new OutOfCoreRenderer(description, 16, 200);
+    single.setWorkDirectory(directory);
+    single.setSeed(3);
+    single.render(4000000, directory.resolve("single.ppm"));
+
+    // One row per strip, more strips than open bucket files, and buffers drained many times
+    OutOfCoreRenderer strips = new OutOfCoreRenderer(description, 16, 200);
+    strips.setWorkDirectory(directory);
+    strips.setSeed(3);
+    strips.setMemoryBudget(16 * 4);
+    assertEquals(1, strips.getStripRows(), "Expected one row per strip");
+    strips.render(4000000, directory.resolve("strips.ppm"));
+
+    assertArrayEquals(Files.readAllBytes(directory.resolve("single.ppm")),
+        Files.readAllBytes(directory.resolve("strips.ppm")), "Expected equal images");
+  }
+
+  @Test
+  void bucketBuffersFitBudget() {
+    assertEquals(1 << 16, OutOfCoreRenderer.getBucketBufferBytes(1),
+        "Expected full buffer for one strip");
+    assertEquals(1 << 10, OutOfCoreRenderer.getBucketBufferBytes(1 << 20),
+        "Expected smallest buffer for many strips");
+    assertEquals(0, OutOfCoreRenderer.getBucketBufferBytes(3000) % Integer.BYTES,
+        "Expected whole pixel indices");
+  }
+
+  @Test
+  void constructorNegative() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new OutOfCoreRenderer(description, 0, 10), "Expected exception for zero width");
+  }
+
+  @Test
+  void runRendersDescriptionFile() throws IOException {
+    Path file = directory.resolve("description.txt");
+    ChaosGameFileHandler.writeToFile(description, file.toString());
+    Path image = directory.resolve("image.ppm");
+
+    long hits = OutOfCoreRenderer.run(
+        new String[] {file.toString(), "40", "30", "1000", image.toString()});
+
+    byte[] header = "P6\n40 30\n255\n".getBytes();
+    assertEquals(header.length + 40 * 30 * 3, Files.size(image), "Expected header and pixels");
+    assertTrue(hits > 0, "Expected the description to hit the image");
+  }
+
+  @Test
+  void runRejectsMalformedArguments() {
+    Path image = directory.resolve("image.ppm");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> OutOfCoreRenderer.run(new String[] {"sierpinski", "40", "30"}),
+        "Expected missing arguments to be rejected");
+    assertThrows(IllegalArgumentException.class,
+        () -> OutOfCoreRenderer.run(
+            new String[] {"sierpinski", "wide", "30", "1000", image.toString()}),
+        "Expected a malformed width to be rejected");
+    assertFalse(Files.exists(image), "Expected no image to be written");
+  }
+}
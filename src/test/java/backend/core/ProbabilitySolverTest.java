@@ -0,0 +1,68 @@
+package backend.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProbabilitySolverTest {
+  ChaosGameDescription description;
+
+  @BeforeEach
+  void setUp() {
+    // One large and two small transforms, without probabilities
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.7, 0, 0, .7), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.2, 0, 0, .2), new Vector(.8, 0)),
+        new AffineTransform(new MatrixNxN(.2, 0, 0, .2), new Vector(0, .8))
+    );
+    description = new ChaosGameDescription(
+        new Vector(0.0, 0.0), new Vector(1.0, 1.0), transforms, null
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    description = null;
+  }
+
+  @Test
+  void getInitialWeights() {
+    double[] weights = ProbabilitySolver.getInitialWeights(description);
+    assertEquals(.49 / .57, weights[0], 1e-9, "Expected weight proportional to determinant");
+    assertEquals(.04 / .57, weights[1], 1e-9, "Expected weight proportional to determinant");
+  }
+
+  @Test
+  void solveWritesBackCumulativePercentages() {
+    assertFalse(description.isProbabilitySet(), "Expected no probabilities before solving");
+
+    Vector probability = ProbabilitySolver.solve(description);
+
+    assertTrue(description.isProbabilitySet(), "Expected probabilities after solving");
+    assertTrue(description.isProbabilitySolved(), "Expected the probabilities marked solved");
+    assertTrue(description.copy().isProbabilitySolved(), "Expected copies marked solved");
+    assertSame(probability, description.getProbability(), "Expected the solved vector");
+    assertEquals(100, probability.getElement(2), "Expected cumulative probabilities up to 100");
+    assertTrue(probability.getElement(0) > 50, "Expected the large transform to dominate");
+    assertTrue(probability.getElement(0) < probability.getElement(1),
+        "Expected ascending cumulative probabilities");
+  }
+
+  @Test
+  void givenProbabilitiesAreNotSolved() {
+    ProbabilitySolver.solve(description);
+    description.setProbability(description.getProbability());
+    assertFalse(description.isProbabilitySolved(), "Expected edited probabilities kept");
+
+    ProbabilitySolver.solve(description);
+    description.clearProbabilities();
+    assertFalse(description.isProbabilitySolved(), "Expected cleared probabilities unsolved");
+  }
+}
@@ -0,0 +1,112 @@
+package backend.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.Complex;
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.JuliaTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TransformPipelineCompilerTest {
+  List<Transform> transforms;
+
+  @BeforeEach
+  void setUp() {
+    transforms = List.of(
+        new AffineTransform(new MatrixNxN(.85, .04, -.04, .85), new Vector(0, 1.6)),
+        new AffineTransform(new MatrixNxN(.2, -.26, .23, .22), new Vector(0, 1.6)),
+        new JuliaTransform(new Complex(-.74543, .11301), 1),
+        new JuliaTransform(new Complex(-.74543, .11301), -1),
+        new Transform() {
+          // Not inlined, called through the interface by the kernel
+          @Override
+          public Vector transform(Vector v) {
+            return new Vector(v.getElement(1), v.getElement(0));
+          }
+
+          @Override
+          public int inverseTransform(Vector v) {
+            return 0;
+          }
+
+          @Override
+          public String getDetailsAsString() {
+            return "swap";
+          }
+
+          @Override
+          public Transform copy() {
+            return this;
+          }
+        }
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    transforms = null;
+  }
+
+  @Test
+  void compiledKernelMatchesTransforms() {
+    TransformKernel kernel = TransformPipelineCompiler.compile(transforms);
+
+    for (int i = 0; i < transforms.size(); i++) {
+      double[] point = {.3, -.7};
+      kernel.apply(i, point);
+
+      Vector expected = transforms.get(i).transform(new Vector(.3, -.7));
+      assertEquals(expected.getElement(0), point[0], 1e-12, "Expected equal x for transform " + i);
+      assertEquals(expected.getElement(1), point[1], 1e-12, "Expected equal y for transform " + i);
+    }
+  }
+
+  @Test
+  void malformedKernelFallsBack() {
+    // A class file header followed by garbage fails to define with a ClassFormatError
+    byte[] malformed = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 64, 1};
+    TransformKernel kernel = TransformPipelineCompiler.define(transforms, malformed);
+
+    for (int i = 0; i < transforms.size(); i++) {
+      double[] point = {.3, -.7};
+      kernel.apply(i, point);
+
+      Vector expected = transforms.get(i).transform(new Vector(.3, -.7));
+      assertEquals(expected.getElement(0), point[0], 1e-12, "Expected equal x for transform " + i);
+      assertEquals(expected.getElement(1), point[1], 1e-12, "Expected equal y for transform " + i);
+    }
+  }
+
+  @Test
+  void compiledKernelIsCached() {
+    TransformKernel first = TransformPipelineCompiler.compile(transforms.subList(0, 2));
+    TransformKernel second = TransformPipelineCompiler.compile(transforms.subList(0, 2));
+    assertSame(first, second, "Expected the cached kernel");
+
+    TransformKernel other = TransformPipelineCompiler.compile(transforms.subList(1, 3));
+    assertNotSame(first, other, "Expected a new kernel for different transforms");
+  }
+
+  @Test
+  void cachedKernelIsSharedByEqualTransforms() {
+    ChaosGameDescription description = new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms.subList(0, 2), null
+    );
+    TransformKernel kernel = TransformPipelineCompiler.compile(description.getTransforms());
+    // A zoomed copy has the same transforms, and shares the kernel
+    ChaosGameDescription zoomed = description.copy();
+    zoomed.zoomView(1);
+    assertSame(kernel, TransformPipelineCompiler.compile(zoomed.getTransforms()),
+        "Expected the kernel of the same transforms");
+
+    ((AffineTransform) zoomed.getTransforms().get(0)).getMatrix().setElement(0, 0, .5);
+    assertNotSame(kernel, TransformPipelineCompiler.compile(zoomed.getTransforms()),
+        "Expected a new kernel for an edited transform");
+  }
+}
@@ -0,0 +1,56 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CanvasPoolTest {
+  CanvasPool pool;
+
+  @BeforeEach
+  void setUp() {
+    // Room for two 100 by 100 heap storages
+    pool = new CanvasPool(2 * 100 * 100 * Double.BYTES);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.clear();
+    pool = null;
+  }
+
+  @Test
+  void releasedStorageIsReusedEmpty() {
+    CanvasStorage storage = pool.acquire(CanvasStorageType.HEAP, 100, 100);
+    storage.add(5, 5, 1);
+    pool.release(CanvasStorageType.HEAP, storage);
+
+    CanvasStorage reused = pool.acquire(CanvasStorageType.HEAP, 100, 100);
+    assertSame(storage, reused, "Expected the released storage");
+    assertEquals(0, reused.get(5, 5), "Expected a cleared storage");
+    assertEquals(0, pool.getIdleCount(), "Expected no idle storages");
+  }
+
+  @Test
+  void otherSizesAndTypesAreNotReused() {
+    CanvasStorage storage = pool.acquire(CanvasStorageType.HEAP, 100, 100);
+    pool.release(CanvasStorageType.HEAP, storage);
+
+    assertNotSame(storage, pool.acquire(CanvasStorageType.HEAP, 100, 50),
+        "Expected a new storage for another size");
+    assertNotSame(storage, pool.acquire(CanvasStorageType.MORTON, 100, 100),
+        "Expected a new storage for another type");
+    assertEquals(1, pool.getIdleCount(), "Expected the storage to stay idle");
+  }
+
+  @Test
+  void oldestStoragesAreEvicted() {
+    for (int i = 0; i < 3; i++) {
+      pool.release(CanvasStorageType.HEAP, new HeapCanvasStorage(100, 100));
+    }
+    assertEquals(2, pool.getIdleCount(), "Expected two idle storages");
+    assertEquals(2 * 100 * 100 * Double.BYTES, pool.getIdleBytes(), "Expected the budget");
+  }
+}
@@ -0,0 +1,55 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CanvasPyramidTest {
+  CanvasStorage base;
+  CanvasPyramid pyramid;
+
+  @BeforeEach
+  void setUp() {
+    base = new HeapCanvasStorage(5, 4);
+    base.set(0, 0, 1);
+    base.set(1, 1, 2);
+    base.set(3, 4, 4);
+    pyramid = new CanvasPyramid(base);
+  }
+
+  @Test
+  void levelsHalveTheSize() {
+    assertEquals(4, pyramid.getLevelCount(), "Expected 5x4, 3x2, 2x1 and 1x1");
+    assertEquals(3, pyramid.getWidth(1), "Expected a width of 3");
+    assertEquals(2, pyramid.getHeight(1), "Expected a height of 2");
+    assertEquals(1, pyramid.getWidth(3), "Expected a single pixel at the top");
+  }
+
+  @Test
+  void levelsSumBlocks() {
+    assertEquals(3, pyramid.get(1, 0, 0), "Expected the sum of the top left block");
+    assertEquals(4, pyramid.get(1, 1, 2), "Expected the edge pixel in its own block");
+    assertEquals(7, pyramid.get(3, 0, 0), "Expected the total at the top");
+  }
+
+  @Test
+  void resampleKeepsTotal() {
+    assertEquals(1, pyramid.getNearestLevel(3, 2), "Expected level 1 for 3x2");
+
+    CanvasStorage smaller = new HeapCanvasStorage(2, 2);
+    pyramid.resampleTo(smaller);
+    assertEquals(7, sum(smaller), 1e-9, "Expected the total when shrinking");
+
+    CanvasStorage larger = new HeapCanvasStorage(10, 8);
+    pyramid.resampleTo(larger);
+    assertEquals(7, sum(larger), 1e-9, "Expected the total when enlarging");
+    assertEquals(0.25, larger.get(0, 0), 1e-9, "Expected a quarter of the corner pixel");
+  }
+
+  private static double sum(CanvasStorage storage) {
+    double[] sum = {0};
+    storage.forEachNonZero((row, column, value) -> sum[0] += value);
+    return sum[0];
+  }
+}
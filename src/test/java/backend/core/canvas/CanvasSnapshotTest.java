@@ -0,0 +1,34 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.Vector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CanvasSnapshotTest {
+  CanvasSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    CanvasStorage storage = new HeapCanvasStorage(10, 10);
+    storage.set(2, 3, 1.5);
+    snapshot = new CanvasSnapshot(CanvasStorageType.HEAP, storage,
+        new Vector(0.0, 0.0), new Vector(1.0, 1.0), 7, new CanvasStatistics());
+  }
+
+  @Test
+  void readsStorage() {
+    assertEquals(1.5, snapshot.get(2, 3), "Expected 1.5");
+    assertEquals(7, snapshot.getGeneration(), "Expected generation 7");
+    assertEquals(new Vector(1.0, 1.0), snapshot.getMaxCoords(), "Expected the max coords");
+  }
+
+  @Test
+  void releasedSnapshotCannotBeRetained() {
+    assertTrue(snapshot.tryRetain(), "Expected a live snapshot to be retained");
+    snapshot.release();
+    snapshot.release();
+    assertFalse(snapshot.tryRetain(), "Expected a released snapshot not to be retained");
+  }
+}
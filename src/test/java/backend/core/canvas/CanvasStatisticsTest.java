@@ -0,0 +1,50 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CanvasStatisticsTest {
+  CanvasStatistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = new CanvasStatistics();
+  }
+
+  @Test
+  void recordsMaxTotalAndCount() {
+    statistics.record(0, 0.5);
+    statistics.record(0.5, 1.0);
+    statistics.record(0, 0.5);
+
+    assertEquals(1.0, statistics.getMax(), "Expected a max of 1");
+    assertEquals(1.5, statistics.getTotal(), "Expected a total of 1.5");
+    assertEquals(2, statistics.getNonZeroCount(), "Expected two hit pixels");
+  }
+
+  @Test
+  void quantilesAreApproximate() {
+    // 99 pixels of 1 and a single pixel of 1000
+    for (int i = 0; i < 99; i++) {
+      statistics.record(0, 1);
+    }
+    statistics.record(0, 1000);
+
+    assertEquals(1, statistics.getQuantile(0.5), 0.25, "Expected a median of about 1");
+    assertEquals(1000, statistics.getQuantile(1), "Expected the max as the top quantile");
+    assertThrows(IllegalArgumentException.class, () -> statistics.getQuantile(2));
+  }
+
+  @Test
+  void copyAndReset() {
+    statistics.record(0, 3);
+    CanvasStatistics copy = statistics.copy();
+    statistics.reset();
+
+    assertEquals(0, statistics.getNonZeroCount(), "Expected no hit pixels after reset");
+    assertEquals(0, statistics.getQuantile(0.5), "Expected 0 for no hit pixels");
+    assertEquals(3, copy.getMax(), "Expected the copy to keep its max");
+  }
+}
@@ -0,0 +1,69 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColorBufferTest {
+  ColorBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    buffer = new ColorBuffer(30, 20);
+  }
+
+  @Test
+  void averagesColors() {
+    buffer.add(2, 3, 1, 0.2);
+    buffer.add(2, 3, 1, 0.6);
+
+    assertEquals(2, buffer.getHits(2, 3), "Expected two hits");
+    assertEquals(0.4, buffer.getColor(2, 3), 1e-6, "Expected the average color");
+    assertEquals(0, buffer.getColor(0, 0), "Expected 0 for an empty pixel");
+    assertEquals(30 * 20 * 8, buffer.getAllocatedBytes(), "Expected 8 bytes per pixel");
+    assertThrows(IllegalArgumentException.class, () -> new ColorBuffer(0, 1));
+  }
+
+  @Test
+  void constructorTooLarge() {
+    // Two floats per pixel overflow an int, and any single array, before the pixel count does
+    assertThrows(IllegalArgumentException.class, () -> new ColorBuffer(40000, 30000),
+        "Expected exception for a buffer larger than an array");
+    assertThrows(IllegalArgumentException.class, () -> new ColorBuffer(46341, 23171),
+        "Expected exception for a buffer just larger than an array");
+  }
+
+  @Test
+  void batchesMergeFromManyThreads() {
+    IntStream.range(0, 8).parallel().forEach(thread -> {
+      ColorBuffer.Batch batch = buffer.createBatch();
+      for (int i = 0; i < 10000; i++) {
+        batch.add(i % 20, (i * 7) % 30, thread % 2);
+      }
+      batch.flush();
+    });
+
+    double[] hits = {0};
+    buffer.forEachNonZero((row, column, value) -> hits[0] += value);
+    assertEquals(80000, hits[0], "Expected every hit to be merged");
+    assertEquals(0.5, buffer.getColor(0, 0), 1e-6, "Expected the average of both colors");
+  }
+
+  @Test
+  void reduceSumsBlocks() {
+    buffer.add(0, 0, 1, 0);
+    buffer.add(1, 1, 3, 3);
+    ColorBuffer reduced = buffer.reduce(2);
+
+    assertEquals(15, reduced.getWidth(), "Expected half the width");
+    assertEquals(4, reduced.getHits(0, 0), "Expected the sum of the block");
+    assertEquals(0.75, reduced.getColor(0, 0), 1e-6, "Expected the average of the block");
+
+    ColorBuffer copy = buffer.copy();
+    buffer.clear();
+    assertEquals(0, buffer.getHits(1, 1), "Expected no hits after clear");
+    assertEquals(3, copy.getHits(1, 1), "Expected the copy to keep its hits");
+  }
+}
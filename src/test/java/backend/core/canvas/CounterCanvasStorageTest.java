@@ -0,0 +1,65 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CounterCanvasStorageTest {
+
+  @Test
+  void int32CountsExactly() {
+    CounterCanvasStorage storage = new CounterCanvasStorage(10, 5, CounterEncoding.INT32);
+    for (int i = 0; i < 1000; i++) {
+      storage.add(4, 9, 0.5);
+    }
+    assertEquals(1000, storage.getCount(4, 9), "Expected 1000 hits");
+    assertEquals(500, storage.get(4, 9), "Expected the value of 1000 hits");
+    assertEquals(0, storage.get(0, 0), "Expected 0");
+  }
+
+  @Test
+  void saturating16Saturates() {
+    CounterCanvasStorage storage = new CounterCanvasStorage(4, 4, CounterEncoding.SATURATING16);
+    storage.set(1, 1, 65000 * 0.5);
+    storage.add(1, 1, 1000 * 0.5);
+    assertEquals(65535, storage.getCount(1, 1), "Expected the counter to saturate");
+  }
+
+  @Test
+  void log8EstimatesCount() {
+    CounterCanvasStorage storage = new CounterCanvasStorage(100, 1, CounterEncoding.LOG8);
+    for (int column = 0; column < 100; column++) {
+      for (int i = 0; i < 10000; i++) {
+        storage.add(0, column, 0.5);
+      }
+    }
+    double total = 0;
+    for (int column = 0; column < 100; column++) {
+      total += storage.getCount(0, column);
+    }
+    assertEquals(10000, total / 100, 1000, "Expected about 10000 hits on average");
+  }
+
+  @Test
+  void fractionalHitsKeepExpectedCount() {
+    CounterCanvasStorage storage = new CounterCanvasStorage(1, 1, CounterEncoding.INT32);
+    for (int i = 0; i < 100000; i++) {
+      storage.add(0, 0, 0.5 * 0.25);
+    }
+    assertEquals(25000, storage.getCount(0, 0), 1000, "Expected about a quarter of the hits");
+  }
+
+  @Test
+  void memoryPerEncoding() {
+    assertEquals(400, new CounterCanvasStorage(10, 10, CounterEncoding.INT32)
+        .getAllocatedBytes(), "Expected 4 bytes per pixel");
+    assertEquals(100, new CounterCanvasStorage(10, 10, CounterEncoding.LOG8)
+        .getAllocatedBytes(), "Expected 1 byte per pixel");
+  }
+
+  @Test
+  void negativeValuesThrow() {
+    CounterCanvasStorage storage = new CounterCanvasStorage(1, 1, CounterEncoding.INT32);
+    assertThrows(IllegalArgumentException.class, () -> storage.add(0, 0, -1));
+  }
+}
@@ -0,0 +1,73 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.Complex;
+import backend.geometry.Vector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EscapeTimeBufferTest {
+  Complex constant;
+  EscapeTimeBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    constant = new Complex(-.74543, .11301);
+    // Pixels of 0.04 by 0.05
+    buffer = new EscapeTimeBuffer(100, 80, new Vector(-2, -2), new Vector(2, 2), constant, 2);
+    for (int row = 0; row < 80; row++) {
+      for (int column = 0; column < 100; column++) {
+        buffer.set(row, column, row * 100 + column);
+      }
+    }
+  }
+
+  @Test
+  void samplesCorners() {
+    assertEquals(-2, buffer.getX(0), 1e-12, "Expected the first column at the minimum x");
+    assertEquals(2, buffer.getY(0), 1e-12, "Expected the first row at the maximum y");
+    assertEquals(-1.96, buffer.getX(1), 1e-12, "Expected a column per pixel width");
+    assertEquals(EscapeTimeBuffer.UNKNOWN, new EscapeTimeBuffer(
+        2, 2, new Vector(0, 0), new Vector(1, 1), constant, 2).get(1, 1),
+        "Expected new pixels to be unknown");
+  }
+
+  @Test
+  void reprojectPan() {
+    // 10 pixels right and 4 pixels up
+    EscapeTimeBuffer panned = new EscapeTimeBuffer(
+        100, 80, new Vector(-1.6, -1.8), new Vector(2.4, 2.2), constant, 2
+    );
+
+    assertEquals(90 * 76, panned.reproject(buffer), "Expected only the exposed strips computed");
+    assertEquals(buffer.get(0, 10), panned.get(4, 0), "Expected the pixels shifted");
+    assertEquals(EscapeTimeBuffer.UNKNOWN, panned.get(0, 0), "Expected the new strip unknown");
+    assertEquals(EscapeTimeBuffer.UNKNOWN, panned.get(10, 95), "Expected the new strip unknown");
+  }
+
+  @Test
+  void reprojectZoom() {
+    EscapeTimeBuffer zoomedIn = new EscapeTimeBuffer(
+        100, 80, new Vector(-1, -1), new Vector(1, 1), constant, 2
+    );
+    assertEquals(50 * 40, zoomedIn.reproject(buffer), "Expected every other pixel reused");
+    assertEquals(buffer.get(20, 25), zoomedIn.get(0, 0), "Expected the old pixel at the corner");
+    assertEquals(EscapeTimeBuffer.UNKNOWN, zoomedIn.get(0, 1), "Expected new pixels between");
+
+    EscapeTimeBuffer zoomedOut = new EscapeTimeBuffer(
+        100, 80, new Vector(-4, -4), new Vector(4, 4), constant, 2
+    );
+    assertEquals(50 * 40, zoomedOut.reproject(buffer), "Expected the old view reused");
+    assertEquals(buffer.get(0, 0), zoomedOut.get(20, 25), "Expected the old corner inside");
+  }
+
+  @Test
+  void reprojectOtherTransform() {
+    EscapeTimeBuffer other = new EscapeTimeBuffer(
+        100, 80, new Vector(-2, -2), new Vector(2, 2), new Complex(0.3, 0.5), 2
+    );
+    assertEquals(0, other.reproject(buffer), "Expected nothing reused for another constant");
+    assertEquals(0, other.reproject(null), "Expected nothing reused without a buffer");
+  }
+}
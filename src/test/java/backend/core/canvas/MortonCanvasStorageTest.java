@@ -0,0 +1,64 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MortonCanvasStorageTest {
+  MortonCanvasStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    // Not a multiple of the block size, so the edge blocks are padded
+    storage = new MortonCanvasStorage(150, 70);
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage = null;
+  }
+
+  @Test
+  void encodeDecode() {
+    Set<Integer> indices = new HashSet<>();
+    for (int row = 0; row < 70; row++) {
+      for (int column = 0; column < 150; column++) {
+        int index = storage.encode(row, column);
+        assertTrue(indices.add(index), "Expected a unique index for " + row + ", " + column);
+        assertEquals(row, storage.decodeRow(index), "Expected the row back");
+        assertEquals(column, storage.decodeColumn(index), "Expected the column back");
+      }
+    }
+  }
+
+  @Test
+  void encodeFollowsZCurve() {
+    assertEquals(0, storage.encode(0, 0), "Expected 0 for the first pixel");
+    assertEquals(1, storage.encode(0, 1), "Expected 1 to the right");
+    assertEquals(2, storage.encode(1, 0), "Expected 2 below");
+    assertEquals(3, storage.encode(1, 1), "Expected 3 diagonally");
+    assertEquals(64 * 64, storage.encode(0, 64), "Expected the next block");
+  }
+
+  @Test
+  void toArrayIsRowMajor() {
+    storage.add(69, 149, 1.5);
+    storage.add(3, 100, 2);
+
+    double[][] array = storage.toArray();
+    assertEquals(70, array.length, "Expected 70 rows");
+    assertEquals(150, array[0].length, "Expected 150 columns");
+    assertEquals(1.5, array[69][149], "Expected 1.5");
+    assertEquals(2, array[3][100], "Expected 2");
+  }
+
+  @Test
+  void outOfBoundsNegative() {
+    assertThrows(IndexOutOfBoundsException.class, () -> storage.add(0, 150, 1),
+        "Expected exception for a column in the padding");
+  }
+}
@@ -0,0 +1,67 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCanvasStorageTest {
+  OffHeapCanvasStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    storage = new OffHeapCanvasStorage(30, 20);
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage.close();
+    storage = null;
+  }
+
+  @Test
+  void addAndGet() {
+    assertEquals(0, storage.get(19, 29), "Expected 0");
+
+    storage.add(19, 29, 1.5);
+    assertEquals(2.0, storage.add(19, 29, .5), "Expected the new value");
+    assertEquals(2.0, storage.get(19, 29), "Expected 2");
+    assertEquals(0, storage.get(19, 28), "Expected the neighbour to be untouched");
+  }
+
+  @Test
+  void toArrayAndClear() {
+    storage.set(3, 7, 4.0);
+    double[][] array = storage.toArray();
+    assertEquals(20, array.length, "Expected 20 rows");
+    assertEquals(30, array[0].length, "Expected 30 columns");
+    assertEquals(4.0, array[3][7], "Expected 4");
+
+    storage.clear();
+    assertEquals(0, storage.get(3, 7), "Expected 0 after clearing");
+    assertEquals(4.0, array[3][7], "Expected the copy to keep its values");
+  }
+
+  @Test
+  void mappedFileIsDeletedOnClose() throws IOException {
+    Path file = Files.createTempFile("canvas-test", ".bin");
+    OffHeapCanvasStorage mapped = new OffHeapCanvasStorage(10, 10, file);
+    mapped.add(9, 9, 1.0);
+    assertEquals(1.0, mapped.get(9, 9), "Expected 1");
+
+    mapped.close();
+    assertFalse(Files.exists(file), "Expected the file to be deleted");
+    assertThrows(NullPointerException.class, () -> mapped.get(9, 9),
+        "Expected exception after closing");
+  }
+
+  @Test
+  void constructorNegative() {
+    assertThrows(IllegalArgumentException.class, () -> new OffHeapCanvasStorage(0, 10),
+        "Expected exception for zero width");
+  }
+}
@@ -0,0 +1,77 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SparseTileCanvasStorageTest {
+  SparseTileCanvasStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    storage = new SparseTileCanvasStorage(100000, 100000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    storage.close();
+    storage = null;
+  }
+
+  @Test
+  void tilesAreAllocatedOnFirstHit() {
+    assertEquals(0, storage.get(99999, 99999), "Expected 0");
+    storage.set(5, 5, 0);
+    assertEquals(0, storage.getTileCount(), "Expected no tiles before the first hit");
+
+    storage.add(99999, 99999, 1.5);
+    storage.add(99998, 99999, 1.0);
+    assertEquals(1, storage.getTileCount(), "Expected a single tile");
+    assertEquals(1.5, storage.get(99999, 99999), "Expected 1.5");
+    assertEquals(1.0, storage.get(99998, 99999), "Expected 1");
+  }
+
+  @Test
+  void manyTilesSurviveResizing() {
+    for (int i = 0; i < 5000; i++) {
+      storage.add(i / 1000 * 64, i % 1000 * 64, i + 1);
+    }
+    assertEquals(5000, storage.getTileCount(), "Expected one tile per hit");
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i + 1, storage.get(i / 1000 * 64, i % 1000 * 64),
+          "Expected the value of hit " + i);
+    }
+  }
+
+  @Test
+  void forEachNonZero() {
+    storage.add(0, 0, 1);
+    storage.add(64, 130, 2);
+    storage.add(99999, 5, 3);
+
+    List<String> visited = new ArrayList<>();
+    storage.forEachNonZero((row, column, value) -> visited.add(row + ":" + column + "=" + value));
+
+    assertEquals(3, visited.size(), "Expected three pixels");
+    assertTrue(visited.contains("64:130=2.0"), "Expected the pixel at 64, 130");
+    assertTrue(visited.contains("99999:5=3.0"), "Expected the pixel at 99999, 5");
+  }
+
+  @Test
+  void clear() {
+    storage.add(10, 10, 1);
+    storage.clear();
+    assertEquals(0, storage.getTileCount(), "Expected no tiles");
+    assertEquals(0, storage.get(10, 10), "Expected 0");
+  }
+
+  @Test
+  void outOfBoundsNegative() {
+    assertThrows(IndexOutOfBoundsException.class, () -> storage.add(100000, 0, 1),
+        "Expected exception for a row out of bounds");
+  }
+}
@@ -0,0 +1,118 @@
+package backend.core.canvas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.Vector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ToneMapperTest {
+  static final int[] BLACK_TO_WHITE = {0xff000000, 0xffffffff};
+
+  CanvasStorage storage;
+  CanvasStatistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    storage = new HeapCanvasStorage(2, 2);
+    statistics = new CanvasStatistics();
+    set(0, 0, 15);
+    // Half of the logarithmic density of the brightest pixel
+    set(1, 1, 3);
+  }
+
+  @Test
+  void mapsDensityThroughPalette() {
+    int[] argb = map(new ToneMapper(BLACK_TO_WHITE, 1, 1, 1), null);
+
+    assertEquals(0xffffffff, argb[0], "Expected the brightest pixel to be white");
+    assertEquals(0, argb[1], "Expected empty pixels to be transparent");
+    assertEquals(0x80, argb[3] & 0xff, 1, "Expected half the brightness");
+    assertEquals(0xff, argb[3] >>> 24, "Expected density colors to be opaque");
+  }
+
+  @Test
+  void gammaRaisesLowDensities() {
+    int[] argb = map(new ToneMapper(BLACK_TO_WHITE, 2, 1, 1), null);
+
+    assertEquals(Math.round(Math.sqrt(0.5) * 255), argb[3] & 0xff, 1,
+        "Expected the square root of half the brightness");
+  }
+
+  @Test
+  void transformColorsSetOpacity() {
+    ColorBuffer colors = new ColorBuffer(2, 2);
+    colors.add(0, 0, 1, 1);
+    colors.add(1, 1, 1, 0);
+    int[] argb = map(new ToneMapper(BLACK_TO_WHITE, 1, 1, 1), colors);
+
+    assertEquals(0xffffffff, argb[0], "Expected the last palette color at full opacity");
+    assertEquals(0, argb[3] & 0xffffff, "Expected the first palette color");
+    assertEquals(0x80, argb[3] >>> 24, 1, "Expected half the opacity");
+
+    colors.add(1, 1, 1, 2);
+    argb = map(new ToneMapper(BLACK_TO_WHITE, 1, 1, 1), colors);
+    assertEquals(argb[3] >>> 24, argb[3] & 0xff, 1, "Expected white premultiplied by the alpha");
+  }
+
+  @Test
+  void sparseStorageMapsInParallel() {
+    // Enough rows for many threads, and every thread reading many tiles
+    int size = 512;
+    CanvasStorage heap = new HeapCanvasStorage(size, size);
+    CanvasStorage sparse = new SparseTileCanvasStorage(size, size);
+    CanvasStatistics sparseStatistics = new CanvasStatistics();
+    for (int row = 0; row < size; row++) {
+      for (int column = (row * 7) % 3; column < size; column += 3) {
+        double value = 1 + (row * 31 + column * 17) % 100;
+        heap.set(row, column, value);
+        sparse.set(row, column, value);
+        sparseStatistics.record(0, value);
+      }
+    }
+    ToneMapper toneMapper = new ToneMapper(BLACK_TO_WHITE, 1, 1, 1);
+    int[] expected = new int[size * size];
+    int[] actual = new int[size * size];
+    toneMapper.map(new CanvasSnapshot(CanvasStorageType.HEAP, heap,
+        new Vector(0.0, 0.0), new Vector(1.0, 1.0), 1, sparseStatistics), expected);
+
+    for (int repeat = 0; repeat < 10; repeat++) {
+      toneMapper.map(new CanvasSnapshot(CanvasStorageType.SPARSE, sparse,
+          new Vector(0.0, 0.0), new Vector(1.0, 1.0), 1, sparseStatistics), actual);
+      assertArrayEquals(expected, actual, "Expected the same colors as a heap storage");
+    }
+  }
+
+  @Test
+  void fastLogarithmIsClose() {
+    for (double value : new double[] {0.5, 1, 7.25, 1e3, 1e9}) {
+      assertEquals(Math.log1p(value), ToneMapper.fastLog1p(value), 2e-4,
+          "Expected the logarithm of " + value);
+    }
+  }
+
+  @Test
+  void rejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new ToneMapper(new int[0], 1, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ToneMapper(BLACK_TO_WHITE, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> new ToneMapper(BLACK_TO_WHITE, 1, 2, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new ToneMapper(BLACK_TO_WHITE, 1, 1, 1).map(snapshot(null), new int[3]));
+  }
+
+  private void set(int row, int column, double value) {
+    storage.set(row, column, value);
+    statistics.record(0, value);
+  }
+
+  private int[] map(ToneMapper toneMapper, ColorBuffer colors) {
+    int[] argb = new int[4];
+    toneMapper.map(snapshot(colors), argb);
+    return argb;
+  }
+
+  private CanvasSnapshot snapshot(ColorBuffer colors) {
+    return new CanvasSnapshot(CanvasStorageType.HEAP, storage,
+        new Vector(0.0, 0.0), new Vector(1.0, 1.0), 1, statistics, colors);
+  }
+}
@@ -0,0 +1,79 @@
+package backend.rendering;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
+import backend.core.canvas.ToneMapper;
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FrameCacheTest {
+  ChaosGame chaosGame;
+  ToneMapper toneMapper;
+
+  @BeforeEach
+  void setUp() {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    chaosGame = new ChaosGame(new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, null
+    ), 10, 10);
+    toneMapper = new ToneMapper(new int[] {0xff000000, 0xffffffff}, 1, 1, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    chaosGame.close();
+  }
+
+  @Test
+  void equalRequestsHitTheCache() {
+    FrameCache cache = new FrameCache(1 << 20);
+    RenderRequest request = new RenderRequest(chaosGame, 1000, false, toneMapper);
+    RenderedFrame frame = new RenderedFrame(request, new int[100]);
+    cache.put(request, frame);
+
+    assertSame(frame, cache.get(new RenderRequest(chaosGame, 1000, false, toneMapper)),
+        "Expected an equal request to hit the cache");
+    assertNull(cache.get(new RenderRequest(chaosGame, 2000, false, toneMapper)),
+        "Expected other steps to miss the cache");
+    assertEquals(400, cache.getUsedBytes(), "Expected 4 bytes per pixel");
+  }
+
+  @Test
+  void leastRecentlyUsedIsDropped() {
+    // Room for two frames of 100 pixels
+    FrameCache cache = new FrameCache(800);
+    RenderRequest first = new RenderRequest(chaosGame, 1, false, toneMapper);
+    RenderRequest second = new RenderRequest(chaosGame, 2, false, toneMapper);
+    RenderRequest third = new RenderRequest(chaosGame, 3, false, toneMapper);
+    cache.put(first, new RenderedFrame(first, new int[100]));
+    cache.put(second, new RenderedFrame(second, new int[100]));
+    cache.get(first);
+    cache.put(third, new RenderedFrame(third, new int[100]));
+
+    assertEquals(2, cache.size(), "Expected the budget to hold two frames");
+    assertTrue(cache.contains(first), "Expected the recently used frame kept");
+    assertFalse(cache.contains(second), "Expected the least recently used frame dropped");
+    assertTrue(cache.contains(third), "Expected the new frame kept");
+  }
+
+  @Test
+  void frameLargerThanBudgetIsNotKept() {
+    FrameCache cache = new FrameCache(100);
+    RenderRequest request = new RenderRequest(chaosGame, 1000, false, toneMapper);
+    cache.put(request, new RenderedFrame(request, new int[100]));
+
+    assertEquals(0, cache.size(), "Expected no frame kept");
+    assertThrows(IllegalArgumentException.class, () -> new FrameCache(-1));
+  }
+}
@@ -0,0 +1,32 @@
+package backend.rendering;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class QualityLadderTest {
+
+  @Test
+  void defaultLadder() {
+    QualityLadder ladder = QualityLadder.DEFAULT;
+    assertEquals(3, ladder.getLevelCount(), "Expected 3 levels");
+    assertEquals(4, ladder.getResolutionDivisor(0), "Expected a quarter of the resolution");
+    assertEquals(0.05, ladder.getStepFraction(0), "Expected 5% of the steps");
+    assertEquals(1, ladder.getResolutionDivisor(2), "Expected the full resolution last");
+    assertEquals(1, ladder.getStepFraction(2), "Expected all steps last");
+  }
+
+  @Test
+  void invalidLadders() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new QualityLadder(new int[0], new double[0]));
+    assertThrows(IllegalArgumentException.class,
+        () -> new QualityLadder(new int[] {2, 1}, new double[] {1}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new QualityLadder(new int[] {1, 2}, new double[] {0.5, 1}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new QualityLadder(new int[] {2, 1}, new double[] {1, 0.5}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new QualityLadder(new int[] {0}, new double[] {1}));
+  }
+}
@@ -0,0 +1,388 @@
+package backend.rendering;
+
+import static config.DisplayConfig.PREFETCH_STEP_BUDGET;
+import static config.DisplayConfig.REFINE_IDLE_MILLIS;
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
+import backend.core.canvas.ToneMapper;
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RenderExecutorTest {
+  ChaosGame chaosGame;
+  ToneMapper toneMapper;
+  ManualScheduler scheduler;
+  RenderExecutor renderExecutor;
+
+  @BeforeEach
+  void setUp() {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.25, .5)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    chaosGame = new ChaosGame(new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, null
+    ), 50, 40);
+    toneMapper = new ToneMapper(new int[] {0xff000000, 0xffffffff}, 1, 1, 1);
+    // Frames are handed back on the render thread itself, without previews
+    renderExecutor = createExecutor(QualityLadder.FULL, new FrameCache(1 << 20));
+  }
+
+  @AfterEach
+  void tearDown() {
+    renderExecutor.close();
+    chaosGame.close();
+  }
+
+  @Test
+  void rendersOffTheCallingThread() throws Exception {
+    renderExecutor.close();
+    renderExecutor = new RenderExecutor(Runnable::run, QualityLadder.FULL);
+    CompletableFuture<RenderedFrame> result = new CompletableFuture<>();
+    CompletableFuture<Thread> renderThread = new CompletableFuture<>();
+    renderExecutor.submit(new RenderRequest(chaosGame, 10000, false, toneMapper), frame -> {
+      renderThread.complete(Thread.currentThread());
+      result.complete(frame);
+    });
+
+    RenderedFrame frame = result.get();
+    assertNotEquals(Thread.currentThread(), renderThread.get(), "Expected another thread");
+    assertEquals(50, frame.getWidth(), "Expected the width of the chaos game");
+    assertEquals(40, frame.getHeight(), "Expected the height of the chaos game");
+    long opaque = Arrays.stream(frame.getPixels()).filter(p -> p != 0).count();
+    assertTrue(opaque > 0, "Expected hit pixels in the frame");
+  }
+
+  @Test
+  void burstIsCoalesced() {
+    List<RenderRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      requests.add(new RenderRequest(chaosGame, 20000, false, toneMapper));
+      // Moves the view, like dragging a slider
+      chaosGame.getDescription().getMaxCoords().setElement(0, 1 + i * 0.01);
+    }
+    RenderRequest last = requests.get(requests.size() - 1);
+
+    List<RenderedFrame> frames = new ArrayList<>();
+    for (RenderRequest request : requests) {
+      renderExecutor.submit(request, frames::add);
+    }
+    assertTrue(frames.isEmpty(), "Expected nothing rendered before the render thread runs");
+    scheduler.runDue();
+
+    assertEquals(1, frames.size(), "Expected the burst to render a single frame");
+    assertSame(last, frames.get(0).getRequest(), "Expected the last request rendered");
+  }
+
+  @Test
+  void previewIsRefined() {
+    renderExecutor.close();
+    renderExecutor = createExecutor(QualityLadder.DEFAULT, new FrameCache(1 << 20));
+    List<RenderedFrame> frames = new ArrayList<>();
+    renderExecutor.submit(new RenderRequest(chaosGame, 10000, false, toneMapper), frames::add);
+
+    scheduler.runDue();
+    assertEquals(1, frames.size(), "Expected only the preview at first");
+    scheduler.advance(REFINE_IDLE_MILLIS - 1);
+    assertEquals(1, frames.size(), "Expected no refinement before the idle time");
+    scheduler.advance(1);
+
+    assertEquals(3, frames.size(), "Expected a frame per level");
+    assertEquals(12, frames.get(0).getWidth(), "Expected a quarter of the width first");
+    assertEquals(25, frames.get(1).getWidth(), "Expected half of the width second");
+    assertEquals(50, frames.get(2).getWidth(), "Expected the full width last");
+    assertEquals(500, frames.get(0).getRequest().getSteps(), "Expected 5% of the steps first");
+    assertFalse(frames.get(2).getRequest().isPreview(), "Expected the full frame last");
+  }
+
+  @Test
+  void newRequestCancelsRefinement() throws Exception {
+    renderExecutor.close();
+    renderExecutor = createExecutor(
+        new QualityLadder(new int[] {2, 1}, new double[] {0.000_001, 1}),
+        new FrameCache(1 << 20)
+    );
+    List<RenderedFrame> frames = new CopyOnWriteArrayList<>();
+
+    // Far too many steps to finish refining before it is cancelled
+    RenderRequest slow = new RenderRequest(chaosGame, 1_000_000_000, false, toneMapper);
+    renderExecutor.submit(slow, frames::add);
+    scheduler.runDue();
+    assertEquals(1, frames.size(), "Expected the preview rendered");
+
+    // The refinement runs on another thread, until the new request cancels it
+    CompletableFuture<Void> refinement =
+        CompletableFuture.runAsync(() -> scheduler.advance(REFINE_IDLE_MILLIS));
+    while (renderExecutor.getBackgroundGame() == null) {
+      Thread.onSpinWait();
+    }
+    RenderRequest fast = new RenderRequest(chaosGame, 1000, false, toneMapper);
+    renderExecutor.submit(fast, frames::add);
+    refinement.get();
+    scheduler.advance(REFINE_IDLE_MILLIS);
+
+    assertTrue(frames.stream().noneMatch(frame -> frame.getRequest().getSteps() == 1_000_000_000),
+        "Expected the refinement of the old request cancelled");
+    assertSame(fast, frames.get(frames.size() - 1).getRequest(),
+        "Expected the new request refined");
+  }
+
+  @Test
+  void cachedRequestIsHandedBackAtOnce() {
+    List<RenderedFrame> rendered = new ArrayList<>();
+    renderExecutor.submit(new RenderRequest(chaosGame, 10000, false, toneMapper), rendered::add);
+    scheduler.runDue();
+    assertEquals(1, rendered.size(), "Expected the request rendered");
+
+    List<RenderedFrame> frames = new ArrayList<>();
+    renderExecutor.submit(new RenderRequest(chaosGame, 10000, false, toneMapper), frames::add);
+    // Handed back during the submit, without running the render thread
+    assertEquals(1, frames.size(), "Expected the frame at once");
+    assertSame(rendered.get(0).getPixels(), frames.get(0).getPixels(),
+        "Expected the cached frame");
+  }
+
+  @Test
+  void speculativeRequestIsPrefetched() {
+    FrameCache cache = new FrameCache(1 << 20);
+    renderExecutor.close();
+    renderExecutor = createExecutor(QualityLadder.FULL, cache);
+    RenderRequest request = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    ChaosGameDescription zoomed = request.getDescription();
+    zoomed.zoomView(1);
+    RenderRequest speculative = request.withDescription(zoomed);
+
+    renderExecutor.submit(request, frame -> { }, List.of(speculative));
+    scheduler.runDue();
+    assertFalse(cache.contains(speculative), "Expected no prefetch before the idle time");
+    scheduler.advance(REFINE_IDLE_MILLIS);
+    assertTrue(cache.contains(speculative), "Expected the speculative request rendered ahead");
+
+    // Zooming the chaos game the same way gives an equal request
+    chaosGame.getDescription().zoomView(1);
+    RenderRequest next = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    assertEquals(speculative, next, "Expected the zoomed view to match the speculative one");
+    List<RenderedFrame> frames = new ArrayList<>();
+    renderExecutor.submit(next, frames::add);
+    assertEquals(1, frames.size(), "Expected the prefetched frame at once");
+  }
+
+  @Test
+  void prefetchKeepsToBudget() {
+    FrameCache cache = new FrameCache(1 << 20);
+    renderExecutor.close();
+    renderExecutor = createExecutor(QualityLadder.FULL, cache);
+    RenderRequest request = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    RenderRequest tooLarge = new RenderRequest(
+        chaosGame, (int) PREFETCH_STEP_BUDGET + 1, false, toneMapper
+    );
+    ChaosGameDescription zoomed = request.getDescription();
+    zoomed.zoomView(1);
+    RenderRequest speculative = request.withDescription(zoomed);
+
+    renderExecutor.submit(request, frame -> { }, List.of(tooLarge, speculative));
+    scheduler.runDue();
+    scheduler.advance(REFINE_IDLE_MILLIS);
+
+    assertFalse(cache.contains(tooLarge), "Expected no prefetch above the budget");
+    assertTrue(cache.contains(speculative), "Expected the request within the budget");
+  }
+
+  @Test
+  void requestKeyCannotBeChanged() {
+    RenderRequest request = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    RenderRequest same = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    int hash = request.hashCode();
+
+    request.getDescription().zoomView(1);
+    ChaosGameDescription zoomed = request.getDescription();
+    RenderRequest speculative = request.withDescription(zoomed);
+    zoomed.zoomView(1);
+
+    assertEquals(same, request, "Expected the request unchanged by its description");
+    assertEquals(hash, request.hashCode(), "Expected the same hash code");
+    assertEquals(request, speculative, "Expected the given description copied");
+  }
+
+  @Test
+  void prefetchCostCountsStepsOrPixels() {
+    assertEquals(10000, RenderExecutor.getCost(
+        new RenderRequest(chaosGame, 10000, false, toneMapper)), "Expected the steps");
+    assertEquals(50 * 40, RenderExecutor.getCost(
+        new RenderRequest(chaosGame, 10000, true, toneMapper)), "Expected one step per pixel");
+  }
+
+  @Test
+  void regionIsRenderedAlone() {
+    RenderRequest request = new RenderRequest(chaosGame, 10000, false, toneMapper);
+    RenderRequest region = request.forRegion(
+        new Vector(0, 0), new Vector(.25, .25), 80, 60, 20000
+    );
+
+    assertEquals(.25, region.getDescription().getMaxCoords().getElement(0),
+        "Expected the rectangle as the view of the region");
+    assertEquals(1, request.getDescription().getMaxCoords().getElement(0),
+        "Expected the view of the request unchanged");
+    RenderedFrame frame = RenderExecutor.render(region);
+    assertEquals(80, frame.getWidth(), "Expected the width of the region");
+    assertEquals(60, frame.getHeight(), "Expected the height of the region");
+    long opaque = Arrays.stream(frame.getPixels()).filter(p -> p != 0).count();
+    assertTrue(opaque > 100, "Expected the region sampled at its own resolution");
+    assertThrows(IllegalArgumentException.class,
+        () -> request.forRegion(new Vector(1, 0), new Vector(0, 1), 10, 10, 1000));
+  }
+
+  @Test
+  void requestCopiesDescription() {
+    RenderRequest request = new RenderRequest(chaosGame, 1000, false, toneMapper);
+    chaosGame.getDescription().getMaxCoords().setElement(0, 7);
+
+    assertEquals(1, request.getDescription().getMaxCoords().getElement(0),
+        "Expected the request to keep the description at the time of the request");
+    assertThrows(IllegalArgumentException.class,
+        () -> new RenderRequest(chaosGame, 1000, false, null));
+  }
+
+  @Test
+  void failedRenderIsNotHandedBack() {
+    // Only Julia transforms have an inverse
+    RenderRequest request = new RenderRequest(chaosGame, 1000, true, toneMapper);
+    assertNull(RenderExecutor.render(request), "Expected no frame for a failed render");
+  }
+
+  /**
+   * Returns a new executor with the given ladder and cache, run by a new manual scheduler.
+   */
+  private RenderExecutor createExecutor(QualityLadder ladder, FrameCache cache) {
+    scheduler = new ManualScheduler();
+    return new RenderExecutor(Runnable::run, ladder, cache, scheduler, scheduler::nanoTime);
+  }
+
+  /**
+   * A render thread that only runs its tasks when told to, on a clock that only moves when
+   * told to, so the tests do not depend on how fast the machine is.
+   */
+  static class ManualScheduler extends AbstractExecutorService
+      implements ScheduledExecutorService {
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private long nanos;
+    private long count;
+    private boolean shutdown;
+
+    synchronized long nanoTime() {
+      return nanos;
+    }
+
+    /**
+     * Moves the clock the given number of milliseconds ahead, and runs the tasks due.
+     */
+    void advance(long millis) {
+      synchronized (this) {
+        nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+      }
+      runDue();
+    }
+
+    /**
+     * Runs the tasks due, in order, also those scheduled by them while due.
+     */
+    void runDue() {
+      for (Task task = pollDue(); task != null; task = pollDue()) {
+        task.runnable().run();
+      }
+    }
+
+    private synchronized Task pollDue() {
+      return !tasks.isEmpty() && tasks.peek().due() <= nanos ? tasks.poll() : null;
+    }
+
+    @Override
+    public synchronized ScheduledFuture<?> schedule(
+        Runnable command, long delay, TimeUnit unit
+    ) {
+      if (!shutdown) {
+        tasks.add(new Task(nanos + Math.max(unit.toNanos(delay), 0), count++, command));
+      }
+      // The render executor does not use the futures
+      return null;
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+        Runnable command, long initialDelay, long period, TimeUnit unit
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(
+        Runnable command, long initialDelay, long delay, TimeUnit unit
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+      shutdown = true;
+    }
+
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+      shutdown = true;
+      List<Runnable> dropped = tasks.stream().map(Task::runnable).toList();
+      tasks.clear();
+      return dropped;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+
+    private record Task(long due, long order, Runnable runnable) implements Comparable<Task> {
+      @Override
+      public int compareTo(Task other) {
+        return due != other.due ? Long.compare(due, other.due) : Long.compare(order, other.order);
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package backend.rendering;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
+import backend.core.canvas.ToneMapper;
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RenderedFrameTest {
+  ChaosGame chaosGame;
+  Path image;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.5, 0, 0, .5), new Vector(.5, 0))
+    );
+    chaosGame = new ChaosGame(new ChaosGameDescription(
+        new Vector(0, 0), new Vector(1, 1), transforms, null
+    ), 3, 1);
+    image = Files.createTempFile("rendered-frame-test", ".ppm");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    chaosGame.close();
+    Files.delete(image);
+  }
+
+  @Test
+  void writePpmDrawsOverWhite() throws IOException {
+    ToneMapper toneMapper = new ToneMapper(new int[] {0xff000000}, 1, 1, 1);
+    RenderRequest request = new RenderRequest(chaosGame, 1000, false, toneMapper);
+    // Transparent, opaque red, and half transparent black premultiplied
+    RenderedFrame frame = new RenderedFrame(request, new int[] {0, 0xffff0000, 0x80000000});
+
+    frame.writePpm(image);
+
+    byte[] header = "P6\n3 1\n255\n".getBytes();
+    byte[] bytes = Files.readAllBytes(image);
+    assertEquals(header.length + 3 * 3, bytes.length, "Expected header and pixels");
+    assertEquals(255, bytes[header.length] & 0xff, "Expected white where transparent");
+    assertEquals(255, bytes[header.length + 3] & 0xff, "Expected the red of the red pixel");
+    assertEquals(0, bytes[header.length + 4] & 0xff, "Expected no green in the red pixel");
+    assertEquals(127, bytes[header.length + 6] & 0xff, "Expected gray for half black");
+  }
+}
@@ -0,0 +1,113 @@
+package backend.transforms;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FlameTransformTest {
+  FlameTransform flame;
+
+  @BeforeEach
+  void setUp() {
+    AffineTransform affine = new AffineTransform(
+        new MatrixNxN(.5, .1, -.2, .6), new Vector(.3, -.4)
+    );
+    flame = new FlameTransform(affine, Map.of(
+        Variation.SWIRL, .5, Variation.SPHERICAL, .25, Variation.DISC, .25
+    ));
+  }
+
+  @AfterEach
+  void tearDown() {
+    flame = null;
+  }
+
+  @Test
+  void transformLinear() {
+    FlameTransform linear = new FlameTransform(
+        new AffineTransform(new MatrixNxN(2, 0, 0, 3), new Vector(1, 1)),
+        Map.of(Variation.LINEAR, 1.0)
+    );
+    Vector result = linear.transform(new Vector(1, 2));
+
+    assertEquals(3, result.getElement(0), 1e-12, "Expected 3 as x");
+    assertEquals(7, result.getElement(1), 1e-12, "Expected 7 as y");
+  }
+
+  @Test
+  void transformSwirl() {
+    FlameTransform swirl = new FlameTransform(
+        new AffineTransform(new MatrixNxN(1, 0, 0, 1), new Vector(0, 0)),
+        Map.of(Variation.SWIRL, 1.0)
+    );
+    Vector result = swirl.transform(new Vector(.6, .8));
+
+    // r^2 is 1, so the point is rotated by 1 radian
+    double sin = Math.sin(1);
+    double cos = Math.cos(1);
+    assertEquals(.6 * sin - .8 * cos, result.getElement(0), 1e-9, "Expected swirled x");
+    assertEquals(.6 * cos + .8 * sin, result.getElement(1), 1e-9, "Expected swirled y");
+  }
+
+  @Test
+  void transformBatchMatchesTransform() {
+    double[] xs = {0, .1, -.7, 2, .5, -1.2, 0};
+    double[] ys = {0, .9, .3, -1, .5, -.4, 0};
+    VariationKernel kernel = new VariationKernel(2);
+
+    // Offset batch, the kernel grows to fit it
+    flame.transformBatch(xs, ys, 1, 5, kernel);
+
+    assertEquals(0, xs[0], "Expected points before the batch to be untouched");
+    assertEquals(0, ys[6], "Expected points after the batch to be untouched");
+    double[] originalXs = {.1, -.7, 2, .5, -1.2};
+    double[] originalYs = {.9, .3, -1, .5, -.4};
+    for (int i = 0; i < originalXs.length; i++) {
+      Vector expected = flame.transform(new Vector(originalXs[i], originalYs[i]));
+      assertEquals(expected.getElement(0), xs[i + 1], 1e-12, "Expected equal x for point " + i);
+      assertEquals(expected.getElement(1), ys[i + 1], 1e-12, "Expected equal y for point " + i);
+    }
+  }
+
+  @Test
+  void transformPointMatchesBatch() {
+    double[] xs = {.1, -.7, 2};
+    double[] ys = {.9, .3, -1};
+    flame.transformBatch(xs, ys, 0, 3, new VariationKernel(3));
+
+    // Repeated points reuse the scratch buffers of the thread
+    double[][] points = {{.1, .9}, {-.7, .3}, {2, -1}};
+    for (int i = 0; i < points.length; i++) {
+      flame.transformPoint(points[i]);
+      assertEquals(xs[i], points[i][0], 1e-12, "Expected equal x for point " + i);
+      assertEquals(ys[i], points[i][1], 1e-12, "Expected equal y for point " + i);
+    }
+  }
+
+  @Test
+  void getDetailsAsString() {
+    FlameTransform transform = new FlameTransform(
+        new AffineTransform(new MatrixNxN(1, 0, 0, 1), new Vector(0, 0)),
+        Map.of(Variation.SPHERICAL, .5, Variation.SINUSOIDAL, .5, Variation.HEART, 0.0)
+    );
+
+    assertEquals("1.0, 0.0, 0.0, 1.0, 0.0, 0.0 | sinusoidal 0.5, spherical 0.5",
+        transform.getDetailsAsString(), "Expected variations in declaration order without zeros");
+  }
+
+  @Test
+  void constructorNegative() {
+    AffineTransform affine = new AffineTransform(new MatrixNxN(1, 0, 0, 1), new Vector(0, 0));
+
+    assertThrows(IllegalArgumentException.class, () -> new FlameTransform(affine, Map.of()),
+        "Expected exception without variations");
+    assertThrows(IllegalArgumentException.class,
+        () -> new FlameTransform(null, Map.of(Variation.LINEAR, 1.0)),
+        "Expected exception without affine transform");
+  }
+}
@@ -0,0 +1,142 @@
+package benchmarks;
+
+import backend.core.ChaosCanvas;
+import backend.core.canvas.CanvasStorage;
+import backend.core.canvas.CanvasStorageType;
+import backend.geometry.Vector;
+import java.util.Random;
+
+/**
+ * Benchmarks the scatter writes of the chaos game on the different canvas layouts.
+ * The points are generated up front, so only the writes to the canvas are timed.
+ * Run the main method with a large heap, the 16k canvases need about 2 GB each. Pass the
+ * names of the layouts to measure as arguments to measure them in separate runs, so the
+ * compiler does not optimize one layout with what it learned from another.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class CanvasLayoutBenchmark {
+  private static final int POINTS = 20_000_000;
+  private static final int ROUNDS = 7;
+  private static final int[] SIZES = {1024, 4096, 16384};
+  private static final CanvasStorageType[] LAYOUTS = {
+      CanvasStorageType.HEAP, CanvasStorageType.MORTON
+  };
+
+  /**
+   * Prevent instantiation.
+   *
+   * @since 1.0
+   */
+  private CanvasLayoutBenchmark() {
+    // Prevent instantiation
+  }
+
+  /**
+   * Runs the benchmark and prints the median time per hit of every layout and size.
+   *
+   * @param args the names of the layouts to measure, or none for all layouts
+   * @since 1.0
+   */
+  public static void main(String[] args) {
+    CanvasStorageType[] layouts = LAYOUTS;
+    if (args.length > 0) {
+      layouts = java.util.Arrays.stream(args)
+          .map(CanvasStorageType::valueOf)
+          .toArray(CanvasStorageType[]::new);
+    }
+    double[][] fern = createFernPoints();
+    double[][] uniform = createUniformPoints();
+
+    System.out.println("size    layout   fern ns/hit  uniform ns/hit  visit ms");
+    for (int size : SIZES) {
+      for (CanvasStorageType layout : layouts) {
+        CanvasStorage storage = layout.create(size, size);
+        ChaosCanvas canvas = new ChaosCanvas(storage, new Vector(-2.65, 0), new Vector(2.65, 10));
+
+        double fernTime = measure(canvas, fern);
+        double uniformTime = measure(canvas, uniform);
+        // Visiting the hit pixels is how the canvas is drawn
+        double[] sum = new double[1];
+        long start = System.nanoTime();
+        storage.forEachNonZero((row, column, value) -> sum[0] += value);
+        double visitTime = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%-7d %-8s %11.2f %15.2f %9.0f%n",
+            size, layout, fernTime, uniformTime, visitTime);
+        canvas.close();
+      }
+    }
+  }
+
+  /**
+   * Writes all points to the canvas a few times, and returns the median time per hit.
+   * The canvas is not cleared between rounds, clearing is not what is measured.
+   *
+   * @since 1.0
+   */
+  private static double measure(ChaosCanvas canvas, double[][] points) {
+    double[] times = new double[ROUNDS];
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < POINTS; i++) {
+        canvas.putPixel(points[0][i], points[1][i], 1.0);
+      }
+      times[round] = (double) (System.nanoTime() - start) / POINTS;
+    }
+    java.util.Arrays.sort(times);
+    return times[ROUNDS / 2];
+  }
+
+  /**
+   * Returns the points of the Barnsley fern, in the order the chaos game visits them.
+   *
+   * @since 1.0
+   */
+  private static double[][] createFernPoints() {
+    double[][] points = new double[2][POINTS];
+    Random random = new Random(0);
+    double x = 0;
+    double y = 0;
+    for (int i = 0; i < POINTS; i++) {
+      double r = random.nextDouble();
+      double nextX;
+      double nextY;
+      if (r < .01) {
+        nextX = 0;
+        nextY = .16 * y;
+      } else if (r < .86) {
+        nextX = .85 * x + .04 * y;
+        nextY = -.04 * x + .85 * y + 1.6;
+      } else if (r < .93) {
+        nextX = .2 * x - .26 * y;
+        nextY = .23 * x + .22 * y + 1.6;
+      } else {
+        nextX = -.15 * x + .28 * y;
+        nextY = .26 * x + .24 * y + .44;
+      }
+      x = nextX;
+      y = nextY;
+      points[0][i] = x;
+      points[1][i] = y;
+    }
+    return points;
+  }
+
+  /**
+   * Returns points spread uniformly over the canvas, the worst case for any layout.
+   *
+   * @since 1.0
+   */
+  private static double[][] createUniformPoints() {
+    double[][] points = new double[2][POINTS];
+    Random random = new Random(0);
+    for (int i = 0; i < POINTS; i++) {
+      points[0][i] = random.nextDouble() * 5.3 - 2.65;
+      points[1][i] = random.nextDouble() * 10;
+    }
+    return points;
+  }
+}
@@ -0,0 +1,125 @@
+package benchmarks;
+
+import backend.core.ChaosGame;
+import backend.core.ChaosGameDescription;
+import backend.core.SplatMode;
+import backend.core.canvas.CanvasSnapshot;
+import backend.geometry.MatrixNxN;
+import backend.geometry.Vector;
+import backend.transforms.AffineTransform;
+import backend.transforms.Transform;
+import java.util.List;
+
+/**
+ * Benchmarks the speed and quality of the ways points are put on the canvas.
+ * The quality is the noise left after a number of steps, the total variation distance between
+ * the normalized image and a converged image of the same mode, from 0 for equal images to 1.
+ * Comparing every mode to its own converged image measures how fast the noise goes away,
+ * without counting the slight blur of the smoother modes as error.
+ *
+ * @version 1.0
+ * @author proggang
+ * @since 19.10.2026
+ */
+public class SplatBenchmark {
+  private static final int SIZE = 256;
+  private static final int REFERENCE_STEPS = 32_000_000;
+  private static final int[] STEPS = {100_000, 400_000, 1_600_000, 6_400_000};
+
+  /**
+   * Prevent instantiation.
+   *
+   * @since 1.0
+   */
+  private SplatBenchmark() {
+    // Prevent instantiation
+  }
+
+  /**
+   * Runs the benchmark and prints the time per step and the noise after each number of steps,
+   * for every mode.
+   *
+   * @param args not used
+   * @since 1.0
+   */
+  public static void main(String[] args) {
+    Object[][] modes = {
+        {SplatMode.NEAREST, 1}, {SplatMode.BILINEAR, 1},
+        {SplatMode.NEAREST, 2}, {SplatMode.NEAREST, 4}, {SplatMode.BILINEAR, 2}
+    };
+
+    System.out.print("mode          ns/step");
+    for (int steps : STEPS) {
+      System.out.printf(" %10d", steps);
+    }
+    System.out.println();
+
+    for (Object[] mode : modes) {
+      SplatMode splatMode = (SplatMode) mode[0];
+      int supersampling = (Integer) mode[1];
+      ChaosGame game = createFern();
+      game.setSplatMode(splatMode);
+      game.setSupersampling(supersampling);
+
+      game.runSteps(REFERENCE_STEPS);
+      double[] reference = readNormalized(game);
+
+      StringBuilder errors = new StringBuilder();
+      double timePerStep = 0;
+      for (int steps : STEPS) {
+        long start = System.nanoTime();
+        game.runSteps(steps);
+        timePerStep = (double) (System.nanoTime() - start) / steps;
+        errors.append(String.format(" %10.4f", distance(readNormalized(game), reference)));
+      }
+      System.out.printf("%-8s x%d %9.1f%s%n", splatMode, supersampling, timePerStep, errors);
+      game.close();
+    }
+  }
+
+  /**
+   * Returns the pixels of the latest snapshot, divided by their total.
+   *
+   * @since 1.0
+   */
+  private static double[] readNormalized(ChaosGame game) {
+    double[] pixels = new double[SIZE * SIZE];
+    try (CanvasSnapshot snapshot = game.acquireSnapshot()) {
+      double total = snapshot.getStatistics().getTotal();
+      snapshot.forEachNonZero((row, column, value) ->
+          pixels[row * SIZE + column] = value / total);
+    }
+    return pixels;
+  }
+
+  /**
+   * Returns the total variation distance between two normalized images.
+   *
+   * @since 1.0
+   */
+  private static double distance(double[] a, double[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += Math.abs(a[i] - b[i]);
+    }
+    return sum / 2;
+  }
+
+  /**
+   * Returns a chaos game of the Barnsley fern.
+   *
+   * @since 1.0
+   */
+  private static ChaosGame createFern() {
+    List<Transform> transforms = List.of(
+        new AffineTransform(new MatrixNxN(0, 0, 0, .16), new Vector(0, 0)),
+        new AffineTransform(new MatrixNxN(.85, .04, -.04, .85), new Vector(0, 1.6)),
+        new AffineTransform(new MatrixNxN(.2, -.26, .23, .22), new Vector(0, 1.6)),
+        new AffineTransform(new MatrixNxN(-.15, .28, .26, .24), new Vector(0, .44))
+    );
+    ChaosGameDescription description = new ChaosGameDescription(
+        new Vector(-2.65, 0), new Vector(2.65, 10), transforms, new Vector(1, 86, 93, 100)
+    );
+    return new ChaosGame(description, SIZE, SIZE);
+  }
+}